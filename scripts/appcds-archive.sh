@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Gera o arquivo AppCDS a partir de execuções de treino de cada caminho de inicialização medido.
+# Uso: scripts/appcds-archive.sh <java> <jar> <entrada de treino> <arquivo .jsa>
+# Chamado por mvn -Pappcds package; cada execução grava a lista de classes carregadas, e o
+# arquivo estático é gerado da união delas.
+set -euo pipefail
+
+java=$1
+jar=$2
+training=$3
+archive=$4
+lists=$(dirname "$archive")/appcds-classlists
+merged=${archive%.jsa}.classlist
+rm -rf "$lists"
+mkdir -p "$lists"
+
+# Codec jackson com JMX, pela entrada padrão e por arquivo mapeado
+"$java" -XX:DumpLoadedClassList="$lists/jackson-stdin.classlist" -jar "$jar" < "$training" > /dev/null
+"$java" -XX:DumpLoadedClassList="$lists/jackson-input.classlist" -jar "$jar" --input "$training" > /dev/null
+# Codec rápido sem JMX, pela entrada padrão
+"$java" -XX:DumpLoadedClassList="$lists/fast-stdin.classlist" -jar "$jar" --codec fast --no-jmx \
+    < "$training" > /dev/null
+
+# Os ids só valem dentro de uma lista; o carregador da aplicação não precisa deles
+sed 's/ id: [0-9]*$//' "$lists"/*.classlist | awk '!seen[$0]++' > "$merged"
+"$java" -Xshare:dump -XX:SharedClassListFile="$merged" -XX:SharedArchiveFile="$archive" \
+    -cp "$jar"
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Mede o tempo total (início da JVM até a saída) de execuções curtas em cada variante de inicialização.
+# Uso: scripts/startup-time.sh [execuções] [arquivo de entrada]
+# Requer mvn package; a variante AppCDS requer mvn -Pappcds package e a nativa mvn -Pnative package.
+set -euo pipefail
+
+runs=${1:-20}
+input=${2:-input.json}
+java=${JAVA_HOME:+$JAVA_HOME/bin/}java
+jar=target/capital-gains-1.0-SNAPSHOT-jar-with-dependencies.jar
+archive=target/capital-gains.jsa
+native=target/capital-gains
+
+measure() {
+    local label=$1
+    shift
+    "$@" < "$input" > /dev/null # aquecimento do cache de páginas do SO
+    local start end
+    start=$(date +%s%N)
+    for _ in $(seq "$runs"); do
+        "$@" < "$input" > /dev/null
+    done
+    end=$(date +%s%N)
+    printf '%-32s %6d ms/run\n' "$label" $(( (end - start) / runs / 1000000 ))
+}
+
+measure "jar, jackson codec" "$java" -jar "$jar"
+measure "jar, fast codec, no JMX" "$java" -jar "$jar" --codec fast --no-jmx
+if [[ -f $archive ]]; then
+    measure "AppCDS, jackson codec" "$java" -XX:SharedArchiveFile="$archive" -jar "$jar"
+    measure "AppCDS, fast codec, no JMX" "$java" -XX:SharedArchiveFile="$archive" -jar "$jar" --codec fast --no-jmx
+else
+    echo "AppCDS: $archive not found, run mvn -Pappcds package"
+fi
+if [[ -x $native ]]; then
+    measure "native, jackson codec" "$native"
+    measure "native, fast codec, no JMX" "$native" --codec fast --no-jmx
+else
+    echo "native: $native not found, run mvn -Pnative package with GraalVM"
+fi
@@ -0,0 +1,59 @@
+package org.finance.benchmarks;
+
+import org.finance.application.dto.OperationDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks, so runs are comparable across releases.
+ */
+final class BenchmarkData {
+    private static final long SEED = 20240101L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A single simulation of {@code size} operations: a random price walk where sells never
+     * exceed the position and roughly one sell in five closes it.
+     */
+    static List<OperationDTO> operations(int size) {
+        Random random = new Random(SEED + size);
+        List<OperationDTO> operations = new ArrayList<>(size);
+        long held = 0;
+        long priceCents = 1_000 + random.nextInt(4_000);
+
+        for (int i = 0; i < size; i++) {
+            priceCents = Math.max(1, priceCents + random.nextInt(201) - 100);
+            BigDecimal unitCost = BigDecimal.valueOf(priceCents, 2);
+
+            if (held > 0 && random.nextBoolean()) {
+                long quantity = random.nextInt(5) == 0 ? held : 1 + random.nextLong(held);
+                operations.add(new OperationDTO("sell", unitCost, quantity));
+                held -= quantity;
+            } else {
+                long quantity = 1 + random.nextInt(10_000);
+                operations.add(new OperationDTO("buy", unitCost, quantity));
+                held += quantity;
+            }
+        }
+        return operations;
+    }
+
+    static String json(List<OperationDTO> operations) {
+        StringBuilder json = new StringBuilder(operations.size() * 64).append('[');
+        for (int i = 0; i < operations.size(); i++) {
+            OperationDTO op = operations.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"operation\":\"").append(op.getOperation())
+                    .append("\", \"unit-cost\":").append(op.getUnitCost().toPlainString())
+                    .append(", \"quantity\": ").append(op.getQuantity()).append('}');
+        }
+        return json.append(']').toString();
+    }
+}
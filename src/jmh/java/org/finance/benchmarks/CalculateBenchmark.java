@@ -0,0 +1,67 @@
+package org.finance.benchmarks;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.TaxResult;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.domain.usecases.FixedPointCapitalGainsTax;
+import org.finance.domain.usecases.SegmentedCapitalGainsTax;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculateBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int size;
+
+    /**
+     * {@code segmented} is the fixed-point engine split across all available cores.
+     */
+    @Param({"bigdecimal", "fixed", "segmented"})
+    private String engine;
+
+    private CalculateCapitalGainsTax calculator;
+    private List<Operation> operations;
+
+    @Setup
+    public void setUp() {
+        calculator = switch (engine) {
+            case "fixed" -> new FixedPointCapitalGainsTax();
+            case "segmented" -> new SegmentedCapitalGainsTax(new FixedPointCapitalGainsTax(),
+                    Runtime.getRuntime().availableProcessors());
+            default -> new CalculateCapitalGainsTax();
+        };
+        operations = BenchmarkData.operations(size).stream().map(OperationDTO::toDomain).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (calculator instanceof SegmentedCapitalGainsTax segmented) {
+            segmented.close();
+        }
+    }
+
+    @Benchmark
+    public List<TaxResult> calculate() {
+        return calculator.calculate(operations);
+    }
+}
@@ -0,0 +1,83 @@
+package org.finance.benchmarks;
+
+import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.infrastructure.io.CommandLineProcessor;
+import org.finance.infrastructure.json.FastJsonParser;
+import org.finance.infrastructure.json.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end run of the stdin/stdout pipeline: framing, parsing, calculation,
+ * serialization and printing. Output goes to a discarding stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandLineProcessorBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"lines", "stream", "fast", "columnar"})
+    private String mode;
+
+    private CommandLineProcessor commandLineProcessor;
+    private byte[] input;
+    private InputStream originalIn;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        JsonParser jsonParser = "fast".equals(mode) || "columnar".equals(mode) ? new FastJsonParser() : new JsonParser();
+        TaxCalculationService taxCalculationService = new TaxCalculationService(new CalculateCapitalGainsTax());
+        commandLineProcessor = new CommandLineProcessor(jsonParser, taxCalculationService, "columnar".equals(mode));
+        input = (BenchmarkData.json(BenchmarkData.operations(size)) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        originalIn = System.in;
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setIn(originalIn);
+        System.setOut(originalOut);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetInput() {
+        System.setIn(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public void process() {
+        if ("stream".equals(mode)) {
+            commandLineProcessor.processStreaming();
+        } else {
+            commandLineProcessor.process();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.finance.benchmarks;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.infrastructure.json.FastJsonParser;
+import org.finance.infrastructure.json.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseOperationsBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"jackson", "fast"})
+    private String codec;
+
+    private JsonParser jsonParser;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        jsonParser = "fast".equals(codec) ? new FastJsonParser() : new JsonParser();
+        json = BenchmarkData.json(BenchmarkData.operations(size));
+    }
+
+    @Benchmark
+    public List<OperationDTO> parseOperations() {
+        return jsonParser.parseOperations(json);
+    }
+}
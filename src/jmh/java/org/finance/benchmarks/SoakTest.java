@@ -0,0 +1,220 @@
+package org.finance.benchmarks;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.finance.application.metrics.ProcessingMetrics;
+import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.domain.usecases.FixedPointCapitalGainsTax;
+import org.finance.infrastructure.io.CommandLineProcessor;
+import org.finance.infrastructure.json.FastJsonParser;
+import org.finance.infrastructure.json.JsonParser;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives {@link CommandLineProcessor} over a workload file again and again for a fixed
+ * duration, discarding the output, and prints one CSV sample per interval on stdout:
+ * throughput from {@link ProcessingMetrics}, GC count, total and longest pause in the
+ * interval, heap in use, and the process's resident and peak resident set size. A summary
+ * follows on stderr.
+ * <p>
+ * Pauses come from GC notifications; collectors whose name marks them as concurrent cycles
+ * (G1 Concurrent GC, ZGC/Shenandoah cycles) are left out, as their duration is not a pause.
+ * RSS is read from {@code /proc/self/status} and reported as {@code -1} elsewhere.
+ * <pre>
+ * java -Xmx512m -cp target/capital-gains-1.0-SNAPSHOT-jar-with-dependencies.jar org.finance.benchmarks.SoakTest \
+ *     --input workload.json --duration 30m --interval 10s --codec fast --parallel 4
+ * </pre>
+ */
+public class SoakTest {
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    private final AtomicLong gcCount = new AtomicLong();
+    private final AtomicLong gcPauseMillis = new AtomicLong();
+    private final AtomicLong maxGcPauseMillis = new AtomicLong();
+    private long maxIntervalPauseMillis;
+    private long peakRssKb = -1;
+
+    public static void main(String[] args) throws Exception {
+        Path input = null;
+        Duration duration = Duration.ofMinutes(5);
+        Duration interval = Duration.ofSeconds(10);
+        boolean fast = false;
+        boolean fixed = false;
+        int parallelism = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input" -> input = Path.of(args[++i]);
+                case "--duration" -> duration = duration(args[++i]);
+                case "--interval" -> interval = duration(args[++i]);
+                case "--codec" -> fast = "fast".equals(args[++i]);
+                case "--engine" -> fixed = "fixed".equals(args[++i]);
+                case "--parallel" -> parallelism = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (input == null) {
+            throw new IllegalArgumentException("--input is required; create one with WorkloadGenerator");
+        }
+
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        CalculateCapitalGainsTax engine = fixed ? new FixedPointCapitalGainsTax() : new CalculateCapitalGainsTax();
+        JsonParser parser = fast ? new FastJsonParser() : new JsonParser();
+        CommandLineProcessor processor = new CommandLineProcessor(parser, new TaxCalculationService(engine, metrics));
+
+        new SoakTest().run(processor, metrics, input, parallelism, duration, interval);
+    }
+
+    void run(CommandLineProcessor processor, ProcessingMetrics metrics, Path input, int parallelism,
+             Duration duration, Duration interval) throws IOException {
+        listenForPauses();
+        PrintStream out = System.out;
+        out.println("elapsed_s,passes,simulations,simulations_per_s,operations_per_s,mb_in_per_s,"
+                + "gc_count,gc_pause_ms,gc_max_pause_ms,heap_used_mb,rss_mb,peak_rss_mb");
+
+        long start = System.nanoTime();
+        AtomicLong passes = new AtomicLong();
+        Sample[] previous = {new Sample(start, metrics, 0, 0)};
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("soak-sampler").daemon().factory());
+        sampler.scheduleAtFixedRate(() -> {
+            Sample sample = new Sample(System.nanoTime(), metrics, gcCount.get(), gcPauseMillis.get());
+            out.println(sample.row(previous[0], start, passes.get(), takeIntervalMaxPause()));
+            previous[0] = sample;
+        }, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+
+        long deadline = start + duration.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                if (parallelism > 1) {
+                    processor.processFile(input, OutputStream.nullOutputStream(), parallelism);
+                } else {
+                    try (InputStream in = Files.newInputStream(input)) {
+                        processor.process(in, OutputStream.nullOutputStream());
+                    }
+                }
+                passes.incrementAndGet();
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Soak: %d passes, %d simulations in %.0f s (%.0f/s), %d GCs, %d ms paused, "
+                        + "longest pause %d ms, peak RSS %d MB%n",
+                passes.get(), metrics.getSimulations(), seconds, metrics.getSimulations() / seconds,
+                gcCount.get(), gcPauseMillis.get(), maxGcPauseMillis.get(), Math.max(readPeakRssKb(), peakRssKb) / 1024);
+        System.err.println(metrics.summary());
+    }
+
+    private void listenForPauses() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof NotificationEmitter emitter)) {
+                continue;
+            }
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                        (CompositeData) notification.getUserData());
+                String name = info.getGcName();
+                if (name.contains("Concurrent") || name.contains("Cycles")) {
+                    return;
+                }
+                long pause = info.getGcInfo().getDuration();
+                gcCount.incrementAndGet();
+                gcPauseMillis.addAndGet(pause);
+                maxGcPauseMillis.accumulateAndGet(pause, Math::max);
+                synchronized (this) {
+                    maxIntervalPauseMillis = Math.max(maxIntervalPauseMillis, pause);
+                }
+            }, null, null);
+        }
+    }
+
+    private synchronized long takeIntervalMaxPause() {
+        long max = maxIntervalPauseMillis;
+        maxIntervalPauseMillis = 0;
+        return max;
+    }
+
+    /**
+     * @return the {@code /proc/self/status} value of {@code field} in kB, or {@code -1}
+     */
+    private static long readStatusKb(String field) {
+        try {
+            List<String> lines = Files.readAllLines(PROC_STATUS);
+            for (String line : lines) {
+                if (line.startsWith(field + ":")) {
+                    return Long.parseLong(line.substring(field.length() + 1).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux, or an unexpected format
+        }
+        return -1;
+    }
+
+    private long readPeakRssKb() {
+        peakRssKb = Math.max(peakRssKb, readStatusKb("VmHWM"));
+        return peakRssKb;
+    }
+
+    private static Duration duration(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration: " + value);
+        };
+    }
+
+    private final class Sample {
+        final long nanos;
+        final long simulations;
+        final long operations;
+        final long bytesIn;
+        final long gcs;
+        final long gcMillis;
+
+        Sample(long nanos, ProcessingMetrics metrics, long gcs, long gcMillis) {
+            this.nanos = nanos;
+            this.simulations = metrics.getSimulations();
+            this.operations = metrics.getOperations();
+            this.bytesIn = metrics.getBytesIn();
+            this.gcs = gcs;
+            this.gcMillis = gcMillis;
+        }
+
+        String row(Sample previous, long start, long passes, long maxPauseMillis) {
+            double seconds = (nanos - previous.nanos) / 1e9;
+            Runtime runtime = Runtime.getRuntime();
+            long rssKb = readStatusKb("VmRSS");
+            return String.format("%.0f,%d,%d,%.0f,%.0f,%.1f,%d,%d,%d,%d,%d,%d",
+                    (nanos - start) / 1e9, passes, simulations,
+                    (simulations - previous.simulations) / seconds,
+                    (operations - previous.operations) / seconds,
+                    (bytesIn - previous.bytesIn) / seconds / (1 << 20),
+                    gcs - previous.gcs, gcMillis - previous.gcMillis, maxPauseMillis,
+                    (runtime.totalMemory() - runtime.freeMemory()) >> 20,
+                    rssKb < 0 ? -1 : rssKb / 1024, readPeakRssKb() < 0 ? -1 : peakRssKb / 1024);
+        }
+    }
+}
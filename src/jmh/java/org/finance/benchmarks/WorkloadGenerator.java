@@ -0,0 +1,199 @@
+package org.finance.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Writes seeded synthetic input, one simulation per line, in the format {@code Main} reads.
+ * Each simulation draws its own generator from the seed and its index, so a given set of
+ * options always produces the same bytes, and a prefix of a large workload equals the
+ * smaller workload with the same seed.
+ * <p>
+ * History lengths are log-uniform between the minimum and maximum, so most simulations are
+ * short and a few are very long. Prices follow a geometric random walk per position.
+ * A position that holds shares sells with the sell ratio, and a sale closes it completely
+ * with the close ratio, which is what resets the average price. With accounts, operations
+ * are spread across account/ticker positions. Generation stops after the simulation count,
+ * or once the target size has been written, whichever comes first.
+ * <pre>
+ * java -cp target/capital-gains-1.0-SNAPSHOT-jar-with-dependencies.jar org.finance.benchmarks.WorkloadGenerator \
+ *     --simulations 100000 --operations 10..10000 --output workload.json
+ * </pre>
+ */
+public class WorkloadGenerator {
+    private static final String[] TICKERS = {"PETR4", "VALE3", "ITUB4", "BBDC4", "ABEV3", "WEGE3", "B3SA3", "RENT3"};
+
+    private long seed = 1;
+    private long simulations = -1;
+    private int minOperations = 10;
+    private int maxOperations = 1_000;
+    private double sellRatio = 0.4;
+    private double closeRatio = 0.15;
+    private double volatility = 0.02;
+    private long maxQuantity = 10_000;
+    private int accounts;
+    private long targetBytes = Long.MAX_VALUE;
+    private Path output;
+
+    public static void main(String[] args) throws IOException {
+        WorkloadGenerator generator = parse(args);
+        Writer writer = generator.output != null
+                ? Files.newBufferedWriter(generator.output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (writer) {
+            Totals totals = generator.generate(writer);
+            System.err.println("Generated " + totals.simulations + " simulations, " + totals.operations
+                    + " operations, " + totals.bytes + " bytes");
+        }
+    }
+
+    static WorkloadGenerator parse(String[] args) {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed" -> generator.seed = Long.parseLong(value(args, ++i));
+                case "--simulations" -> generator.simulations = Long.parseLong(value(args, ++i));
+                case "--operations" -> {
+                    String[] range = value(args, ++i).split("\\.\\.");
+                    generator.minOperations = Integer.parseInt(range[0]);
+                    generator.maxOperations = Integer.parseInt(range[range.length - 1]);
+                }
+                case "--sell-ratio" -> generator.sellRatio = Double.parseDouble(value(args, ++i));
+                case "--close-ratio" -> generator.closeRatio = Double.parseDouble(value(args, ++i));
+                case "--volatility" -> generator.volatility = Double.parseDouble(value(args, ++i));
+                case "--max-quantity" -> generator.maxQuantity = Long.parseLong(value(args, ++i));
+                case "--accounts" -> generator.accounts = Integer.parseInt(value(args, ++i));
+                case "--size" -> generator.targetBytes = bytes(value(args, ++i));
+                case "--output" -> generator.output = Path.of(value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (generator.minOperations < 1 || generator.maxOperations < generator.minOperations) {
+            throw new IllegalArgumentException("Invalid --operations range");
+        }
+        if (generator.maxQuantity < 2) {
+            throw new IllegalArgumentException("Invalid --max-quantity");
+        }
+        if (generator.simulations < 0) {
+            // Without a count, --size alone decides when to stop
+            generator.simulations = generator.targetBytes == Long.MAX_VALUE ? 1_000 : Long.MAX_VALUE;
+        }
+        return generator;
+    }
+
+    /**
+     * @return what was written
+     */
+    public Totals generate(Writer writer) throws IOException {
+        Totals totals = new Totals();
+        StringBuilder line = new StringBuilder(4096);
+        for (long index = 0; index < simulations && totals.bytes < targetBytes; index++) {
+            line.setLength(0);
+            totals.operations += simulation(new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index), line);
+            line.append('\n');
+            writer.append(line);
+            totals.simulations++;
+            // The output is ASCII, so chars are bytes
+            totals.bytes += line.length();
+        }
+        return totals;
+    }
+
+    private int simulation(SplittableRandom random, StringBuilder line) {
+        int length = (int) Math.round(Math.exp(
+                random.nextDouble(Math.log(minOperations), Math.nextUp(Math.log(maxOperations)))));
+        length = Math.min(Math.max(length, minOperations), maxOperations);
+        Map<String, Position> positions = new HashMap<>();
+
+        line.append('[');
+        for (int i = 0; i < length; i++) {
+            String account = accounts > 0 ? "acc-" + random.nextInt(accounts) : null;
+            String ticker = accounts > 0 ? TICKERS[random.nextInt(TICKERS.length)] : null;
+            Position position = positions.computeIfAbsent(account + "/" + ticker, key -> new Position(random));
+            position.priceCents = Math.max(1, Math.round(position.priceCents * Math.exp(volatility * random.nextGaussian())));
+
+            boolean sell = position.held > 0 && random.nextDouble() < sellRatio;
+            long quantity;
+            if (sell) {
+                quantity = random.nextDouble() < closeRatio ? position.held : 1 + random.nextLong(position.held);
+                position.held -= quantity;
+            } else {
+                quantity = (long) Math.exp(random.nextDouble(Math.log(maxQuantity)));
+                position.held += quantity;
+            }
+
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append("{\"operation\":\"").append(sell ? "sell" : "buy")
+                    .append("\",\"unit-cost\":").append(position.priceCents / 100).append('.');
+            long cents = position.priceCents % 100;
+            if (cents < 10) {
+                line.append('0');
+            }
+            line.append(cents).append(",\"quantity\":").append(quantity);
+            if (account != null) {
+                line.append(",\"account\":\"").append(account).append("\",\"ticker\":\"").append(ticker).append('"');
+            }
+            line.append('}');
+        }
+        line.append(']');
+        return length;
+    }
+
+    private static long bytes(String size) {
+        String upper = size.toUpperCase();
+        long unit = 1;
+        if (upper.endsWith("KB")) {
+            unit = 1L << 10;
+        } else if (upper.endsWith("MB")) {
+            unit = 1L << 20;
+        } else if (upper.endsWith("GB")) {
+            unit = 1L << 30;
+        }
+        String digits = unit == 1 ? upper : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(digits.trim()) * unit;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static final class Position {
+        long priceCents;
+        long held;
+
+        Position(SplittableRandom random) {
+            priceCents = 500 + random.nextLong(9_500);
+        }
+    }
+
+    public static final class Totals {
+        long simulations;
+        long operations;
+        long bytes;
+
+        public long getSimulations() {
+            return simulations;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
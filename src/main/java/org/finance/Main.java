@@ -1,23 +1,312 @@
 package org.finance;
 
+import org.finance.application.metrics.ProcessingMetrics;
 import org.finance.application.services.TaxCalculationService;
 import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.domain.usecases.FixedPointCapitalGainsTax;
+import org.finance.domain.usecases.MultiScenarioCapitalGainsTax;
+import org.finance.domain.usecases.PrefixCachingCapitalGainsTax;
+import org.finance.domain.usecases.SegmentedCapitalGainsTax;
+import org.finance.domain.usecases.ShardedCapitalGainsTax;
+import org.finance.infrastructure.io.BinaryFormatConverter;
+import org.finance.infrastructure.io.CommandLineOptions;
+import org.finance.infrastructure.io.CommandLineOptions.Mode;
 import org.finance.infrastructure.io.CommandLineProcessor;
+import org.finance.infrastructure.io.DirectoryBatchProcessor;
+import org.finance.infrastructure.io.FollowProcessor;
+import org.finance.infrastructure.io.ResultJournal;
+import org.finance.infrastructure.io.SimulationHttpServer;
+import org.finance.infrastructure.io.SimulationResultCache;
+import org.finance.infrastructure.io.ValidatingProcessor;
+import org.finance.infrastructure.jmx.ProcessingMetricsJmx;
+import org.finance.infrastructure.json.FastJsonParser;
 import org.finance.infrastructure.json.JsonParser;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 public class Main {
+    private static final long SHUTDOWN_SECONDS = 10;
+
     public static void main(String[] args) {
+        CommandLineOptions options;
+        try {
+            options = CommandLineOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (options.getMode() == Mode.JOURNAL_QUERY) {
+            System.exit(queryJournal(options));
+            return;
+        }
+
         // Create domain use case
-        CalculateCapitalGainsTax calculateCapitalGainsTax = new CalculateCapitalGainsTax();
+        CalculateCapitalGainsTax engine = CommandLineOptions.ENGINE_FIXED.equals(options.getEngine())
+                ? new FixedPointCapitalGainsTax()
+                : new CalculateCapitalGainsTax();
+        // Follow and serve run until the JVM is asked to exit
+        Shutdown shutdown = options.getMode() == Mode.FOLLOW || options.getMode() == Mode.SERVE ? new Shutdown() : null;
+        int exitCode;
+        // --shards and --segmented are exclusive, so at most one of them wraps the engine
+        try (ShardedCapitalGainsTax sharded = options.getShards() > 1
+                ? new ShardedCapitalGainsTax(engine, options.getShards())
+                : null;
+             SegmentedCapitalGainsTax segmented = sharded == null && options.getSegmentThreads() > 0
+                     ? new SegmentedCapitalGainsTax(engine, options.getSegmentThreads())
+                     : null) {
+            exitCode = run(options, shutdown, segmented != null ? segmented : sharded != null ? sharded : engine);
+        }
+        if (shutdown != null) {
+            shutdown.finished();
+        }
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Processes the input as the options select. Returns once all output, the journal and the
+     * summaries are written; the engine's threads are shut down by the caller afterwards.
+     *
+     * @return the exit code
+     */
+    private static int run(CommandLineOptions options, Shutdown shutdown,
+                           CalculateCapitalGainsTax calculateCapitalGainsTax) {
+        PrefixCachingCapitalGainsTax prefixCache = null;
+        if (options.getPrefixCacheBoundaries() > 0) {
+            prefixCache = new PrefixCachingCapitalGainsTax(calculateCapitalGainsTax, options.getPrefixCacheBoundaries());
+            calculateCapitalGainsTax = prefixCache;
+        }
 
         // Create application service
-        TaxCalculationService taxCalculationService = new TaxCalculationService(calculateCapitalGainsTax);
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        TaxCalculationService taxCalculationService = new TaxCalculationService(calculateCapitalGainsTax, metrics);
+        if (options.isJmx()) {
+            try {
+                ProcessingMetricsJmx.register(metrics);
+            } catch (JMException e) {
+                System.err.println("Erro ao registrar métricas JMX: " + e.getMessage());
+            }
+        }
 
         // Create infrastructure components
-        JsonParser jsonParser = new JsonParser();
-        CommandLineProcessor commandLineProcessor = new CommandLineProcessor(jsonParser, taxCalculationService);
+        JsonParser jsonParser = CommandLineOptions.CODEC_FAST.equals(options.getCodec())
+                ? new FastJsonParser()
+                : new JsonParser();
+        SimulationResultCache resultCache = options.getCacheMegabytes() > 0
+                ? new SimulationResultCache(options.getCacheMegabytes() * 1024L * 1024L)
+                : null;
+        ResultJournal journal = null;
+        if (options.getJournalFile() != null) {
+            try {
+                journal = new ResultJournal(options.getJournalFile());
+            } catch (IOException e) {
+                System.err.println("Erro ao abrir journal: " + e.getMessage());
+                return 1;
+            }
+        }
+        CommandLineProcessor commandLineProcessor = new CommandLineProcessor(jsonParser, taxCalculationService,
+                options.isColumnar(), resultCache, journal);
 
         // Start processing
-        commandLineProcessor.process();
+        int exitCode = 0;
+        switch (options.getMode()) {
+            case CONVERT -> new BinaryFormatConverter(jsonParser).convert(options.getConversion(), System.in, System.out);
+            case BATCH -> {
+                int failedFiles = new DirectoryBatchProcessor(commandLineProcessor, options.getParallelism(), System.err)
+                        .process(options.getBatchSource(), options.getOutputDirectory());
+                exitCode = failedFiles > 0 ? 1 : 0;
+            }
+            case SCENARIOS -> {
+                MultiScenarioCapitalGainsTax scenarios = scenarios(options, jsonParser);
+                if (options.getInputFile() != null) {
+                    commandLineProcessor.processScenarios(options.getInputFile(), scenarios);
+                } else {
+                    commandLineProcessor.processScenarios(scenarios);
+                }
+            }
+            case FOLLOW -> new FollowProcessor(commandLineProcessor).follow(options.getFollowFile(),
+                    options.getFollowPositionFile(), System.out, shutdown::isRequested);
+            case VALIDATE -> validate(options, commandLineProcessor);
+            case SERVE -> exitCode = serve(options, shutdown, jsonParser, taxCalculationService, resultCache);
+            case STREAM -> commandLineProcessor.processStreaming();
+            case BINARY -> {
+                if (options.getInputFile() != null) {
+                    commandLineProcessor.processBinary(options.getInputFile());
+                } else {
+                    commandLineProcessor.processBinary();
+                }
+            }
+            case PIPELINE -> {
+                if (options.getInputFile() != null) {
+                    commandLineProcessor.processPipelined(options.getInputFile(),
+                            CommandLineProcessor.DEFAULT_PIPELINE_CAPACITY);
+                } else {
+                    commandLineProcessor.processPipelined(CommandLineProcessor.DEFAULT_PIPELINE_CAPACITY);
+                }
+            }
+            case CHECKPOINT -> commandLineProcessor.processCheckpointed(options.getInputFile(),
+                    options.getCheckpointFile(), options.getCheckpointEvery(), options.isResume());
+            case LINE -> {
+                if (options.getInputFile() != null) {
+                    commandLineProcessor.processFile(options.getInputFile(), options.getParallelism());
+                } else if (options.getParallelism() > 1) {
+                    commandLineProcessor.processParallel(options.getParallelism());
+                } else {
+                    commandLineProcessor.process();
+                }
+            }
+            case JOURNAL_QUERY -> throw new IllegalStateException("--journal-query is handled before any engine starts");
+        }
+
+        if (journal != null) {
+            try {
+                journal.close();
+                System.err.println(journal.summary());
+            } catch (IOException e) {
+                System.err.println("Erro ao escrever journal: " + e.getMessage());
+                exitCode = 1;
+            }
+        }
+        if (resultCache != null) {
+            System.err.println(resultCache.summary());
+        }
+        if (prefixCache != null) {
+            System.err.println(prefixCache.summary());
+        }
+        if (options.isMetrics()) {
+            System.err.println(metrics.summary());
+        }
+        return exitCode;
+    }
+
+    /**
+     * @return the exit code: {@code 0} if the simulation was found and had results
+     */
+    private static int queryJournal(CommandLineOptions options) {
+        ResultJournal.Record record;
+        try {
+            record = ResultJournal.read(options.getJournalFile(), options.getJournalQuery());
+        } catch (IOException e) {
+            System.err.println("Erro ao ler journal: " + e.getMessage());
+            return 1;
+        }
+        if (record == null) {
+            System.err.println("Simulação não encontrada no journal: " + options.getJournalQuery());
+            return 1;
+        }
+        if (record.isFailure()) {
+            System.err.println("Erro ao processar entrada: " + record.getContent());
+            return 1;
+        }
+        System.out.println(record.getContent());
+        return 0;
+    }
+
+    private static MultiScenarioCapitalGainsTax scenarios(CommandLineOptions options, JsonParser jsonParser) {
+        String json;
+        try {
+            json = Files.readString(options.getScenariosFile());
+        } catch (IOException e) {
+            System.err.println("Erro ao ler cenários: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+        try {
+            return new MultiScenarioCapitalGainsTax(jsonParser.parseTaxRules(json));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return null;
+        }
+    }
+
+    private static void validate(CommandLineOptions options, CommandLineProcessor commandLineProcessor) {
+        if (CommandLineOptions.ERRORS_TO_STDERR.equals(options.getErrorsTarget())) {
+            validate(options, commandLineProcessor, System.err);
+            return;
+        }
+        try (OutputStream errors = Files.newOutputStream(Path.of(options.getErrorsTarget()))) {
+            validate(options, commandLineProcessor, errors);
+        } catch (IOException e) {
+            System.err.println("Erro ao escrever erros: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void validate(CommandLineOptions options, CommandLineProcessor commandLineProcessor,
+                                 OutputStream errors) {
+        if (options.getInputFile() != null) {
+            new ValidatingProcessor(commandLineProcessor).process(options.getInputFile(), errors);
+        } else {
+            new ValidatingProcessor(commandLineProcessor).process(errors);
+        }
+    }
+
+    /**
+     * Serves until {@code shutdown} is requested.
+     *
+     * @return the exit code
+     */
+    private static int serve(CommandLineOptions options, Shutdown shutdown, JsonParser jsonParser,
+                             TaxCalculationService taxCalculationService, SimulationResultCache resultCache) {
+        SimulationHttpServer server;
+        try {
+            server = new SimulationHttpServer(jsonParser, taxCalculationService, resultCache,
+                    options.getServePort(), options.getMaxRequestBytes(), options.getMaxConcurrentRequests());
+        } catch (IOException e) {
+            System.err.println("Erro ao iniciar servidor: " + e.getMessage());
+            return 1;
+        }
+        server.start();
+        System.err.println("Listening on port " + server.getPort());
+        shutdown.await();
+        server.stop(1);
+        return 0;
+    }
+
+    /**
+     * Lets a mode that runs until SIGTERM or Ctrl+C finish cleanly: the shutdown hook signals
+     * the request and then waits, up to a limit, until main has written its output and
+     * summaries and shut the engine down.
+     */
+    private static final class Shutdown {
+        private final CountDownLatch requested = new CountDownLatch(1);
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        Shutdown() {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                requested.countDown();
+                try {
+                    finished.await(SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        boolean isRequested() {
+            return requested.getCount() == 0;
+        }
+
+        void await() {
+            try {
+                requested.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void finished() {
+            finished.countDown();
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,12 @@ public class OperationDTO {
     @JsonProperty("quantity")
     private long quantity;
 
+    @JsonProperty("account")
+    private String account;
+
+    @JsonProperty("ticker")
+    private String ticker;
+
     public OperationDTO() {
     }
 
@@ -25,6 +31,12 @@ public class OperationDTO {
         this.quantity = quantity;
     }
 
+    public OperationDTO(String operation, BigDecimal unitCost, long quantity, String account, String ticker) {
+        this(operation, unitCost, quantity);
+        this.account = account;
+        this.ticker = ticker;
+    }
+
     public String getOperation() {
         return operation;
     }
@@ -49,11 +61,36 @@ public class OperationDTO {
         this.quantity = quantity;
     }
 
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the operation is neither {@code buy} nor {@code sell}
+     */
     public Operation toDomain() {
+        OperationType type = OperationType.fromName(operation);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown operation type: " + operation);
+        }
         return new Operation(
-                "buy".equalsIgnoreCase(operation) ? OperationType.BUY : OperationType.SELL,
+                type,
                 unitCost,
-                quantity
+                quantity,
+                account,
+                ticker
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package org.finance.application.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and per-stage latency histograms for one process. Cheap enough to stay on:
+ * stages are timed once per simulation (or per output write), never per operation, and
+ * every update is a striped {@link LongAdder} or a single atomic add.
+ */
+public final class ProcessingMetrics {
+
+    /**
+     * Where a simulation spends its time, in pipeline order.
+     */
+    public enum Stage {
+        /**
+         * Splitting the input into simulations, including waiting for it to arrive.
+         */
+        FRAMING,
+        PARSE,
+        CALCULATE,
+        /**
+         * Encoding results into the output buffer.
+         */
+        SERIALIZE,
+        /**
+         * Pushing buffered output to the underlying stream.
+         */
+        WRITE
+    }
+
+    private final Map<Stage, LatencyHistogram> stages = new EnumMap<>(Stage.class);
+    private final LongAdder simulations = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private volatile String pipelineQueues;
+
+    public ProcessingMetrics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a value of {@link System#nanoTime()}.
+     */
+    public void record(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos);
+    }
+
+    public void countSimulation(long operationCount) {
+        simulations.increment();
+        operations.add(operationCount);
+    }
+
+    public void countOperations(long operationCount) {
+        operations.add(operationCount);
+    }
+
+    public void addBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void addBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public void countParseError() {
+        parseErrors.increment();
+    }
+
+    /**
+     * Records the depth report of the buffers between pipeline stages, produced once the
+     * pipeline has drained.
+     */
+    public void recordPipelineQueues(String report) {
+        pipelineQueues = report;
+    }
+
+    public LatencyHistogram histogram(Stage stage) {
+        return stages.get(stage);
+    }
+
+    public long getSimulations() {
+        return simulations.sum();
+    }
+
+    public long getOperations() {
+        return operations.sum();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    /**
+     * @return a multi-line report with the counters, for every stage that recorded anything
+     * its count, total time and latency percentiles in microseconds, and the pipeline queues
+     * if there were any
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder()
+                .append("Metrics: ").append(getSimulations()).append(" simulations, ")
+                .append(getOperations()).append(" operations, ")
+                .append(getBytesIn()).append(" bytes in, ")
+                .append(getBytesOut()).append(" bytes out, ")
+                .append(getParseErrors()).append(" parse errors");
+        for (Stage stage : Stage.values()) {
+            LatencySnapshot latency = stages.get(stage).snapshot();
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            summary.append(System.lineSeparator())
+                    .append(String.format("  %-9s n=%d total=%dms mean=%dus p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+                            stage.name().toLowerCase(), latency.getCount(),
+                            TimeUnit.NANOSECONDS.toMillis(stages.get(stage).getTotal()),
+                            micros(latency.getMean()), micros(latency.getP50()), micros(latency.getP90()),
+                            micros(latency.getP99()), micros(latency.getP999()), micros(latency.getMax())));
+        }
+        String queues = pipelineQueues;
+        if (queues != null) {
+            summary.append(System.lineSeparator()).append("  queues    ").append(queues);
+        }
+        return summary.toString();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -2,21 +2,43 @@ package org.finance.application.services;
 
 import org.finance.application.dto.OperationDTO;
 import org.finance.application.dto.TaxResultDTO;
+import org.finance.application.metrics.ProcessingMetrics;
 import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.TaxBatch;
 import org.finance.domain.entities.TaxResult;
 import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.domain.usecases.MultiScenarioCapitalGainsTax;
+import org.finance.domain.usecases.PositionLedgers;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class TaxCalculationService {
     private final CalculateCapitalGainsTax calculateCapitalGainsTax;
+    private final ProcessingMetrics metrics;
 
     public TaxCalculationService(CalculateCapitalGainsTax calculateCapitalGainsTax) {
+        this(calculateCapitalGainsTax, new ProcessingMetrics());
+    }
+
+    /**
+     * @param metrics receives simulation and operation counts and the time spent calculating
+     */
+    public TaxCalculationService(CalculateCapitalGainsTax calculateCapitalGainsTax, ProcessingMetrics metrics) {
         this.calculateCapitalGainsTax = calculateCapitalGainsTax;
+        this.metrics = metrics;
+    }
+
+    public ProcessingMetrics getMetrics() {
+        return metrics;
     }
 
     public List<TaxResultDTO> calculateTaxes(List<OperationDTO> operationDTOs) {
+        long start = System.nanoTime();
+
         // Converter DTOs para entidades de domínio
         List<Operation> operations = operationDTOs.stream()
                 .map(OperationDTO::toDomain)
@@ -26,8 +48,89 @@ public class TaxCalculationService {
         List<TaxResult> taxResults = calculateCapitalGainsTax.calculate(operations);
 
         // Converter resultados de domínio de volta para DTOs
-        return taxResults.stream()
+        List<TaxResultDTO> taxResultDTOs = taxResults.stream()
                 .map(TaxResultDTO::fromDomain)
                 .collect(Collectors.toList());
+
+        metrics.record(ProcessingMetrics.Stage.CALCULATE, start);
+        metrics.countSimulation(operationDTOs.size());
+        return taxResultDTOs;
+    }
+
+    /**
+     * Streaming counterpart of {@link #calculateTaxes(List)}. Each DTO is converted lazily
+     * and its result is pushed to {@code sink} before the next one is read. Parsing and
+     * calculation interleave, so no stage time is recorded, only the counts.
+     */
+    public void calculateTaxes(Iterable<OperationDTO> operationDTOs, Consumer<TaxResultDTO> sink) {
+        Iterable<Operation> operations = () -> new Iterator<>() {
+            private final Iterator<OperationDTO> delegate = operationDTOs.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Operation next() {
+                return delegate.next().toDomain();
+            }
+        };
+
+        long[] count = new long[1];
+        try {
+            calculateCapitalGainsTax.calculate(operations, taxResult -> {
+                count[0]++;
+                sink.accept(TaxResultDTO.fromDomain(taxResult));
+            });
+        } finally {
+            metrics.countSimulation(count[0]);
+        }
+    }
+
+    /**
+     * Columnar counterpart of {@link #calculateTaxes(List)}: no DTOs or domain objects are
+     * created in either direction.
+     *
+     * @throws ArithmeticException if an amount overflows; recalculate through the DTO path
+     */
+    public TaxBatch calculateTaxes(OperationBatch operations) {
+        long start = System.nanoTime();
+        TaxBatch taxes = calculateCapitalGainsTax.calculate(operations);
+        metrics.record(ProcessingMetrics.Stage.CALCULATE, start);
+        metrics.countSimulation(operations.size());
+        return taxes;
+    }
+
+    /**
+     * Evaluates one simulation under every scenario of {@code scenarios} in a single pass.
+     *
+     * @return one batch of taxes per scenario, in scenario order
+     */
+    public TaxBatch[] calculateScenarios(MultiScenarioCapitalGainsTax scenarios, List<OperationDTO> operationDTOs) {
+        long start = System.nanoTime();
+        List<Operation> operations = operationDTOs.stream()
+                .map(OperationDTO::toDomain)
+                .collect(Collectors.toList());
+        TaxBatch[] taxes = scenarios.calculate(operations);
+        metrics.record(ProcessingMetrics.Stage.CALCULATE, start);
+        metrics.countSimulation(operationDTOs.size());
+        return taxes;
+    }
+
+    /**
+     * Starts an empty set of positions for {@link #calculateTax(PositionLedgers, OperationDTO)}.
+     */
+    public PositionLedgers newPositions() {
+        return calculateCapitalGainsTax.newPositions();
+    }
+
+    /**
+     * Applies a single operation to {@code positions}; the caller owns the state between calls.
+     */
+    public TaxResultDTO calculateTax(PositionLedgers positions, OperationDTO operationDTO) {
+        Operation operation = operationDTO.toDomain();
+        metrics.countOperations(1);
+        return TaxResultDTO.fromDomain(positions.ledgerFor(operation).apply(operation));
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,8 @@ public class Operation {
     private OperationType type;
     private BigDecimal unitCost;
     private long quantity;
+    private String account;
+    private String ticker;
 
     public Operation() {
     }
@@ -16,6 +18,12 @@ public class Operation {
         this.quantity = quantity;
     }
 
+    public Operation(OperationType type, BigDecimal unitCost, long quantity, String account, String ticker) {
+        this(type, unitCost, quantity);
+        this.account = account;
+        this.ticker = ticker;
+    }
+
     public OperationType getType() {
         return type;
     }
@@ -40,6 +48,30 @@ public class Operation {
         this.quantity = quantity;
     }
 
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * @return {@code true} if the operation names an account or a ticker, i.e. it belongs to
+     * a position other than the implicit single one
+     */
+    public boolean isKeyed() {
+        return account != null || ticker != null;
+    }
+
     public BigDecimal getTotalCost() {
         return unitCost.multiply(BigDecimal.valueOf(quantity));
     }
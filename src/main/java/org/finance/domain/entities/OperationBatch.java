@@ -0,0 +1,62 @@
+package org.finance.domain.entities;
+
+import java.util.Arrays;
+
+/**
+ * A simulation stored column by column: one array per field instead of one
+ * {@link Operation} object per row. Unit costs are kept as {@code long} cents, so
+ * only prices with at most two decimals fit in a batch.
+ */
+public final class OperationBatch {
+    private static final OperationType[] TYPES = OperationType.values();
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] types;
+    private long[] unitCostCents;
+    private long[] quantities;
+    private int size;
+
+    public OperationBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OperationBatch(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.types = new byte[capacity];
+        this.unitCostCents = new long[capacity];
+        this.quantities = new long[capacity];
+    }
+
+    public void add(OperationType type, long unitCostCents, long quantity) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            this.unitCostCents = Arrays.copyOf(this.unitCostCents, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        this.unitCostCents[size] = unitCostCents;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public OperationType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public long unitCostCents(int index) {
+        return unitCostCents[index];
+    }
+
+    public long quantity(int index) {
+        return quantities[index];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -2,5 +2,19 @@ package org.finance.domain.entities;
 
 public enum OperationType {
     BUY,
-    SELL
-}
\ No newline at end of file
+    SELL;
+
+    /**
+     * @return the type whose name equals {@code name} ignoring case, or {@code null} if
+     * there is none
+     */
+    public static OperationType fromName(String name) {
+        if ("buy".equalsIgnoreCase(name)) {
+            return BUY;
+        }
+        if ("sell".equalsIgnoreCase(name)) {
+            return SELL;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package org.finance.domain.entities;
+
+import java.util.Objects;
+
+/**
+ * Identifies an independent position: one account holding one ticker. Either part may be
+ * {@code null}; operations without both belong to the implicit single position.
+ */
+public final class PositionKey {
+    private final String account;
+    private final String ticker;
+
+    public PositionKey(String account, String ticker) {
+        this.account = account;
+        this.ticker = ticker;
+    }
+
+    public static PositionKey of(Operation operation) {
+        return new PositionKey(operation.getAccount(), operation.getTicker());
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PositionKey key)) {
+            return false;
+        }
+        return Objects.equals(account, key.account) && Objects.equals(ticker, key.ticker);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(account) + Objects.hashCode(ticker);
+    }
+
+    @Override
+    public String toString() {
+        return account + "/" + ticker;
+    }
+}
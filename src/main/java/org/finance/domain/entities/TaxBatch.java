@@ -0,0 +1,45 @@
+package org.finance.domain.entities;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Taxes of a simulation as one {@code long} column, each value scaled by
+ * {@link #SCALE} decimals, the same precision {@link TaxResult} reports.
+ */
+public final class TaxBatch {
+    public static final int SCALE = 1;
+
+    private long[] taxes;
+    private int size;
+
+    public TaxBatch(int initialCapacity) {
+        this.taxes = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(long unscaledTax) {
+        if (size == taxes.length) {
+            taxes = Arrays.copyOf(taxes, size * 2);
+        }
+        taxes[size++] = unscaledTax;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the tax at {@code index} multiplied by {@code 10^SCALE}
+     */
+    public long unscaledTax(int index) {
+        return taxes[index];
+    }
+
+    public BigDecimal tax(int index) {
+        return BigDecimal.valueOf(taxes[index], SCALE);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,75 @@
+package org.finance.domain.entities;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * One variant of the tax rules: the rate applied to taxable profit, the sale value a sale
+ * must exceed to be taxed, and whether losses are carried forward to offset later profits.
+ * {@link #DEFAULT} is the set the challenge specifies.
+ */
+public final class TaxRules {
+
+    public enum LossOffset {
+        /**
+         * Losses accumulate and are deducted from later taxable profits.
+         */
+        CARRY_FORWARD,
+        /**
+         * Losses are ignored; every taxable profit is taxed in full.
+         */
+        NONE
+    }
+
+    /**
+     * Rates are applied in exact arithmetic scaled to cents, which bounds their precision.
+     */
+    static final int MAX_RATE_SCALE = 9;
+
+    public static final TaxRules DEFAULT = new TaxRules("default", new BigDecimal("0.20"), new BigDecimal("20000.00"),
+            LossOffset.CARRY_FORWARD);
+
+    private final String name;
+    private final BigDecimal rate;
+    private final BigDecimal exemptionThreshold;
+    private final LossOffset lossOffset;
+
+    /**
+     * @throws IllegalArgumentException if the rate is outside {@code [0, 1]} or has more than
+     *                                  {@value #MAX_RATE_SCALE} decimals, or the threshold is negative
+     */
+    public TaxRules(String name, BigDecimal rate, BigDecimal exemptionThreshold, LossOffset lossOffset) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.rate = Objects.requireNonNull(rate, "rate");
+        this.exemptionThreshold = Objects.requireNonNull(exemptionThreshold, "exemptionThreshold");
+        this.lossOffset = Objects.requireNonNull(lossOffset, "lossOffset");
+        if (rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0 || rate.stripTrailingZeros().scale() > MAX_RATE_SCALE) {
+            throw new IllegalArgumentException("Invalid rate for " + name + ": " + rate);
+        }
+        if (exemptionThreshold.signum() < 0) {
+            throw new IllegalArgumentException("Invalid exemption threshold for " + name + ": " + exemptionThreshold);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public BigDecimal getExemptionThreshold() {
+        return exemptionThreshold;
+    }
+
+    public LossOffset getLossOffset() {
+        return lossOffset;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (rate " + rate.toPlainString() + ", exemption above " + exemptionThreshold.toPlainString()
+                + ", losses " + lossOffset.name().toLowerCase().replace('_', ' ') + ")";
+    }
+}
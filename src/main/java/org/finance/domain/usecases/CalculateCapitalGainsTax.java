@@ -1,85 +1,76 @@
 package org.finance.domain.usecases;
 
 import org.finance.domain.entities.Operation;
-import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.TaxBatch;
 import org.finance.domain.entities.TaxResult;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * This class contains the core business rules to calculate capital gains tax
- * based on a list of operations (buy/sell). Each operation results in a tax
- * output, following rules from the Nubank Capital Gains challenge.
+ * This class calculates capital gains tax for a list of operations (buy/sell).
+ * Each operation results in a tax output, following rules from the Nubank Capital
+ * Gains challenge. The rules themselves live in {@link CapitalGainsLedger}; this use
+ * case replays a whole history through fresh ledgers, one per account/ticker position
+ * (operations without either share a single position).
  */
 public class CalculateCapitalGainsTax {
-
-    private static final BigDecimal TAX_RATE = new BigDecimal("0.20");
-    private static final BigDecimal TAX_EXEMPTION_THRESHOLD = new BigDecimal("20000.00");
+    // Cents (scale 2) per unit of TaxBatch.SCALE
+    private static final long CENTS_PER_TAX_UNIT = 10;
 
     public List<TaxResult> calculate(List<Operation> operations) {
-        List<TaxResult> taxes = new ArrayList<>();
+        List<TaxResult> taxes = new ArrayList<>(operations.size());
+        calculate(operations, taxes::add);
+        return taxes;
+    }
 
-        BigDecimal accumulatedLoss = BigDecimal.ZERO;
-        BigDecimal weightedAveragePrice = BigDecimal.ZERO;
-        long stockQuantity = 0;
+    /**
+     * Streaming variant of {@link #calculate(List)}: operations are pulled one at a time
+     * and each tax is handed to {@code sink} as soon as it is known, so the caller never
+     * has to hold the whole history in memory.
+     */
+    public void calculate(Iterable<Operation> operations, Consumer<TaxResult> sink) {
+        PositionLedgers ledgers = newPositions();
 
         for (Operation op : operations) {
-            BigDecimal tax = BigDecimal.ZERO;
-
-            if (op.getType() == OperationType.BUY) {
-                BigDecimal currentTotalCost = weightedAveragePrice.multiply(BigDecimal.valueOf(stockQuantity));
-                BigDecimal newTotalCost = op.getUnitCost().multiply(BigDecimal.valueOf(op.getQuantity()));
-                long newTotalQuantity = stockQuantity + op.getQuantity();
-
-                if (newTotalQuantity > 0) {
-                    weightedAveragePrice = currentTotalCost.add(newTotalCost)
-                            .divide(BigDecimal.valueOf(newTotalQuantity), 2, RoundingMode.HALF_UP);
-                } else {
-                    weightedAveragePrice = BigDecimal.ZERO;
-                }
-
-                stockQuantity += op.getQuantity();
-
-            } else if (op.getType() == OperationType.SELL) {
-                BigDecimal totalSellValue = op.getUnitCost().multiply(BigDecimal.valueOf(op.getQuantity()));
-                BigDecimal costBasis = weightedAveragePrice.multiply(BigDecimal.valueOf(op.getQuantity()));
-                BigDecimal profit = totalSellValue.subtract(costBasis);
-
-                // Always accumulate losses
-                if (profit.compareTo(BigDecimal.ZERO) < 0) {
-                    accumulatedLoss = accumulatedLoss.add(profit.abs());
-                }
-
-                // Only apply tax logic if sale is above exemption threshold
-                if (totalSellValue.compareTo(TAX_EXEMPTION_THRESHOLD) > 0 && profit.compareTo(BigDecimal.ZERO) > 0) {
-                    if (accumulatedLoss.compareTo(BigDecimal.ZERO) > 0) {
-                        if (accumulatedLoss.compareTo(profit) >= 0) {
-                            accumulatedLoss = accumulatedLoss.subtract(profit);
-                            profit = BigDecimal.ZERO;
-                        } else {
-                            profit = profit.subtract(accumulatedLoss);
-                            accumulatedLoss = BigDecimal.ZERO;
-                        }
-                    }
-
-                    if (profit.compareTo(BigDecimal.ZERO) > 0) {
-                        tax = profit.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
-                    }
-                }
-
-                stockQuantity -= op.getQuantity();
-
-                if (stockQuantity == 0) {
-                    weightedAveragePrice = BigDecimal.ZERO;
-                }
-            }
-
-            taxes.add(new TaxResult(tax));
+            sink.accept(ledgers.ledgerFor(op).apply(op));
         }
+    }
 
+    /**
+     * Columnar variant: reads the batch's arrays and writes each tax into a {@link TaxBatch}
+     * without creating per-operation objects. The arithmetic is always done in cents
+     * (see {@link FixedPointCapitalGainsLedger}), which gives the same results as every engine.
+     *
+     * @throws ArithmeticException if an amount overflows a {@code long}; the caller should
+     *                             recalculate the simulation through {@link #calculate(List)}
+     */
+    public TaxBatch calculate(OperationBatch operations) {
+        FixedPointCapitalGainsLedger ledger = new FixedPointCapitalGainsLedger();
+        TaxBatch taxes = new TaxBatch(operations.size());
+
+        for (int i = 0; i < operations.size(); i++) {
+            long taxCents = ledger.applyCents(operations.type(i), operations.unitCostCents(i), operations.quantity(i));
+            taxes.add(FixedPointCapitalGainsLedger.divideHalfUp(taxCents, CENTS_PER_TAX_UNIT));
+        }
         return taxes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates an empty ledger evaluated by this engine, for callers that feed
+     * operations one at a time.
+     */
+    public CapitalGainsLedger newLedger() {
+        return new CapitalGainsLedger();
+    }
+
+    /**
+     * Creates an empty set of positions evaluated by this engine, for callers that feed
+     * operations one at a time and need to capture or restore the state in between.
+     */
+    public PositionLedgers newPositions() {
+        return new PositionLedgers(this::newLedger);
+    }
+}
@@ -0,0 +1,125 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxResult;
+import org.finance.domain.entities.TaxRules;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Running position of a single investor in a single stock. Operations are applied
+ * one at a time and each call returns the tax due for that operation, so a history
+ * can be fed from any source without materializing it. The current state can be
+ * inspected between calls.
+ * <p>
+ * A ledger is mutable and not thread-safe; use one per history.
+ */
+public class CapitalGainsLedger {
+
+    protected static final BigDecimal TAX_RATE = TaxRules.DEFAULT.getRate();
+    protected static final BigDecimal TAX_EXEMPTION_THRESHOLD = TaxRules.DEFAULT.getExemptionThreshold();
+
+    private final TaxRules rules;
+    private BigDecimal weightedAveragePrice = BigDecimal.ZERO;
+    private long stockQuantity;
+    private BigDecimal accumulatedLoss = BigDecimal.ZERO;
+
+    public CapitalGainsLedger() {
+        this(TaxRules.DEFAULT);
+    }
+
+    /**
+     * A ledger evaluated under alternative rules, e.g. to compare a history across scenarios.
+     */
+    public CapitalGainsLedger(TaxRules rules) {
+        this.rules = rules;
+    }
+
+    public TaxResult apply(Operation operation) {
+        return apply(operation.getType(), operation.getUnitCost(), operation.getQuantity());
+    }
+
+    public TaxResult apply(OperationType type, BigDecimal unitCost, long quantity) {
+        BigDecimal tax = BigDecimal.ZERO;
+
+        if (type == OperationType.BUY) {
+            BigDecimal currentTotalCost = weightedAveragePrice.multiply(BigDecimal.valueOf(stockQuantity));
+            BigDecimal newTotalCost = unitCost.multiply(BigDecimal.valueOf(quantity));
+            long newTotalQuantity = stockQuantity + quantity;
+
+            if (newTotalQuantity > 0) {
+                weightedAveragePrice = currentTotalCost.add(newTotalCost)
+                        .divide(BigDecimal.valueOf(newTotalQuantity), 2, RoundingMode.HALF_UP);
+            } else {
+                weightedAveragePrice = BigDecimal.ZERO;
+            }
+
+            stockQuantity += quantity;
+
+        } else if (type == OperationType.SELL) {
+            BigDecimal totalSellValue = unitCost.multiply(BigDecimal.valueOf(quantity));
+            BigDecimal costBasis = weightedAveragePrice.multiply(BigDecimal.valueOf(quantity));
+            BigDecimal profit = totalSellValue.subtract(costBasis);
+
+            // Always accumulate losses, unless the rules never offset them
+            if (profit.compareTo(BigDecimal.ZERO) < 0 && rules.getLossOffset() == TaxRules.LossOffset.CARRY_FORWARD) {
+                accumulatedLoss = accumulatedLoss.add(profit.abs());
+            }
+
+            // Only apply tax logic if sale is above exemption threshold
+            if (totalSellValue.compareTo(rules.getExemptionThreshold()) > 0 && profit.compareTo(BigDecimal.ZERO) > 0) {
+                if (accumulatedLoss.compareTo(BigDecimal.ZERO) > 0) {
+                    if (accumulatedLoss.compareTo(profit) >= 0) {
+                        accumulatedLoss = accumulatedLoss.subtract(profit);
+                        profit = BigDecimal.ZERO;
+                    } else {
+                        profit = profit.subtract(accumulatedLoss);
+                        accumulatedLoss = BigDecimal.ZERO;
+                    }
+                }
+
+                if (profit.compareTo(BigDecimal.ZERO) > 0) {
+                    tax = profit.multiply(rules.getRate()).setScale(2, RoundingMode.HALF_UP);
+                }
+            }
+
+            stockQuantity -= quantity;
+
+            if (stockQuantity == 0) {
+                weightedAveragePrice = BigDecimal.ZERO;
+            }
+        }
+
+        return new TaxResult(tax);
+    }
+
+    /**
+     * Clears the position so the ledger can be reused for another history.
+     */
+    public void reset() {
+        restore(BigDecimal.ZERO, 0, BigDecimal.ZERO);
+    }
+
+    public BigDecimal getWeightedAveragePrice() {
+        return weightedAveragePrice;
+    }
+
+    public long getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public BigDecimal getAccumulatedLoss() {
+        return accumulatedLoss;
+    }
+
+    /**
+     * Replaces the position with a previously captured state, e.g. from a checkpoint.
+     */
+    public void restore(BigDecimal weightedAveragePrice, long stockQuantity, BigDecimal accumulatedLoss) {
+        this.weightedAveragePrice = weightedAveragePrice;
+        this.stockQuantity = stockQuantity;
+        this.accumulatedLoss = accumulatedLoss;
+    }
+}
@@ -0,0 +1,163 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxResult;
+
+import java.math.BigDecimal;
+
+/**
+ * Same business rules as {@link CapitalGainsLedger}, evaluated on {@code long}
+ * amounts scaled to cents instead of {@link BigDecimal}. Every rounding step mirrors
+ * the {@code HALF_UP} behaviour of the parent, so the results are identical.
+ * <p>
+ * When an operation cannot be represented exactly in cents (more than two decimal
+ * places) or an intermediate value would overflow, the state accumulated so far is
+ * converted losslessly and the ledger keeps going on the parent's arithmetic.
+ */
+public class FixedPointCapitalGainsLedger extends CapitalGainsLedger {
+
+    static final int CENTS_SCALE = 2;
+    private static final long TAX_RATE_UNSCALED = TAX_RATE.unscaledValue().longValueExact();
+    private static final long TAX_RATE_DIVISOR = BigDecimal.ONE.movePointRight(TAX_RATE.scale()).longValueExact();
+    private static final long TAX_EXEMPTION_THRESHOLD_CENTS = toCents(TAX_EXEMPTION_THRESHOLD);
+
+    private long weightedAveragePrice;
+    private long stockQuantity;
+    private long accumulatedLoss;
+    private boolean fallenBack;
+
+    @Override
+    public TaxResult apply(OperationType type, BigDecimal unitCost, long quantity) {
+        if (!fallenBack) {
+            try {
+                return new TaxResult(BigDecimal.valueOf(applyCents(type, toCents(unitCost), quantity), CENTS_SCALE));
+            } catch (ArithmeticException e) {
+                fallBack();
+            }
+        }
+        return super.apply(type, unitCost, quantity);
+    }
+
+    /**
+     * Applies an operation whose unit cost is already expressed in cents.
+     *
+     * @return the tax due, in cents
+     * @throws ArithmeticException if an intermediate value overflows; the ledger is left
+     *                             untouched so the caller may retry on the {@link BigDecimal} path
+     */
+    long applyCents(OperationType type, long unitCost, long quantity) {
+        long tax = 0;
+
+        if (type == OperationType.BUY) {
+            long newTotalQuantity = Math.addExact(stockQuantity, quantity);
+
+            if (newTotalQuantity > 0) {
+                long currentTotalCost = Math.multiplyExact(weightedAveragePrice, stockQuantity);
+                long newTotalCost = Math.multiplyExact(unitCost, quantity);
+                weightedAveragePrice = divideHalfUp(Math.addExact(currentTotalCost, newTotalCost), newTotalQuantity);
+            } else {
+                weightedAveragePrice = 0;
+            }
+
+            stockQuantity = newTotalQuantity;
+
+        } else if (type == OperationType.SELL) {
+            long totalSellValue = Math.multiplyExact(unitCost, quantity);
+            long costBasis = Math.multiplyExact(weightedAveragePrice, quantity);
+            long profit = Math.subtractExact(totalSellValue, costBasis);
+            long loss = accumulatedLoss;
+            long remaining = Math.subtractExact(stockQuantity, quantity);
+
+            if (profit < 0) {
+                loss = Math.addExact(loss, Math.negateExact(profit));
+            }
+
+            if (totalSellValue > TAX_EXEMPTION_THRESHOLD_CENTS && profit > 0) {
+                if (loss > 0) {
+                    if (loss >= profit) {
+                        loss -= profit;
+                        profit = 0;
+                    } else {
+                        profit -= loss;
+                        loss = 0;
+                    }
+                }
+
+                if (profit > 0) {
+                    tax = divideHalfUp(Math.multiplyExact(profit, TAX_RATE_UNSCALED), TAX_RATE_DIVISOR);
+                }
+            }
+
+            // Only commit once nothing else can overflow
+            accumulatedLoss = loss;
+            stockQuantity = remaining;
+
+            if (stockQuantity == 0) {
+                weightedAveragePrice = 0;
+            }
+        }
+
+        return tax;
+    }
+
+    public boolean isFallenBack() {
+        return fallenBack;
+    }
+
+    @Override
+    public BigDecimal getWeightedAveragePrice() {
+        return fallenBack ? super.getWeightedAveragePrice() : BigDecimal.valueOf(weightedAveragePrice, CENTS_SCALE);
+    }
+
+    @Override
+    public long getStockQuantity() {
+        return fallenBack ? super.getStockQuantity() : stockQuantity;
+    }
+
+    @Override
+    public BigDecimal getAccumulatedLoss() {
+        return fallenBack ? super.getAccumulatedLoss() : BigDecimal.valueOf(accumulatedLoss, CENTS_SCALE);
+    }
+
+    @Override
+    public void restore(BigDecimal weightedAveragePrice, long stockQuantity, BigDecimal accumulatedLoss) {
+        super.restore(weightedAveragePrice, stockQuantity, accumulatedLoss);
+        try {
+            this.weightedAveragePrice = toCents(weightedAveragePrice);
+            this.accumulatedLoss = toCents(accumulatedLoss);
+            this.stockQuantity = stockQuantity;
+            this.fallenBack = false;
+        } catch (ArithmeticException e) {
+            this.fallenBack = true;
+        }
+    }
+
+    private void fallBack() {
+        super.restore(BigDecimal.valueOf(weightedAveragePrice, CENTS_SCALE), stockQuantity,
+                BigDecimal.valueOf(accumulatedLoss, CENTS_SCALE));
+        fallenBack = true;
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @throws ArithmeticException if the amount has sub-cent digits or does not fit a {@code long}
+     */
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(CENTS_SCALE).longValueExact();
+    }
+
+    /**
+     * Integer division rounding half away from zero, as {@code RoundingMode.HALF_UP} does.
+     * The divisor must be positive.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
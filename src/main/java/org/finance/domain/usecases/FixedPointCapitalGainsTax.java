@@ -0,0 +1,14 @@
+package org.finance.domain.usecases;
+
+/**
+ * Capital gains calculation on {@code long} cents instead of {@link java.math.BigDecimal}.
+ * Results are identical to {@link CalculateCapitalGainsTax}; see
+ * {@link FixedPointCapitalGainsLedger} for the arithmetic and its fallback.
+ */
+public class FixedPointCapitalGainsTax extends CalculateCapitalGainsTax {
+
+    @Override
+    public CapitalGainsLedger newLedger() {
+        return new FixedPointCapitalGainsLedger();
+    }
+}
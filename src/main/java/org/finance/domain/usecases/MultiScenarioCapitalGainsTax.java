@@ -0,0 +1,212 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.PositionKey;
+import org.finance.domain.entities.TaxBatch;
+import org.finance.domain.entities.TaxRules;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates a history under several {@link TaxRules} at once. The average price and the
+ * quantity held do not depend on the rules, so each operation updates them once; only
+ * the accumulated loss and the tax differ, and those are kept per scenario in
+ * {@code long} arrays. One scan over the operations yields every scenario's taxes.
+ * <p>
+ * Amounts are {@code long} cents, with the same rounding as
+ * {@link FixedPointCapitalGainsLedger}. A history that does not fit, e.g. a unit cost with
+ * sub-cent digits, is evaluated again scenario by scenario through {@link CapitalGainsLedger},
+ * so the results always equal a separate run under each scenario's rules.
+ * <p>
+ * Thread-safe: every call works on its own state.
+ */
+public class MultiScenarioCapitalGainsTax {
+    // Cents (scale 2) per unit of TaxBatch.SCALE
+    private static final long CENTS_PER_TAX_UNIT = 10;
+
+    private final List<TaxRules> scenarios;
+    private final long[] rateUnscaled;
+    private final long[] rateDivisor;
+    private final long[] thresholdCents;
+    private final boolean[] carryForward;
+
+    /**
+     * @throws IllegalArgumentException if there are no scenarios or two share a name
+     */
+    public MultiScenarioCapitalGainsTax(List<TaxRules> scenarios) {
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario is required");
+        }
+        Set<String> names = new HashSet<>();
+        for (TaxRules scenario : scenarios) {
+            if (!names.add(scenario.getName())) {
+                throw new IllegalArgumentException("Duplicate scenario: " + scenario.getName());
+            }
+        }
+
+        this.scenarios = List.copyOf(scenarios);
+        int count = scenarios.size();
+        this.rateUnscaled = new long[count];
+        this.rateDivisor = new long[count];
+        this.thresholdCents = new long[count];
+        this.carryForward = new boolean[count];
+        for (int s = 0; s < count; s++) {
+            TaxRules rules = scenarios.get(s);
+            // TaxRules bounds the rate to [0, 1] with few decimals, so both parts fit a long
+            BigDecimal rate = rules.getRate().stripTrailingZeros();
+            rateUnscaled[s] = rate.unscaledValue().longValueExact();
+            rateDivisor[s] = BigDecimal.ONE.movePointRight(Math.max(rate.scale(), 0)).longValueExact();
+            thresholdCents[s] = floorCents(rules.getExemptionThreshold());
+            carryForward[s] = rules.getLossOffset() == TaxRules.LossOffset.CARRY_FORWARD;
+        }
+    }
+
+    public List<TaxRules> getScenarios() {
+        return scenarios;
+    }
+
+    /**
+     * @return one batch per scenario, in the order of {@link #getScenarios()}, each holding
+     * a tax per operation
+     * @throws ArithmeticException if a tax does not fit {@link TaxBatch}
+     */
+    public TaxBatch[] calculate(List<Operation> operations) {
+        try {
+            return calculateCents(operations);
+        } catch (ArithmeticException e) {
+            return calculateEachScenario(operations);
+        }
+    }
+
+    private TaxBatch[] calculateCents(List<Operation> operations) {
+        TaxBatch[] taxes = newBatches(operations.size());
+        Position unkeyed = new Position(scenarios.size());
+        Map<PositionKey, Position> keyed = null;
+
+        for (Operation op : operations) {
+            Position position = unkeyed;
+            if (op.isKeyed()) {
+                if (keyed == null) {
+                    keyed = new HashMap<>();
+                }
+                position = keyed.computeIfAbsent(PositionKey.of(op), key -> new Position(scenarios.size()));
+            }
+
+            long unitCost = FixedPointCapitalGainsLedger.toCents(op.getUnitCost());
+            if (op.getType() == OperationType.SELL) {
+                position.sell(unitCost, op.getQuantity(), taxes);
+            } else {
+                if (op.getType() == OperationType.BUY) {
+                    position.buy(unitCost, op.getQuantity());
+                }
+                for (TaxBatch scenarioTaxes : taxes) {
+                    scenarioTaxes.add(0);
+                }
+            }
+        }
+        return taxes;
+    }
+
+    private TaxBatch[] calculateEachScenario(List<Operation> operations) {
+        TaxBatch[] taxes = newBatches(operations.size());
+        for (int s = 0; s < scenarios.size(); s++) {
+            TaxRules rules = scenarios.get(s);
+            PositionLedgers ledgers = new PositionLedgers(() -> new CapitalGainsLedger(rules));
+            for (Operation op : operations) {
+                // TaxResult holds exactly TaxBatch.SCALE decimals
+                taxes[s].add(ledgers.ledgerFor(op).apply(op).getTax().unscaledValue().longValueExact());
+            }
+        }
+        return taxes;
+    }
+
+    private TaxBatch[] newBatches(int size) {
+        TaxBatch[] taxes = new TaxBatch[scenarios.size()];
+        for (int s = 0; s < taxes.length; s++) {
+            taxes[s] = new TaxBatch(size);
+        }
+        return taxes;
+    }
+
+    /**
+     * Sale values are whole cents, so exceeding the threshold is exceeding its floor in cents.
+     */
+    private static long floorCents(BigDecimal amount) {
+        try {
+            return amount.setScale(FixedPointCapitalGainsLedger.CENTS_SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            // Beyond any sale value
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * One account/ticker position: shared price and quantity, a loss per scenario.
+     */
+    private final class Position {
+        long averagePrice;
+        long quantity;
+        final long[] losses;
+
+        Position(int scenarioCount) {
+            losses = new long[scenarioCount];
+        }
+
+        void buy(long unitCost, long bought) {
+            long newTotalQuantity = Math.addExact(quantity, bought);
+            if (newTotalQuantity > 0) {
+                long currentTotalCost = Math.multiplyExact(averagePrice, quantity);
+                long newTotalCost = Math.multiplyExact(unitCost, bought);
+                averagePrice = FixedPointCapitalGainsLedger.divideHalfUp(Math.addExact(currentTotalCost, newTotalCost),
+                        newTotalQuantity);
+            } else {
+                averagePrice = 0;
+            }
+            quantity = newTotalQuantity;
+        }
+
+        void sell(long unitCost, long sold, TaxBatch[] taxes) {
+            long totalSellValue = Math.multiplyExact(unitCost, sold);
+            long profit = Math.subtractExact(totalSellValue, Math.multiplyExact(averagePrice, sold));
+            long remaining = Math.subtractExact(quantity, sold);
+
+            for (int s = 0; s < losses.length; s++) {
+                long loss = losses[s];
+                long taxable = profit;
+                long tax = 0;
+
+                if (profit < 0 && carryForward[s]) {
+                    loss = Math.addExact(loss, Math.negateExact(profit));
+                }
+                if (totalSellValue > thresholdCents[s] && profit > 0) {
+                    if (loss >= taxable) {
+                        loss -= taxable;
+                        taxable = 0;
+                    } else {
+                        taxable -= loss;
+                        loss = 0;
+                    }
+                    if (taxable > 0) {
+                        tax = FixedPointCapitalGainsLedger.divideHalfUp(Math.multiplyExact(taxable, rateUnscaled[s]),
+                                rateDivisor[s]);
+                    }
+                }
+
+                losses[s] = loss;
+                taxes[s].add(FixedPointCapitalGainsLedger.divideHalfUp(tax, CENTS_PER_TAX_UNIT));
+            }
+
+            quantity = remaining;
+            if (quantity == 0) {
+                averagePrice = 0;
+            }
+        }
+    }
+}
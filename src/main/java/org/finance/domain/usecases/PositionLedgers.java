@@ -0,0 +1,63 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.PositionKey;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * One ledger per position seen in a history. Operations without an account or ticker
+ * share a single ledger, so unkeyed input never touches the map. Not thread-safe.
+ */
+public final class PositionLedgers {
+    private static final PositionKey UNKEYED = new PositionKey(null, null);
+
+    private final Supplier<CapitalGainsLedger> factory;
+    private final CapitalGainsLedger unkeyed;
+    private Map<PositionKey, CapitalGainsLedger> keyed;
+
+    PositionLedgers(Supplier<CapitalGainsLedger> factory) {
+        this.factory = factory;
+        this.unkeyed = factory.get();
+    }
+
+    public CapitalGainsLedger ledgerFor(Operation operation) {
+        if (!operation.isKeyed()) {
+            return unkeyed;
+        }
+        return ledgerFor(PositionKey.of(operation));
+    }
+
+    public CapitalGainsLedger ledgerFor(PositionKey key) {
+        if (UNKEYED.equals(key)) {
+            return unkeyed;
+        }
+        if (keyed == null) {
+            keyed = new HashMap<>();
+        }
+        return keyed.computeIfAbsent(key, k -> factory.get());
+    }
+
+    /**
+     * Visits every position, the unkeyed one first.
+     */
+    public void forEach(BiConsumer<PositionKey, CapitalGainsLedger> action) {
+        action.accept(UNKEYED, unkeyed);
+        if (keyed != null) {
+            keyed.forEach(action);
+        }
+    }
+
+    /**
+     * @return an independent set of positions with the same state as this one
+     */
+    public PositionLedgers copy() {
+        PositionLedgers copy = new PositionLedgers(factory);
+        forEach((key, ledger) -> copy.ledgerFor(key).restore(ledger.getWeightedAveragePrice(),
+                ledger.getStockQuantity(), ledger.getAccumulatedLoss()));
+        return copy;
+    }
+}
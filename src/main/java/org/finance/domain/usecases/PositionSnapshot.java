@@ -0,0 +1,212 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.PositionKey;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Immutable state of every position at one point of a history. Updating a position returns
+ * a new snapshot that shares everything else with this one: positions live in a hash trie
+ * of 32-way nodes, and an update copies only the nodes on the path to its position. A
+ * chain of snapshots taken after each block therefore costs memory and time in proportion
+ * to the positions each block touched, not to all the positions open at the time.
+ */
+final class PositionSnapshot {
+    static final PositionSnapshot EMPTY = new PositionSnapshot(Branch.EMPTY, 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Node root;
+    private final int size;
+
+    private PositionSnapshot(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the state of {@code key}, or {@code null} if the position was never touched
+     */
+    State get(PositionKey key) {
+        return root.get(key, spread(key), 0);
+    }
+
+    /**
+     * @return a snapshot where {@code key} holds the current state of {@code ledger}
+     */
+    PositionSnapshot with(PositionKey key, CapitalGainsLedger ledger) {
+        boolean[] added = new boolean[1];
+        Entry entry = new Entry(key, spread(key), new State(ledger.getWeightedAveragePrice(),
+                ledger.getStockQuantity(), ledger.getAccumulatedLoss()));
+        Node updated = root.with(entry, 0, added);
+        return new PositionSnapshot(updated, added[0] ? size + 1 : size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int spread(PositionKey key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * A position's average price, quantity held and accumulated loss.
+     */
+    static final class State {
+        private final BigDecimal weightedAveragePrice;
+        private final long stockQuantity;
+        private final BigDecimal accumulatedLoss;
+
+        State(BigDecimal weightedAveragePrice, long stockQuantity, BigDecimal accumulatedLoss) {
+            this.weightedAveragePrice = weightedAveragePrice;
+            this.stockQuantity = stockQuantity;
+            this.accumulatedLoss = accumulatedLoss;
+        }
+
+        void restoreInto(CapitalGainsLedger ledger) {
+            ledger.restore(weightedAveragePrice, stockQuantity, accumulatedLoss);
+        }
+    }
+
+    private static final class Entry {
+        final PositionKey key;
+        final int hash;
+        final State state;
+
+        Entry(PositionKey key, int hash, State state) {
+            this.key = key;
+            this.hash = hash;
+            this.state = state;
+        }
+
+        boolean sameKey(Entry other) {
+            return hash == other.hash && key.equals(other.key);
+        }
+    }
+
+    private interface Node {
+        State get(PositionKey key, int hash, int shift);
+
+        /**
+         * @param added set to {@code true} if the entry's key was not in this node yet
+         */
+        Node with(Entry entry, int shift, boolean[] added);
+    }
+
+    /**
+     * Up to 32 slots, one per 5-bit slice of the hash at this depth, each an {@link Entry}
+     * or a deeper {@link Node}; only occupied slots are stored, in bitmap order.
+     */
+    private static final class Branch implements Node {
+        static final Branch EMPTY = new Branch(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] slots;
+
+        Branch(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        public State get(PositionKey key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[Integer.bitCount(bitmap & (bit - 1))];
+            if (slot instanceof Entry entry) {
+                return entry.hash == hash && entry.key.equals(key) ? entry.state : null;
+            }
+            return ((Node) slot).get(key, hash, shift + BITS);
+        }
+
+        @Override
+        public Node with(Entry entry, int shift, boolean[] added) {
+            int bit = bit(entry.hash, shift);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] grown = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, grown, 0, index);
+                grown[index] = entry;
+                System.arraycopy(slots, index, grown, index + 1, slots.length - index);
+                return new Branch(bitmap | bit, grown);
+            }
+
+            Object slot = slots[index];
+            Object replacement;
+            if (slot instanceof Entry existing) {
+                if (existing.sameKey(entry)) {
+                    replacement = entry;
+                } else {
+                    added[0] = true;
+                    replacement = pair(existing, entry, shift + BITS);
+                }
+            } else {
+                replacement = ((Node) slot).with(entry, shift + BITS, added);
+            }
+            Object[] copy = slots.clone();
+            copy[index] = replacement;
+            return new Branch(bitmap, copy);
+        }
+
+        private static Node pair(Entry first, Entry second, int shift) {
+            if (first.hash == second.hash) {
+                return new Collision(first.hash, new Entry[]{first, second});
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.with(first, shift, ignored).with(second, shift, ignored);
+        }
+    }
+
+    /**
+     * Keys whose hashes are equal in all 32 bits.
+     */
+    private static final class Collision implements Node {
+        final int hash;
+        final Entry[] entries;
+
+        Collision(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        public State get(PositionKey key, int hash, int shift) {
+            for (Entry entry : entries) {
+                if (entry.hash == hash && entry.key.equals(key)) {
+                    return entry.state;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node with(Entry entry, int shift, boolean[] added) {
+            if (entry.hash != hash) {
+                // Only shares a prefix of the hash: branch above this node
+                return new Branch(bit(hash, shift), new Object[]{this}).with(entry, shift, added);
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].sameKey(entry)) {
+                    Entry[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new Collision(hash, copy);
+                }
+            }
+            added[0] = true;
+            Entry[] grown = Arrays.copyOf(entries, entries.length + 1);
+            grown[entries.length] = entry;
+            return new Collision(hash, grown);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.PositionKey;
+import org.finance.domain.entities.TaxResult;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Shares work between simulations that start with the same operations, such as one long
+ * history replayed with different final trades. The history is cut into blocks of
+ * {@code blockSize} operations; after each complete block the engine records a boundary
+ * holding a copy of the block's operations, their taxes and a {@link PositionSnapshot} of
+ * the positions at that point. A snapshot shares every position the block did not touch with
+ * the boundary before it, so recording a boundary costs in proportion to the block, not to
+ * the positions open. A boundary is keyed by the id of the boundary before it and a hash of
+ * its block.
+ * <p>
+ * A new simulation follows the boundaries it already knows, emitting their cached taxes,
+ * and calculates from the last one once its operations diverge, restoring each position
+ * from that boundary's snapshot the first time an operation needs it. A boundary is only followed if its block holds exactly the
+ * operations at hand, and its key names the boundary just followed, so by induction the
+ * whole prefix is equal, not merely its hash. Boundaries form chains, so the longest cached
+ * prefix is found one block at a time without looking ahead. At most {@code maxBoundaries}
+ * are kept, evicting the least recently used; a boundary refers to its predecessor by id
+ * only, so evicted ones are not kept alive by their successors.
+ * <p>
+ * Taxes are handed to the sink a block at a time rather than per operation. Results are
+ * identical to the wrapped engine; concurrent calls share the cache.
+ */
+public class PrefixCachingCapitalGainsTax extends CalculateCapitalGainsTax {
+    static final int DEFAULT_BLOCK_SIZE = 32;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x5bd1e9955bd1e995L;
+    /**
+     * Predecessor id of a simulation's first boundary.
+     */
+    private static final long NO_BOUNDARY = 0;
+
+    private final CalculateCapitalGainsTax engine;
+    private final int blockSize;
+    private final Map<Key, Boundary> boundaries;
+    private final AtomicLong boundaryIds = new AtomicLong(NO_BOUNDARY);
+
+    private final LongAdder reusedOperations = new LongAdder();
+    private final LongAdder calculatedOperations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param engine supplies the ledgers, so cached and calculated taxes use the same arithmetic
+     */
+    public PrefixCachingCapitalGainsTax(CalculateCapitalGainsTax engine, int maxBoundaries) {
+        this(engine, maxBoundaries, DEFAULT_BLOCK_SIZE);
+    }
+
+    PrefixCachingCapitalGainsTax(CalculateCapitalGainsTax engine, int maxBoundaries, int blockSize) {
+        this.engine = engine;
+        this.blockSize = blockSize;
+        this.boundaries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boundary> eldest) {
+                if (size() > maxBoundaries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public CapitalGainsLedger newLedger() {
+        return engine.newLedger();
+    }
+
+    @Override
+    public void calculate(Iterable<Operation> operations, Consumer<TaxResult> sink) {
+        Run run = new Run(sink);
+        for (Operation op : operations) {
+            run.add(op);
+        }
+        run.flush(false);
+    }
+
+    public long getReusedOperations() {
+        return reusedOperations.sum();
+    }
+
+    public long getCalculatedOperations() {
+        return calculatedOperations.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (boundaries) {
+            return boundaries.size();
+        }
+    }
+
+    public String summary() {
+        return "Prefix cache: " + getReusedOperations() + " operations reused, " + getCalculatedOperations()
+                + " calculated, " + size() + " boundaries, " + getEvictions() + " evictions";
+    }
+
+    private Boundary lookup(Key key, Operation[] block) {
+        Boundary boundary;
+        synchronized (boundaries) {
+            boundary = boundaries.get(key);
+        }
+        // Uma colisão de hash não é um prefixo igual
+        return boundary != null && boundary.matches(block) ? boundary : null;
+    }
+
+    /**
+     * @return the boundary now stored for the same prefix, so that concurrent runs over it
+     * continue the same chain; {@code boundary} itself if the key is taken by another block
+     */
+    private Boundary store(Key key, Boundary boundary) {
+        Boundary stored;
+        synchronized (boundaries) {
+            stored = boundaries.putIfAbsent(key, boundary);
+        }
+        return stored != null && stored.matches(boundary.operations) ? stored : boundary;
+    }
+
+    /**
+     * State of one call: the last boundary followed and, once the input has left the cached
+     * path, the live positions and those changed since the last boundary.
+     */
+    private final class Run {
+        private final Consumer<TaxResult> sink;
+        private final Operation[] block = new Operation[blockSize];
+        private int size;
+
+        private long hash;
+        private Boundary last;
+        private Map<PositionKey, CapitalGainsLedger> ledgers;
+        private final Set<PositionKey> touched = new HashSet<>();
+
+        Run(Consumer<TaxResult> sink) {
+            this.sink = sink;
+        }
+
+        void add(Operation op) {
+            block[size++] = op;
+            if (size == blockSize) {
+                flush(true);
+            }
+        }
+
+        void flush(boolean complete) {
+            if (size == 0) {
+                return;
+            }
+            Key key = null;
+            if (complete) {
+                hash = FNV_OFFSET;
+                for (Operation op : block) {
+                    hash(op);
+                }
+                key = new Key(last != null ? last.id : NO_BOUNDARY, hash);
+            }
+
+            if (key != null && ledgers == null) {
+                Boundary cached = lookup(key, block);
+                if (cached != null) {
+                    for (TaxResult tax : cached.taxes) {
+                        sink.accept(tax);
+                    }
+                    reusedOperations.add(size);
+                    advance(cached);
+                    return;
+                }
+            }
+
+            if (ledgers == null) {
+                ledgers = new HashMap<>();
+            }
+            TaxResult[] taxes = new TaxResult[size];
+            for (int i = 0; i < size; i++) {
+                taxes[i] = ledgerFor(block[i]).apply(block[i]);
+                sink.accept(taxes[i]);
+            }
+            calculatedOperations.add(size);
+
+            if (key != null) {
+                PositionSnapshot positions = last != null ? last.positions : PositionSnapshot.EMPTY;
+                for (PositionKey position : touched) {
+                    positions = positions.with(position, ledgers.get(position));
+                }
+                touched.clear();
+                advance(store(key, new Boundary(boundaryIds.incrementAndGet(), block, taxes, positions)));
+            }
+        }
+
+        /**
+         * @return the live ledger of the operation's position, restored from the last
+         * boundary the first time it is needed
+         */
+        private CapitalGainsLedger ledgerFor(Operation op) {
+            PositionKey position = PositionKey.of(op);
+            CapitalGainsLedger ledger = ledgers.get(position);
+            if (ledger == null) {
+                ledger = newLedger();
+                PositionSnapshot.State state = last != null ? last.positions.get(position) : null;
+                if (state != null) {
+                    state.restoreInto(ledger);
+                }
+                ledgers.put(position, ledger);
+            }
+            touched.add(position);
+            return ledger;
+        }
+
+        private void advance(Boundary boundary) {
+            last = boundary;
+            size = 0;
+        }
+
+        /**
+         * Extends the block's hash with every field that affects the result. Null fields are
+         * hashed too, so invalid operations reach the ledger and fail there as usual.
+         */
+        private void hash(Operation op) {
+            mix(op.getType() != null ? op.getType().ordinal() : NULL_MARKER);
+            BigDecimal unitCost = op.getUnitCost();
+            if (unitCost == null) {
+                mix(NULL_MARKER);
+            } else {
+                mix(unitCost.scale());
+                BigInteger unscaled = unitCost.unscaledValue();
+                for (; unscaled.bitLength() >= Long.SIZE; unscaled = unscaled.shiftRight(Long.SIZE)) {
+                    mix(unscaled.longValue());
+                }
+                mix(unscaled.longValue());
+            }
+            mix(op.getQuantity());
+            mix(op.getAccount());
+            mix(op.getTicker());
+        }
+
+        private void mix(String value) {
+            if (value == null) {
+                mix(NULL_MARKER);
+                return;
+            }
+            mix(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                mix(value.charAt(i));
+            }
+        }
+
+        private void mix(long value) {
+            hash = (hash ^ value) * FNV_PRIME;
+        }
+    }
+
+    private static final class Boundary {
+        final long id;
+        final Operation[] operations;
+        final TaxResult[] taxes;
+        final PositionSnapshot positions;
+
+        /**
+         * Copies {@code block}: operations are mutable and belong to the caller.
+         */
+        Boundary(long id, Operation[] block, TaxResult[] taxes, PositionSnapshot positions) {
+            this.id = id;
+            this.operations = new Operation[block.length];
+            for (int i = 0; i < block.length; i++) {
+                Operation op = block[i];
+                operations[i] = new Operation(op.getType(), op.getUnitCost(), op.getQuantity(), op.getAccount(),
+                        op.getTicker());
+            }
+            this.taxes = taxes;
+            this.positions = positions;
+        }
+
+        /**
+         * @return {@code true} if {@code block} holds the same operations, field by field
+         */
+        boolean matches(Operation[] block) {
+            for (int i = 0; i < operations.length; i++) {
+                Operation cached = operations[i];
+                Operation op = block[i];
+                if (cached.getType() != op.getType()
+                        || cached.getQuantity() != op.getQuantity()
+                        || !Objects.equals(cached.getUnitCost(), op.getUnitCost())
+                        || !Objects.equals(cached.getAccount(), op.getAccount())
+                        || !Objects.equals(cached.getTicker(), op.getTicker())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A block's place in the chain: the id of the boundary before it and the hash of its
+     * operations.
+     */
+    private static final class Key {
+        final long previous;
+        final long hash;
+
+        Key(long previous, long hash) {
+            this.previous = previous;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && previous == key.previous && hash == key.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash ^ (previous * 0x9e3779b97f4a7c15L));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxResult;
+
+import java.io.Serial;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates one long single-position history on several cores. Whenever the position
+ * returns to zero shares the average price resets, so the history splits at those points
+ * into segments whose prices, quantities and profits do not depend on each other; only the
+ * accumulated loss carries across. Consecutive segments are grouped into chunks and each
+ * chunk is evaluated on a fork/join pool from an empty ledger, as if no loss came in.
+ * <p>
+ * A sequential pass then reconciles the loss carry. A chunk that receives a carried loss
+ * differs from its zero-carry evaluation only in its sales, and only until that extra loss
+ * has been offset: once the ledger's accumulated loss is zero both evaluations are in the
+ * same state. So the pass re-applies just those sales, from the average price and quantity
+ * recorded for each, with the real carry, and stops at the first one that leaves no loss.
+ * Buys are never replayed. Results are identical to the wrapped engine.
+ * <p>
+ * Histories with accounts or tickers, histories too short to split and inputs that are not
+ * random-access lists go straight to the wrapped engine.
+ */
+public class SegmentedCapitalGainsTax extends CalculateCapitalGainsTax implements AutoCloseable {
+    static final int DEFAULT_MIN_CHUNK_SIZE = 16_384;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final CalculateCapitalGainsTax engine;
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+
+    /**
+     * @param engine supplies the ledgers, so the segmented engine keeps its arithmetic
+     */
+    public SegmentedCapitalGainsTax(CalculateCapitalGainsTax engine, int parallelism) {
+        this(engine, parallelism, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    SegmentedCapitalGainsTax(CalculateCapitalGainsTax engine, int parallelism, int minChunkSize) {
+        this.engine = engine;
+        this.pool = new ForkJoinPool(parallelism);
+        this.minChunkSize = minChunkSize;
+    }
+
+    @Override
+    public CapitalGainsLedger newLedger() {
+        return engine.newLedger();
+    }
+
+    @Override
+    public void calculate(Iterable<Operation> operations, Consumer<TaxResult> sink) {
+        List<Chunk> chunks = null;
+        if (operations instanceof List<Operation> list && list instanceof RandomAccess) {
+            chunks = split(list);
+        }
+        if (chunks == null) {
+            engine.calculate(operations, sink);
+            return;
+        }
+
+        List<Operation> history = (List<Operation>) operations;
+        TaxResult[] results = new TaxResult[history.size()];
+        pool.invoke(new Evaluation(chunks, 0, chunks.size(), history, results));
+
+        BigDecimal carry = BigDecimal.ZERO;
+        CapitalGainsLedger replay = newLedger();
+        for (Chunk chunk : chunks) {
+            int end = chunk.failure != null ? chunk.failedAt : chunk.end;
+            carry = carry.signum() > 0
+                    ? chunk.reconcile(carry, replay, history, results, end)
+                    : chunk.finalLoss;
+            for (int i = chunk.start; i < end; i++) {
+                sink.accept(results[i]);
+            }
+            if (chunk.failure != null) {
+                throw chunk.failure;
+            }
+        }
+    }
+
+    /**
+     * Cuts the history at zero-position points into chunks of at least the chunk size.
+     *
+     * @return {@code null} if the history should not be split
+     */
+    private List<Chunk> split(List<Operation> operations) {
+        int size = operations.size();
+        int chunkSize = Math.max(minChunkSize, size / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        if (size < 2 * chunkSize) {
+            return null;
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        long quantity = 0;
+        for (int i = 0; i < size; i++) {
+            Operation op = operations.get(i);
+            if (op.isKeyed()) {
+                return null;
+            }
+            // Same quantity arithmetic as the ledgers; at zero the average price is zero too
+            if (op.getType() == OperationType.BUY) {
+                quantity += op.getQuantity();
+            } else if (op.getType() == OperationType.SELL) {
+                quantity -= op.getQuantity();
+            }
+            if (quantity == 0 && i + 1 - start >= chunkSize) {
+                chunks.add(new Chunk(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < size) {
+            chunks.add(new Chunk(start, size));
+        }
+        return chunks.size() > 1 ? chunks : null;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Evaluates a range of chunks, splitting it in halves until a single chunk is left.
+     */
+    private final class Evaluation extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized; ForkJoinTask is Serializable only by inheritance
+        private final transient List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final transient List<Operation> operations;
+        private final transient TaxResult[] results;
+
+        Evaluation(List<Chunk> chunks, int from, int to, List<Operation> operations, TaxResult[] results) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.operations = operations;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks.get(from).evaluate(operations, results);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Evaluation(chunks, from, middle, operations, results),
+                    new Evaluation(chunks, middle, to, operations, results));
+        }
+    }
+
+    /**
+     * A run of whole segments, {@code [start, end)}, with the position each of its sales
+     * started from.
+     */
+    private final class Chunk {
+        final int start;
+        final int end;
+        int[] sales = new int[16];
+        BigDecimal[] averagePrices = new BigDecimal[16];
+        long[] quantities = new long[16];
+        int saleCount;
+        BigDecimal finalLoss;
+        int failedAt;
+        RuntimeException failure;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void evaluate(List<Operation> operations, TaxResult[] results) {
+            CapitalGainsLedger ledger = newLedger();
+            for (int i = start; i < end; i++) {
+                Operation op = operations.get(i);
+                try {
+                    if (op.getType() == OperationType.SELL) {
+                        recordSale(i, ledger);
+                    }
+                    results[i] = ledger.apply(op);
+                } catch (RuntimeException e) {
+                    failedAt = i;
+                    failure = e;
+                    return;
+                }
+            }
+            finalLoss = ledger.getAccumulatedLoss();
+        }
+
+        private void recordSale(int index, CapitalGainsLedger ledger) {
+            if (saleCount == sales.length) {
+                int capacity = saleCount * 2;
+                sales = Arrays.copyOf(sales, capacity);
+                averagePrices = Arrays.copyOf(averagePrices, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+            }
+            sales[saleCount] = index;
+            averagePrices[saleCount] = ledger.getWeightedAveragePrice();
+            quantities[saleCount] = ledger.getStockQuantity();
+            saleCount++;
+        }
+
+        /**
+         * Re-applies the sales before {@code end} with {@code carry} added to their loss,
+         * overwriting their results, until the carry is absorbed.
+         *
+         * @return the loss this chunk passes on
+         */
+        BigDecimal reconcile(BigDecimal carry, CapitalGainsLedger replay, List<Operation> operations,
+                             TaxResult[] results, int end) {
+            BigDecimal loss = carry;
+            for (int s = 0; s < saleCount && sales[s] < end; s++) {
+                replay.restore(averagePrices[s], quantities[s], loss);
+                results[sales[s]] = replay.apply(operations.get(sales[s]));
+                loss = replay.getAccumulatedLoss();
+                if (loss.signum() == 0) {
+                    // Same state as the zero-carry evaluation from here on
+                    return finalLoss;
+                }
+            }
+            return loss;
+        }
+    }
+}
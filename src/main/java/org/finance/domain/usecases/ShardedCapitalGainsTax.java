@@ -0,0 +1,236 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.PositionKey;
+import org.finance.domain.entities.TaxResult;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * Spreads an interleaved multi-account history across a fixed set of shards. Every
+ * account/ticker position hashes to one shard, and each shard is a single thread that owns
+ * the ledgers of its positions, so no ledger is ever shared or locked.
+ * <p>
+ * The input is cut into chunks. Each shard receives the indexes of the operations it owns
+ * and writes their taxes into the chunk; a shard's tasks run in submission order, so every
+ * position sees its operations in input order. Chunks are emitted in input order once all
+ * shards are done with them, with a bounded number in flight. Results are therefore
+ * identical to {@link CalculateCapitalGainsTax}, only computed on several cores, failures
+ * included: if an operation fails, or the operations themselves fail to be read, every
+ * result before that point is emitted in order and then the failure is rethrown. Chunks
+ * after a failed operation are cancelled.
+ * <p>
+ * Each call to {@link #calculate(Iterable, Consumer)} starts from empty ledgers; concurrent
+ * calls are allowed and share the shard threads.
+ */
+public class ShardedCapitalGainsTax extends CalculateCapitalGainsTax implements AutoCloseable {
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+    private static final int CHUNKS_IN_FLIGHT_PER_SHARD = 2;
+
+    private final CalculateCapitalGainsTax engine;
+    private final ExecutorService[] shards;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    /**
+     * @param engine supplies the ledgers, so the sharded engine keeps its arithmetic
+     */
+    public ShardedCapitalGainsTax(CalculateCapitalGainsTax engine, int shards) {
+        this(engine, shards, DEFAULT_CHUNK_SIZE);
+    }
+
+    ShardedCapitalGainsTax(CalculateCapitalGainsTax engine, int shards, int chunkSize) {
+        this.engine = engine;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = shards * CHUNKS_IN_FLIGHT_PER_SHARD;
+        this.shards = new ExecutorService[shards];
+        ThreadFactory threads = Thread.ofPlatform().name("ledger-shard-", 0).daemon().factory();
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = Executors.newSingleThreadExecutor(threads);
+        }
+    }
+
+    @Override
+    public CapitalGainsLedger newLedger() {
+        return engine.newLedger();
+    }
+
+    @Override
+    public void calculate(Iterable<Operation> operations, Consumer<TaxResult> sink) {
+        PositionLedgers[] ledgers = new PositionLedgers[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            ledgers[i] = newPositions();
+        }
+
+        ArrayDeque<Chunk> inFlight = new ArrayDeque<>();
+        Chunk chunk = new Chunk(chunkSize);
+        Iterator<Operation> iterator = operations.iterator();
+        RuntimeException readFailure = null;
+        while (true) {
+            Operation op;
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                op = iterator.next();
+            } catch (RuntimeException e) {
+                // Lazy sources fail mid-history; what was read before still gets its results
+                readFailure = e;
+                break;
+            }
+            chunk.operations[chunk.size++] = op;
+            if (chunk.size == chunkSize) {
+                dispatch(chunk, ledgers);
+                inFlight.add(chunk);
+                chunk = new Chunk(chunkSize);
+                if (inFlight.size() > maxChunksInFlight) {
+                    emitNext(inFlight, sink);
+                }
+            }
+        }
+        if (chunk.size > 0) {
+            dispatch(chunk, ledgers);
+            inFlight.add(chunk);
+        }
+        while (!inFlight.isEmpty()) {
+            emitNext(inFlight, sink);
+        }
+        if (readFailure != null) {
+            throw readFailure;
+        }
+    }
+
+    /**
+     * Emits the oldest chunk. If it fails, nothing after it will be emitted, so the chunks
+     * still in flight are cancelled rather than left to occupy the shared shard threads.
+     */
+    private static void emitNext(ArrayDeque<Chunk> inFlight, Consumer<TaxResult> sink) {
+        try {
+            inFlight.poll().emit(sink);
+        } catch (RuntimeException e) {
+            for (Chunk abandoned : inFlight) {
+                abandoned.cancel();
+            }
+            inFlight.clear();
+            throw e;
+        }
+    }
+
+    private void dispatch(Chunk chunk, PositionLedgers[] ledgers) {
+        int[] shardOf = new int[chunk.size];
+        int[] counts = new int[shards.length];
+        for (int i = 0; i < chunk.size; i++) {
+            shardOf[i] = shardOf(chunk.operations[i]);
+            counts[shardOf[i]]++;
+        }
+
+        int[][] indexes = new int[shards.length][];
+        for (int shard = 0; shard < shards.length; shard++) {
+            indexes[shard] = new int[counts[shard]];
+            counts[shard] = 0;
+        }
+        for (int i = 0; i < chunk.size; i++) {
+            indexes[shardOf[i]][counts[shardOf[i]]++] = i;
+        }
+
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (indexes[shard].length > 0) {
+                int owner = shard;
+                chunk.pending[shard] = shards[shard].submit(() -> chunk.apply(owner, ledgers[owner], indexes[owner]));
+            }
+        }
+    }
+
+    private int shardOf(Operation operation) {
+        if (!operation.isKeyed()) {
+            return 0;
+        }
+        int hash = PositionKey.of(operation).hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    /**
+     * A slice of the input and its results. Each shard writes only the slots it owns;
+     * {@link Future#get()} publishes them to the emitting thread.
+     */
+    private final class Chunk {
+        final Operation[] operations;
+        final TaxResult[] results;
+        final Future<?>[] pending = new Future<?>[shards.length];
+        final int[] failedAt = new int[shards.length];
+        final RuntimeException[] failures = new RuntimeException[shards.length];
+        int size;
+
+        Chunk(int capacity) {
+            operations = new Operation[capacity];
+            results = new TaxResult[capacity];
+        }
+
+        void apply(int shard, PositionLedgers ledgers, int[] indexes) {
+            for (int index : indexes) {
+                try {
+                    results[index] = ledgers.ledgerFor(operations[index]).apply(operations[index]);
+                } catch (RuntimeException e) {
+                    failedAt[shard] = index;
+                    failures[shard] = e;
+                    return;
+                }
+            }
+        }
+
+        void cancel() {
+            for (Future<?> task : pending) {
+                if (task != null) {
+                    task.cancel(false);
+                }
+            }
+        }
+
+        /**
+         * Hands the results to {@code sink} in input order, stopping at the first operation
+         * that failed and rethrowing its exception, as the sequential engine would.
+         */
+        void emit(Consumer<TaxResult> sink) {
+            RuntimeException failure = null;
+            int end = size;
+            for (int shard = 0; shard < shards.length; shard++) {
+                if (pending[shard] == null) {
+                    continue;
+                }
+                try {
+                    pending[shard].get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for shard " + shard, e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Shard " + shard + " failed", e.getCause());
+                }
+                if (failures[shard] != null && failedAt[shard] < end) {
+                    end = failedAt[shard];
+                    failure = failures[shard];
+                }
+            }
+
+            for (int i = 0; i < end; i++) {
+                sink.accept(results[i]);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.finance.infrastructure.binary;
+
+/**
+ * Compact fixed-width alternative to the JSON input and output, for hops between services
+ * that do not need a human-readable format. All numbers are big-endian.
+ * <p>
+ * An operations stream starts with {@link #OPERATIONS_MAGIC}, followed by simulations. Each
+ * simulation is an {@code int} record count and that many {@value #OPERATION_RECORD_BYTES}-byte
+ * records: a type byte ({@link #BUY} or {@link #SELL}), the unit cost as a {@code long} in
+ * cents and the quantity as a {@code long}. Accounts and tickers are not represented.
+ * <p>
+ * A results stream starts with {@link #RESULTS_MAGIC}, followed by one entry per input
+ * simulation, in order: an {@code int} count and that many taxes as {@code long} cents, or
+ * {@link #FAILED} with nothing after it for a simulation that could not be calculated.
+ */
+public final class BinaryFormat {
+    public static final int OPERATIONS_MAGIC = 0x43474F31; // "CGO1"
+    public static final int RESULTS_MAGIC = 0x43475431; // "CGT1"
+
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+    public static final int OPERATION_RECORD_BYTES = 1 + Long.BYTES + Long.BYTES;
+    public static final int FAILED = -1;
+
+    /**
+     * Upper bound on the records of one simulation, so a corrupt count cannot make a reader
+     * allocate more than an array can hold.
+     */
+    public static final int MAX_RECORDS = Integer.MAX_VALUE / OPERATION_RECORD_BYTES;
+
+    private BinaryFormat() {
+    }
+}
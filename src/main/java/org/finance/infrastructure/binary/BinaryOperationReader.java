@@ -0,0 +1,106 @@
+package org.finance.infrastructure.binary;
+
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads an operations stream in {@link BinaryFormat} straight into {@link OperationBatch}es,
+ * with no text, DTOs or {@link java.math.BigDecimal}s in between. Not thread-safe.
+ */
+public class BinaryOperationReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private boolean headerRead;
+    private byte[] records = new byte[BUFFER_SIZE];
+
+    public BinaryOperationReader(InputStream input) {
+        this.input = new BufferedInputStream(input, BUFFER_SIZE);
+    }
+
+    /**
+     * Replaces the contents of {@code operations} with the next simulation.
+     * <p>
+     * A simulation whose records are consumed but cannot be decoded raises
+     * {@link IllegalArgumentException}; the stream stays aligned and the caller may go on
+     * with the next one. A stream whose framing is broken raises {@link IOException}.
+     *
+     * @return {@code false} at end of stream
+     */
+    public boolean next(OperationBatch operations) throws IOException {
+        if (!headerRead) {
+            byte[] magic = input.readNBytes(Integer.BYTES);
+            if (magic.length == 0) {
+                return false;
+            }
+            if (magic.length < Integer.BYTES || ByteBuffer.wrap(magic).getInt() != BinaryFormat.OPERATIONS_MAGIC) {
+                throw new IOException("Not a binary operations stream");
+            }
+            headerRead = true;
+        }
+
+        byte[] header = input.readNBytes(Integer.BYTES);
+        if (header.length == 0) {
+            return false;
+        }
+        if (header.length < Integer.BYTES) {
+            throw new EOFException("Truncated simulation header");
+        }
+        int count = ByteBuffer.wrap(header).getInt();
+        if (count < 0 || count > BinaryFormat.MAX_RECORDS) {
+            throw new IOException("Invalid record count: " + count);
+        }
+
+        int length = count * BinaryFormat.OPERATION_RECORD_BYTES;
+        if (records.length < length) {
+            records = new byte[Math.max(length, records.length * 2)];
+        }
+        if (input.readNBytes(records, 0, length) < length) {
+            throw new EOFException("Truncated simulation: expected " + count + " records");
+        }
+
+        operations.clear();
+        ByteBuffer buffer = ByteBuffer.wrap(records, 0, length);
+        for (int i = 0; i < count; i++) {
+            byte type = buffer.get();
+            long unitCostCents = buffer.getLong();
+            long quantity = buffer.getLong();
+            operations.add(decodeType(type, i), unitCostCents, quantity);
+        }
+        return true;
+    }
+
+    /**
+     * @return how many bytes one simulation of {@code count} records takes
+     */
+    public static long simulationBytes(int count) {
+        return Integer.BYTES + (long) count * BinaryFormat.OPERATION_RECORD_BYTES;
+    }
+
+    /**
+     * @return whether more input can be read without blocking
+     */
+    public boolean ready() throws IOException {
+        return input.available() > 0;
+    }
+
+    private static OperationType decodeType(byte type, int record) {
+        return switch (type) {
+            case BinaryFormat.BUY -> OperationType.BUY;
+            case BinaryFormat.SELL -> OperationType.SELL;
+            default -> throw new IllegalArgumentException("Invalid operation type " + type + " in record " + record);
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,85 @@
+package org.finance.infrastructure.binary;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes an operations stream in {@link BinaryFormat}. Output is buffered; closing the
+ * writer flushes but does not close the target. Not thread-safe.
+ */
+public class BinaryOperationWriter implements Closeable, Flushable {
+    private final DataOutputStream output;
+    private final OperationBatch converted = new OperationBatch();
+    private boolean headerWritten;
+
+    public BinaryOperationWriter(OutputStream output) {
+        this.output = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+    }
+
+    /**
+     * @throws IllegalArgumentException if an operation has an account or ticker, an unknown
+     *                                  type, or a unit cost with more than two decimals;
+     *                                  nothing is written
+     */
+    public void writeSimulation(List<OperationDTO> operations) throws IOException {
+        converted.clear();
+        for (int i = 0; i < operations.size(); i++) {
+            OperationDTO operation = operations.get(i);
+            if (operation.getAccount() != null || operation.getTicker() != null) {
+                throw new IllegalArgumentException("Operation " + i + " has an account or ticker, which the binary format cannot carry");
+            }
+            if (operation.getUnitCost() == null) {
+                throw new IllegalArgumentException("Operation " + i + " has no unit cost");
+            }
+            long unitCostCents;
+            try {
+                unitCostCents = operation.getUnitCost().movePointRight(2).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Unit cost " + operation.getUnitCost() + " of operation " + i
+                        + " does not fit in long cents", e);
+            }
+            converted.add(parseType(operation.getOperation(), i), unitCostCents, operation.getQuantity());
+        }
+        writeSimulation(converted);
+    }
+
+    public void writeSimulation(OperationBatch operations) throws IOException {
+        if (!headerWritten) {
+            output.writeInt(BinaryFormat.OPERATIONS_MAGIC);
+            headerWritten = true;
+        }
+        output.writeInt(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            output.writeByte(operations.type(i) == OperationType.BUY ? BinaryFormat.BUY : BinaryFormat.SELL);
+            output.writeLong(operations.unitCostCents(i));
+            output.writeLong(operations.quantity(i));
+        }
+    }
+
+    private static OperationType parseType(String operation, int index) {
+        OperationType type = OperationType.fromName(operation);
+        if (type != null) {
+            return type;
+        }
+        throw new IllegalArgumentException("Unknown operation type " + operation + " in operation " + index);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.flush();
+    }
+}
@@ -0,0 +1,93 @@
+package org.finance.infrastructure.binary;
+
+import org.finance.domain.entities.TaxBatch;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a results stream in {@link BinaryFormat}. Not thread-safe.
+ */
+public class BinaryTaxReader implements Closeable {
+    private static final long CENTS_PER_TAX_UNIT = 10;
+
+    private final DataInputStream input;
+    private boolean headerRead;
+    private boolean failed;
+
+    public BinaryTaxReader(InputStream input) {
+        this.input = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+    }
+
+    /**
+     * Replaces the contents of {@code taxes} with the next simulation's results, scaled to
+     * {@link TaxBatch#SCALE}. A failed simulation leaves {@code taxes} empty and sets
+     * {@link #failed()}.
+     *
+     * @return {@code false} at end of stream
+     */
+    public boolean next(TaxBatch taxes) throws IOException {
+        if (!headerRead) {
+            Integer magic = readInt();
+            if (magic == null) {
+                return false;
+            }
+            if (magic != BinaryFormat.RESULTS_MAGIC) {
+                throw new IOException("Not a binary results stream");
+            }
+            headerRead = true;
+        }
+        Integer count = readInt();
+        if (count == null) {
+            return false;
+        }
+
+        taxes.clear();
+        failed = count == BinaryFormat.FAILED;
+        if (failed) {
+            return true;
+        }
+        if (count < 0) {
+            throw new IOException("Invalid result count: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            long cents = input.readLong();
+            if (cents % CENTS_PER_TAX_UNIT != 0) {
+                throw new IOException("Tax " + cents + " has more precision than results carry");
+            }
+            taxes.add(cents / CENTS_PER_TAX_UNIT);
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the simulation returned by the last {@link #next(TaxBatch)} failed
+     */
+    public boolean failed() {
+        return failed;
+    }
+
+    /**
+     * @return the next {@code int}, or {@code null} on a clean end of stream
+     */
+    private Integer readInt() throws IOException {
+        byte[] bytes = input.readNBytes(Integer.BYTES);
+        if (bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < Integer.BYTES) {
+            throw new EOFException("Truncated results stream");
+        }
+        return ByteBuffer.wrap(bytes).getInt();
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
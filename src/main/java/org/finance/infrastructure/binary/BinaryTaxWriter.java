@@ -0,0 +1,83 @@
+package org.finance.infrastructure.binary;
+
+import org.finance.application.dto.TaxResultDTO;
+import org.finance.domain.entities.TaxBatch;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes a results stream in {@link BinaryFormat}. Output is buffered; closing the writer
+ * flushes but does not close the target. Not thread-safe.
+ */
+public class BinaryTaxWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long CENTS_PER_TAX_UNIT = 10;
+
+    private final DataOutputStream output;
+    private boolean headerWritten;
+
+    public BinaryTaxWriter(OutputStream output) {
+        this.output = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+    }
+
+    /**
+     * @throws ArithmeticException if a tax does not fit in {@code long} cents; nothing is written
+     */
+    public void writeSimulation(TaxBatch taxes) throws IOException {
+        long[] cents = new long[taxes.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = Math.multiplyExact(taxes.unscaledTax(i), CENTS_PER_TAX_UNIT);
+        }
+        write(cents);
+    }
+
+    /**
+     * @throws ArithmeticException if a tax does not fit in {@code long} cents; nothing is written
+     */
+    public void writeSimulation(List<TaxResultDTO> taxes) throws IOException {
+        long[] cents = new long[taxes.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = taxes.get(i).getTax().movePointRight(2).longValueExact();
+        }
+        write(cents);
+    }
+
+    /**
+     * Marks the next simulation as failed, keeping results aligned with the input.
+     */
+    public void writeFailure() throws IOException {
+        writeHeader();
+        output.writeInt(BinaryFormat.FAILED);
+    }
+
+    private void write(long[] cents) throws IOException {
+        writeHeader();
+        output.writeInt(cents.length);
+        for (long tax : cents) {
+            output.writeLong(tax);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (!headerWritten) {
+            output.writeInt(BinaryFormat.RESULTS_MAGIC);
+            headerWritten = true;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.flush();
+    }
+}
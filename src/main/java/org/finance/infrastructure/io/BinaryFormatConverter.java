@@ -0,0 +1,118 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxBatch;
+import org.finance.infrastructure.binary.BinaryFormat;
+import org.finance.infrastructure.binary.BinaryOperationReader;
+import org.finance.infrastructure.binary.BinaryOperationWriter;
+import org.finance.infrastructure.binary.BinaryTaxReader;
+import org.finance.infrastructure.json.JsonParser;
+import org.finance.infrastructure.json.TaxResultStreamWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts between the JSON formats and {@link BinaryFormat}, so existing producers and
+ * consumers can be moved to the binary hop one at a time. Simulations that cannot be
+ * converted are reported on stderr and skipped, as the line-based processor does.
+ */
+public class BinaryFormatConverter {
+    public static final String OPERATIONS_TO_BINARY = "operations-to-binary";
+    public static final String OPERATIONS_TO_JSON = "operations-to-json";
+    public static final String RESULTS_TO_JSON = "results-to-json";
+
+    private final JsonParser jsonParser;
+
+    public BinaryFormatConverter(JsonParser jsonParser) {
+        this.jsonParser = jsonParser;
+    }
+
+    public void convert(String conversion, InputStream input, OutputStream output) {
+        try {
+            switch (conversion) {
+                case OPERATIONS_TO_BINARY -> operationsToBinary(input, output);
+                case OPERATIONS_TO_JSON -> operationsToJson(input, output);
+                case RESULTS_TO_JSON -> resultsToJson(input, output);
+                default -> throw new IllegalArgumentException("Unknown conversion: " + conversion);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Line-based JSON operations, one simulation per array, to a binary operations stream.
+     */
+    public void operationsToBinary(InputStream input, OutputStream output) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+             BinaryOperationWriter writer = new BinaryOperationWriter(output)) {
+            SimulationFramer framer = new SimulationFramer(reader);
+            String json;
+            while ((json = framer.next()) != null) {
+                try {
+                    writer.writeSimulation(jsonParser.parseOperations(json));
+                } catch (RuntimeException e) {
+                    System.err.println("Erro ao processar entrada: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A binary operations stream to JSON operations, one simulation per line.
+     */
+    public void operationsToJson(InputStream input, OutputStream output) throws IOException {
+        PrintStream printer = new PrintStream(output, false, StandardCharsets.UTF_8);
+        try (BinaryOperationReader reader = new BinaryOperationReader(input)) {
+            OperationBatch operations = new OperationBatch();
+            while (true) {
+                try {
+                    if (!reader.next(operations)) {
+                        break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Erro ao processar entrada: " + e.getMessage());
+                    continue;
+                }
+                List<OperationDTO> dtos = new ArrayList<>(operations.size());
+                for (int i = 0; i < operations.size(); i++) {
+                    dtos.add(new OperationDTO(operations.type(i) == OperationType.BUY ? "buy" : "sell",
+                            BigDecimal.valueOf(operations.unitCostCents(i), 2), operations.quantity(i)));
+                }
+                printer.println(jsonParser.serializeOperations(dtos));
+            }
+        } finally {
+            printer.flush();
+        }
+    }
+
+    /**
+     * A binary results stream to the JSON output the line-based processor prints.
+     */
+    public void resultsToJson(InputStream input, OutputStream output) throws IOException {
+        try (BinaryTaxReader reader = new BinaryTaxReader(input);
+             TaxResultStreamWriter writer = jsonParser.openTaxResultWriter(output)) {
+            TaxBatch taxes = new TaxBatch(16);
+            int simulation = 0;
+            while (reader.next(taxes)) {
+                if (reader.failed()) {
+                    System.err.println("Erro ao processar entrada: simulação " + simulation + " falhou");
+                } else {
+                    writer.writeSimulation(taxes);
+                }
+                simulation++;
+            }
+        }
+    }
+}
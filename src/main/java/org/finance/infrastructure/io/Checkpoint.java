@@ -0,0 +1,190 @@
+package org.finance.infrastructure.io;
+
+import org.finance.domain.entities.PositionKey;
+import org.finance.domain.usecases.CapitalGainsLedger;
+import org.finance.domain.usecases.PositionLedgers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Everything a checkpointed run needs to continue: where to resume in the input, how much
+ * output had been written by then, and the ledger state of every open position.
+ * <p>
+ * File layout (big-endian): magic, version, input offset, output offset, a flag for being
+ * inside a simulation, a flag for that simulation already having results, the position
+ * count and, per position, account and ticker (presence flag + UTF), weighted average price
+ * (scale + unscaled bytes), stock quantity and accumulated loss; a CRC32 of everything
+ * before it closes the file. Positions that are still empty are not stored.
+ */
+final class Checkpoint {
+    private static final int MAGIC = 0x43474350;
+    private static final byte VERSION = 1;
+
+    final long inputOffset;
+    final long outputOffset;
+    final boolean inSimulation;
+    final boolean hasResults;
+    private final List<Position> positions;
+
+    private Checkpoint(long inputOffset, long outputOffset, boolean inSimulation, boolean hasResults,
+                       List<Position> positions) {
+        this.inputOffset = inputOffset;
+        this.outputOffset = outputOffset;
+        this.inSimulation = inSimulation;
+        this.hasResults = hasResults;
+        this.positions = positions;
+    }
+
+    static Checkpoint capture(long inputOffset, long outputOffset, boolean inSimulation, boolean hasResults,
+                              PositionLedgers ledgers) {
+        List<Position> positions = new ArrayList<>();
+        if (ledgers != null) {
+            ledgers.forEach((key, ledger) -> {
+                if (ledger.getStockQuantity() != 0 || ledger.getWeightedAveragePrice().signum() != 0
+                        || ledger.getAccumulatedLoss().signum() != 0) {
+                    positions.add(new Position(key, ledger.getWeightedAveragePrice(), ledger.getStockQuantity(),
+                            ledger.getAccumulatedLoss()));
+                }
+            });
+        }
+        return new Checkpoint(inputOffset, outputOffset, inSimulation, hasResults, positions);
+    }
+
+    void restoreInto(PositionLedgers ledgers) {
+        for (Position position : positions) {
+            CapitalGainsLedger ledger = ledgers.ledgerFor(position.key);
+            ledger.restore(position.weightedAveragePrice, position.stockQuantity, position.accumulatedLoss);
+        }
+    }
+
+    /**
+     * Writes the checkpoint next to {@code file}, forces it to disk and renames it over
+     * {@code file}, so a crash leaves either the previous checkpoint or this one.
+     */
+    void save(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + positions.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(inputOffset);
+            out.writeLong(outputOffset);
+            out.writeBoolean(inSimulation);
+            out.writeBoolean(hasResults);
+            out.writeInt(positions.size());
+            for (Position position : positions) {
+                writeNullable(out, position.key.getAccount());
+                writeNullable(out, position.key.getTicker());
+                writeDecimal(out, position.weightedAveragePrice);
+                out.writeLong(position.stockQuantity);
+                writeDecimal(out, position.accumulatedLoss);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the checkpoint stored in {@code file}, or {@code null} if there is none
+     * @throws IOException if the file exists but is not a valid checkpoint
+     */
+    static Checkpoint load(Path file) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (bytes.length < Integer.BYTES) {
+            throw new IOException("Checkpoint " + file + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            throw new IOException("Checkpoint " + file + " is corrupt");
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a checkpoint file: " + file);
+            }
+            long inputOffset = in.readLong();
+            long outputOffset = in.readLong();
+            boolean inSimulation = in.readBoolean();
+            boolean hasResults = in.readBoolean();
+            int count = in.readInt();
+            List<Position> positions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                PositionKey key = new PositionKey(readNullable(in), readNullable(in));
+                positions.add(new Position(key, readDecimal(in), in.readLong(), readDecimal(in)));
+            }
+            return new Checkpoint(inputOffset, outputOffset, inSimulation, hasResults, positions);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static final class Position {
+        final PositionKey key;
+        final BigDecimal weightedAveragePrice;
+        final long stockQuantity;
+        final BigDecimal accumulatedLoss;
+
+        Position(PositionKey key, BigDecimal weightedAveragePrice, long stockQuantity, BigDecimal accumulatedLoss) {
+            this.key = key;
+            this.weightedAveragePrice = weightedAveragePrice;
+            this.stockQuantity = stockQuantity;
+            this.accumulatedLoss = accumulatedLoss;
+        }
+    }
+}
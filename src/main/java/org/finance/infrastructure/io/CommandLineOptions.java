@@ -0,0 +1,421 @@
+package org.finance.infrastructure.io;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Flags accepted by {@code Main}. Running without arguments keeps the original
+ * line-based behaviour.
+ */
+public class CommandLineOptions {
+    public static final String ENGINE_BIGDECIMAL = "bigdecimal";
+    public static final String ENGINE_FIXED = "fixed";
+    public static final String CODEC_JACKSON = "jackson";
+    public static final String CODEC_FAST = "fast";
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary";
+    public static final long DEFAULT_CHECKPOINT_EVERY = 100_000;
+    public static final String ERRORS_TO_STDERR = "-";
+
+    /**
+     * What a run does. Each mode but {@link #LINE} is selected by its own flag, at most one
+     * per run, and accepts only the options listed for it; an option no mode would use is
+     * rejected rather than ignored.
+     */
+    public enum Mode {
+        /** The original line-based behaviour, selected by giving no mode flag. */
+        LINE(null, null, "--input", "--parallel", "--engine", "--shards", "--segmented", "--prefix-cache",
+                "--codec", "--columnar", "--cache-mb", "--metrics", "--no-jmx", "--journal"),
+        STREAM("--stream", null, "--engine", "--shards", "--codec", "--metrics", "--no-jmx"),
+        SERVE("--serve", null, "--max-request-bytes", "--max-concurrent", "--engine", "--shards", "--segmented",
+                "--prefix-cache", "--codec", "--cache-mb", "--metrics", "--no-jmx"),
+        CHECKPOINT("--checkpoint", "--input", "--checkpoint-every", "--resume", "--engine", "--codec", "--metrics",
+                "--no-jmx"),
+        PIPELINE("--pipeline", null, "--input", "--engine", "--shards", "--segmented", "--prefix-cache", "--codec",
+                "--metrics", "--no-jmx", "--journal"),
+        BINARY("--format binary", null, "--input", "--engine", "--shards", "--prefix-cache", "--metrics",
+                "--no-jmx"),
+        CONVERT("--convert", null, "--codec", "--no-jmx"),
+        BATCH("--batch", "--output-dir", "--parallel", "--engine", "--shards", "--segmented", "--prefix-cache",
+                "--codec", "--columnar", "--cache-mb", "--metrics", "--no-jmx"),
+        SCENARIOS("--scenarios", null, "--input", "--codec", "--metrics", "--no-jmx", "--journal"),
+        VALIDATE("--errors", null, "--input", "--engine", "--shards", "--segmented", "--prefix-cache", "--codec",
+                "--metrics", "--no-jmx", "--journal"),
+        JOURNAL_QUERY("--journal-query", "--journal"),
+        FOLLOW("--follow", null, "--follow-position", "--engine", "--shards", "--segmented", "--prefix-cache",
+                "--codec", "--columnar", "--cache-mb", "--metrics", "--no-jmx", "--journal");
+
+        private final String flag;
+        private final String required;
+        private final Set<String> allowed;
+
+        Mode(String flag, String required, String... allowed) {
+            this.flag = flag;
+            this.required = required;
+            this.allowed = Set.of(allowed);
+        }
+
+        /**
+         * @return the flag that selects this mode, or {@code null} for {@link #LINE}
+         */
+        public String getFlag() {
+            return flag;
+        }
+
+        private boolean accepts(String option) {
+            return option.equals(flag) || option.equals(required) || allowed.contains(option);
+        }
+    }
+
+    // Modificadores que contornam um ao outro, seja qual for o modo
+    private static final String[][] EXCLUSIVE_OPTIONS = {
+            {"--prefix-cache", "--columnar"},
+            {"--prefix-cache", "--shards"},
+            {"--segmented", "--columnar"},
+            {"--segmented", "--shards"},
+            {"--segmented", "--prefix-cache"},
+    };
+
+    private Mode mode = Mode.LINE;
+    private String engine = ENGINE_BIGDECIMAL;
+    private int parallelism = 1;
+    private int shards = 1;
+    private int segmentThreads;
+    private Path inputFile;
+    private String codec = CODEC_JACKSON;
+    private boolean columnar;
+    private int servePort;
+    private Path checkpointFile;
+    private long checkpointEvery = DEFAULT_CHECKPOINT_EVERY;
+    private boolean resume;
+    private int cacheMegabytes;
+    private int prefixCacheBoundaries;
+    private boolean metrics;
+    private boolean jmx = true;
+    private String conversion;
+    private String batchSource;
+    private Path outputDirectory;
+    private Path scenariosFile;
+    private String errorsTarget;
+    private Path journalFile;
+    private long journalQuery;
+    private Path followFile;
+    private Path followPositionFile;
+    private int maxRequestBytes = SimulationHttpServer.DEFAULT_MAX_REQUEST_BYTES;
+    private int maxConcurrentRequests = SimulationHttpServer.DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    public static CommandLineOptions parse(String[] args) {
+        CommandLineOptions options = new CommandLineOptions();
+        Set<String> given = new LinkedHashSet<>();
+        String format = FORMAT_JSON;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--stream" -> { }
+                case "--engine" -> options.engine = oneOf(option, value(args, ++i), ENGINE_BIGDECIMAL, ENGINE_FIXED);
+                case "--parallel" -> options.parallelism = positiveInt(option, value(args, ++i));
+                case "--shards" -> options.shards = positiveInt(option, value(args, ++i));
+                case "--segmented" -> options.segmentThreads = positiveInt(option, value(args, ++i));
+                case "--input" -> options.inputFile = Path.of(value(args, ++i));
+                case "--codec" -> options.codec = oneOf(option, value(args, ++i), CODEC_JACKSON, CODEC_FAST);
+                case "--columnar" -> options.columnar = true;
+                case "--checkpoint" -> options.checkpointFile = Path.of(value(args, ++i));
+                case "--checkpoint-every" -> options.checkpointEvery = positiveLong(option, value(args, ++i));
+                case "--resume" -> options.resume = true;
+                case "--cache-mb" -> options.cacheMegabytes = positiveInt(option, value(args, ++i));
+                case "--prefix-cache" -> options.prefixCacheBoundaries = positiveInt(option, value(args, ++i));
+                case "--metrics" -> options.metrics = true;
+                case "--no-jmx" -> options.jmx = false;
+                case "--pipeline" -> { }
+                case "--batch" -> options.batchSource = value(args, ++i);
+                case "--output-dir" -> options.outputDirectory = Path.of(value(args, ++i));
+                case "--scenarios" -> options.scenariosFile = Path.of(value(args, ++i));
+                case "--errors" -> options.errorsTarget = value(args, ++i);
+                case "--journal" -> options.journalFile = Path.of(value(args, ++i));
+                case "--journal-query" -> options.journalQuery = positiveLong(option, value(args, ++i));
+                case "--follow" -> options.followFile = Path.of(value(args, ++i));
+                case "--follow-position" -> options.followPositionFile = Path.of(value(args, ++i));
+                case "--format" -> format = oneOf(option, value(args, ++i), FORMAT_JSON, FORMAT_BINARY);
+                case "--convert" -> options.conversion = oneOf(option, value(args, ++i),
+                        BinaryFormatConverter.OPERATIONS_TO_BINARY, BinaryFormatConverter.OPERATIONS_TO_JSON,
+                        BinaryFormatConverter.RESULTS_TO_JSON);
+                case "--serve" -> options.servePort = port(option, value(args, ++i));
+                case "--max-request-bytes" -> options.maxRequestBytes = positiveInt(option, value(args, ++i));
+                case "--max-concurrent" -> options.maxConcurrentRequests = positiveInt(option, value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+            // O formato JSON é o padrão; só o binário muda o modo
+            if (!option.equals("--format")) {
+                given.add(option);
+            } else if (FORMAT_BINARY.equals(format)) {
+                given.add(Mode.BINARY.flag);
+            }
+        }
+
+        options.mode = validate(given, options.codec);
+        return options;
+    }
+
+    /**
+     * Checks every option given against the one mode it selects, then the modifiers that
+     * rule each other out.
+     *
+     * @return the selected mode
+     */
+    private static Mode validate(Set<String> given, String codec) {
+        Mode mode = Mode.LINE;
+        for (Mode candidate : Mode.values()) {
+            if (candidate.flag != null && given.contains(candidate.flag)) {
+                if (mode != Mode.LINE) {
+                    throw new IllegalArgumentException(mode.flag + " cannot be combined with " + candidate.flag);
+                }
+                mode = candidate;
+            }
+        }
+        for (String option : given) {
+            if (!mode.accepts(option)) {
+                throw new IllegalArgumentException(mode == Mode.LINE
+                        ? option + " requires " + modesAccepting(option)
+                        : mode.flag + " cannot be combined with " + option);
+            }
+        }
+        if (mode.required != null && !given.contains(mode.required)) {
+            throw new IllegalArgumentException(mode.flag + " requires " + mode.required);
+        }
+
+        if (given.contains("--columnar") && !CODEC_FAST.equals(codec)) {
+            throw new IllegalArgumentException("--columnar requires --codec fast");
+        }
+        for (String[] exclusive : EXCLUSIVE_OPTIONS) {
+            if (given.contains(exclusive[0]) && given.contains(exclusive[1])) {
+                throw new IllegalArgumentException(exclusive[0] + " cannot be combined with " + exclusive[1]);
+            }
+        }
+        return mode;
+    }
+
+    private static String modesAccepting(String option) {
+        StringJoiner modes = new StringJoiner(" or ");
+        for (Mode mode : Mode.values()) {
+            if (mode.flag != null && mode.accepts(option)) {
+                modes.add(mode.flag);
+            }
+        }
+        return modes.toString();
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int positiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    private static long positiveLong(String option, String value) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    private static int port(String option, String value) {
+        int port = positiveInt(option, value);
+        if (port > 65535) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+        return port;
+    }
+
+    private static String oneOf(String option, String value, String... allowed) {
+        for (String candidate : allowed) {
+            if (candidate.equals(value)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return how many single-threaded shards split account/ticker positions; {@code 1} means
+     * the calculation stays on the calling thread
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * @return how many fork/join threads evaluate the segments of a single long history;
+     * {@code 0} means histories are evaluated sequentially
+     */
+    public int getSegmentThreads() {
+        return segmentThreads;
+    }
+
+    public Path getInputFile() {
+        return inputFile;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    /**
+     * @return the port to serve HTTP on, or {@code 0} when not in server mode
+     */
+    public int getServePort() {
+        return servePort;
+    }
+
+    public int getMaxRequestBytes() {
+        return maxRequestBytes;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public long getCheckpointEvery() {
+        return checkpointEvery;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * @return the memory cap of the result cache in megabytes, or {@code 0} for no cache
+     */
+    public int getCacheMegabytes() {
+        return cacheMegabytes;
+    }
+
+    /**
+     * @return how many prefix boundaries the prefix cache keeps, or {@code 0} for no prefix cache
+     */
+    public int getPrefixCacheBoundaries() {
+        return prefixCacheBoundaries;
+    }
+
+    /**
+     * @return whether to print the metrics summary on stderr when the run ends
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return a JSON file of tax rule variants to evaluate every simulation under, or
+     * {@code null} for the standard rules only
+     */
+    public Path getScenariosFile() {
+        return scenariosFile;
+    }
+
+    /**
+     * @return where validating mode writes its error records: a file, {@link #ERRORS_TO_STDERR},
+     * or {@code null} when simulations are not validated
+     */
+    public String getErrorsTarget() {
+        return errorsTarget;
+    }
+
+    /**
+     * @return the result journal to append every simulation to, or to query, or {@code null}
+     */
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * @return the id of the journaled simulation to print instead of processing input, or
+     * {@code 0}
+     */
+    public long getJournalQuery() {
+        return journalQuery;
+    }
+
+    /**
+     * @return the growing file to follow, or {@code null} when not in follow mode
+     */
+    public Path getFollowFile() {
+        return followFile;
+    }
+
+    /**
+     * @return where follow mode keeps its position: the given file, or the followed file's
+     * name with {@code .position} appended
+     */
+    public Path getFollowPositionFile() {
+        if (followPositionFile != null || followFile == null) {
+            return followPositionFile;
+        }
+        return followFile.resolveSibling(followFile.getFileName() + ".position");
+    }
+
+    /**
+     * @return whether to publish the metrics MXBean; registering it starts the platform
+     * MBean server, a noticeable part of startup for short runs
+     */
+    public boolean isJmx() {
+        return jmx;
+    }
+
+    /**
+     * @return the {@link BinaryFormatConverter} conversion to run instead of calculating, or
+     * {@code null}
+     */
+    public String getConversion() {
+        return conversion;
+    }
+
+    /**
+     * @return the directory or glob of input files for batch mode, or {@code null}
+     */
+    public String getBatchSource() {
+        return batchSource;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+}
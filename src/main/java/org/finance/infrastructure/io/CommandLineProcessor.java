@@ -1,75 +1,825 @@
 package org.finance.infrastructure.io;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.finance.application.dto.OperationDTO;
 import org.finance.application.dto.TaxResultDTO;
+import org.finance.application.metrics.ProcessingMetrics;
+import org.finance.application.metrics.ProcessingMetrics.Stage;
 import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxBatch;
+import org.finance.domain.usecases.MultiScenarioCapitalGainsTax;
+import org.finance.domain.usecases.PositionLedgers;
+import org.finance.infrastructure.binary.BinaryFormat;
+import org.finance.infrastructure.binary.BinaryOperationReader;
+import org.finance.infrastructure.binary.BinaryTaxWriter;
 import org.finance.infrastructure.json.JsonParser;
+import org.finance.infrastructure.json.OperationStreamReader;
+import org.finance.infrastructure.json.TaxResultStreamWriter;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CommandLineProcessor {
+    private static final int REORDER_WINDOW_PER_THREAD = 4;
+
     private final JsonParser jsonParser;
     private final TaxCalculationService taxCalculationService;
+    private final boolean columnar;
+    private final SimulationResultCache resultCache;
+    private final ProcessingMetrics metrics;
+    private final JournalRecorder journal;
 
     public CommandLineProcessor(JsonParser jsonParser, TaxCalculationService taxCalculationService) {
+        this(jsonParser, taxCalculationService, false);
+    }
+
+    public CommandLineProcessor(JsonParser jsonParser, TaxCalculationService taxCalculationService, boolean columnar) {
+        this(jsonParser, taxCalculationService, columnar, null);
+    }
+
+    /**
+     * @param columnar decode each simulation into an {@link OperationBatch} and calculate it
+     *                 without DTOs; simulations the batch cannot represent go through the DTO path
+     * @param resultCache if not {@code null}, serialized results are looked up by input before
+     *                    anything is parsed; misses are calculated through the DTO path
+     */
+    public CommandLineProcessor(JsonParser jsonParser, TaxCalculationService taxCalculationService, boolean columnar,
+                                SimulationResultCache resultCache) {
+        this(jsonParser, taxCalculationService, columnar, resultCache, null);
+    }
+
+    /**
+     * @param journal if not {@code null}, every simulation's output line, or its error, is also
+     *                appended to the journal in input order. Applies to the line, parallel,
+     *                pipelined, file and scenario modes, and to {@link ValidatingProcessor}
+     *                and {@link FollowProcessor}.
+     */
+    public CommandLineProcessor(JsonParser jsonParser, TaxCalculationService taxCalculationService, boolean columnar,
+                                SimulationResultCache resultCache, ResultJournal journal) {
         this.jsonParser = jsonParser;
         this.taxCalculationService = taxCalculationService;
+        this.columnar = columnar;
+        this.resultCache = resultCache;
+        this.metrics = taxCalculationService.getMetrics();
+        this.journal = journal != null ? new JournalRecorder(journal, jsonParser) : null;
+    }
+
+    JsonParser getJsonParser() {
+        return jsonParser;
+    }
+
+    TaxCalculationService getTaxCalculationService() {
+        return taxCalculationService;
+    }
+
+    ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return a result writer whose output is counted in the metrics
+     */
+    TaxResultStreamWriter openWriter(OutputStream output) throws IOException {
+        return jsonParser.openTaxResultWriter(new MeteredOutputStream(output, metrics));
     }
 
     public void process() {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            StringBuilder jsonBuilder = new StringBuilder();
-            String line;
+        process(System.in, System.out);
+    }
+
+    public void process(InputStream input, OutputStream output) {
+        process(input, output, new SimulationCounts());
+    }
+
+    /**
+     * Same as {@link #process(InputStream, OutputStream)}, tallying into {@code counts}.
+     */
+    void process(InputStream input, OutputStream output, SimulationCounts counts) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+             TaxResultStreamWriter writer = openWriter(output)) {
+            SimulationFramer framer = new SimulationFramer(reader);
+            String jsonInput;
+
+            while ((jsonInput = frame(framer)) != null) {
+                counts.simulations++;
+                try {
+                    SimulationOutput taxResults = calculate(jsonInput);
+
+                    // Imprima os resultados
+                    write(writer, taxResults);
+                } catch (Exception e) {
+                    counts.failures++;
+                    printError(e);
+                }
+
+                // Não segure a saída enquanto esperamos por mais entrada
+                if (!framer.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            counts.ioFailure = e;
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    public void processParallel(int threads) {
+        processParallel(System.in, System.out, threads);
+    }
+
+    /**
+     * Parallel mode: complete simulations are framed on the calling thread, then parsed and
+     * calculated on {@code threads} workers. A bounded reorder window keeps the output in
+     * input order; results are serialized by the calling thread.
+     */
+    public void processParallel(InputStream input, OutputStream output, int threads) {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+             TaxResultStreamWriter writer = openWriter(output)) {
+            OrderedTaskRunner<SimulationOutput> runner = new OrderedTaskRunner<>(
+                    workers, threads * REORDER_WINDOW_PER_THREAD, results -> write(writer, results), this::printError);
+            SimulationFramer framer = new SimulationFramer(reader);
+            String jsonInput;
+
+            while ((jsonInput = frame(framer)) != null) {
+                String simulation = jsonInput;
+                runner.submit(() -> calculate(simulation));
+            }
+            runner.finish();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    public static final int DEFAULT_PIPELINE_CAPACITY = 64;
+
+    public void processPipelined(int capacity) {
+        processPipelined(System.in, System.out, capacity);
+    }
+
+    public void processPipelined(Path file, int capacity) {
+        InputStream input;
+        try {
+            input = Files.newInputStream(file);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+            return;
+        }
+        processPipelined(input, System.out, capacity);
+    }
+
+    /**
+     * Pipelined mode: framing, parsing and calculation each run on their own thread and
+     * serialization runs on the calling thread, connected by {@link SpscRingBuffer}s of
+     * {@code capacity} simulations. Reading input and writing output overlap with the
+     * calculation while the output stays in input order; a slow stage fills the buffer in
+     * front of it and stalls the ones upstream. Queue depths are recorded in the metrics at the end.
+     */
+    public void processPipelined(InputStream input, OutputStream output, int capacity) {
+        SpscRingBuffer<String> framed = new SpscRingBuffer<>("frame->parse", capacity);
+        SpscRingBuffer<ParsedSimulation> parsed = new SpscRingBuffer<>("parse->calculate", capacity);
+        SpscRingBuffer<SimulationOutput> calculated = new SpscRingBuffer<>("calculate->write", capacity);
+        IOException[] readFailure = new IOException[1];
+
+        Thread reader = startStage("pipeline-reader", framed, () -> {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(input))) {
+                SimulationFramer framer = new SimulationFramer(lines);
+                String json;
+                while ((json = frame(framer)) != null) {
+                    framed.put(json);
+                }
+            } catch (IOException e) {
+                readFailure[0] = e;
+            }
+        });
+        Thread parser = startStage("pipeline-parser", parsed, () -> {
+            String json;
+            while ((json = framed.take()) != null) {
+                try {
+                    parsed.put(new ParsedSimulation(parse(json), null));
+                } catch (RuntimeException e) {
+                    parsed.put(new ParsedSimulation(null, e));
+                }
+            }
+        });
+        Thread calculator = startStage("pipeline-calculator", calculated, () -> {
+            ParsedSimulation simulation;
+            while ((simulation = parsed.take()) != null) {
+                RuntimeException failure = simulation.failure;
+                if (failure == null) {
+                    try {
+                        List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(simulation.operations);
+                        calculated.put(writer -> writer.writeSimulation(taxResults));
+                        continue;
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                calculated.put(new FailedSimulation(failure));
+            }
+        });
 
-            while ((line = reader.readLine()) != null) {
-                // Se linha vazia, pare
-                if (line.trim().isEmpty()) {
+        boolean drained = false;
+        try (TaxResultStreamWriter writer = openWriter(output)) {
+            while (true) {
+                // Não segure a saída enquanto o próximo resultado não está pronto
+                if (calculated.isEmpty()) {
+                    writer.flush();
+                }
+                SimulationOutput taxResults = calculated.take();
+                if (taxResults == null) {
+                    drained = true;
                     break;
                 }
+                if (taxResults instanceof FailedSimulation failed) {
+                    printError(failed.failure);
+                    continue;
+                }
+                try {
+                    write(writer, taxResults);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao escrever saída: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!drained) {
+            // Saída falhou: pare os estágios; o leitor pode estar bloqueado lendo e é daemon
+            reader.interrupt();
+            parser.interrupt();
+            calculator.interrupt();
+            return;
+        }
+        joinQuietly(reader, parser, calculator);
+        if (readFailure[0] != null) {
+            System.err.println("Erro ao ler entrada: " + readFailure[0].getMessage());
+        }
+        metrics.recordPipelineQueues(framed.summary() + "; " + parsed.summary() + "; " + calculated.summary());
+    }
+
+    /**
+     * Runs {@code body} on a daemon thread and closes {@code output} when it ends, however it ends.
+     */
+    private static Thread startStage(String name, SpscRingBuffer<?> output, StageBody body) {
+        return Thread.ofPlatform().name(name).daemon().start(() -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                // the writer stopped early; nothing downstream is waiting for us
+            } finally {
+                output.close();
+            }
+        });
+    }
+
+    private static void joinQuietly(Thread... threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void processBinary() {
+        processBinary(System.in, System.out);
+    }
+
+    public void processBinary(Path file) {
+        InputStream input;
+        try {
+            input = Files.newInputStream(file);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+            return;
+        }
+        processBinary(input, System.out);
+    }
+
+    /**
+     * Binary mode: reads {@link BinaryFormat} operations straight into an {@link OperationBatch}
+     * and writes binary results, so no text is tokenized in either direction. Every input
+     * simulation gets exactly one result entry; one that fails to decode or calculate gets a
+     * failure marker and its error on stderr. Amounts that overflow {@code long} cents are
+     * recalculated through the DTO path.
+     */
+    public void processBinary(InputStream input, OutputStream output) {
+        try (BinaryOperationReader reader = new BinaryOperationReader(input);
+             BinaryTaxWriter writer = new BinaryTaxWriter(new MeteredOutputStream(output, metrics))) {
+            OperationBatch operations = new OperationBatch();
+
+            while (true) {
+                long start = System.nanoTime();
+                try {
+                    if (!reader.next(operations)) {
+                        break;
+                    }
+                    metrics.addBytesIn(BinaryOperationReader.simulationBytes(operations.size()));
+                } catch (IllegalArgumentException e) {
+                    metrics.countParseError();
+                    writer.writeFailure();
+                    printError(e);
+                    continue;
+                } finally {
+                    metrics.record(Stage.PARSE, start);
+                }
+
+                try {
+                    calculateBinary(operations, writer);
+                } catch (RuntimeException e) {
+                    writer.writeFailure();
+                    printError(e);
+                }
+
+                // Não segure a saída enquanto esperamos por mais entrada
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    private void calculateBinary(OperationBatch operations, BinaryTaxWriter writer) throws IOException {
+        TaxBatch taxes;
+        try {
+            taxes = taxCalculationService.calculateTaxes(operations);
+        } catch (ArithmeticException e) {
+            // Valores grandes demais para centavos em long: refaça pelo caminho de DTOs
+            List<OperationDTO> dtos = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                dtos.add(new OperationDTO(operations.type(i) == OperationType.BUY ? "buy" : "sell",
+                        BigDecimal.valueOf(operations.unitCostCents(i), 2), operations.quantity(i)));
+            }
+            List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(dtos);
+            long start = System.nanoTime();
+            writer.writeSimulation(taxResults);
+            metrics.record(Stage.SERIALIZE, start);
+            return;
+        }
+        long start = System.nanoTime();
+        writer.writeSimulation(taxes);
+        metrics.record(Stage.SERIALIZE, start);
+    }
+
+    public void processScenarios(MultiScenarioCapitalGainsTax scenarios) {
+        processScenarios(System.in, System.out, scenarios);
+    }
+
+    public void processScenarios(Path file, MultiScenarioCapitalGainsTax scenarios) {
+        InputStream input;
+        try {
+            input = Files.newInputStream(file);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+            return;
+        }
+        processScenarios(input, System.out, scenarios);
+    }
+
+    /**
+     * Scenario mode: each simulation is parsed once and evaluated under every scenario in a
+     * single pass; its output line is an object with one result array per scenario name.
+     */
+    public void processScenarios(InputStream input, OutputStream output, MultiScenarioCapitalGainsTax scenarios) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+             TaxResultStreamWriter writer = openWriter(output)) {
+            SimulationFramer framer = new SimulationFramer(reader);
+            String jsonInput;
+
+            while ((jsonInput = frame(framer)) != null) {
+                try {
+                    TaxBatch[] taxes = taxCalculationService.calculateScenarios(scenarios, parse(jsonInput));
+                    write(writer, out -> out.writeScenarios(scenarios.getScenarios(), taxes));
+                } catch (Exception e) {
+                    printError(e);
+                }
+
+                // Não segure a saída enquanto esperamos por mais entrada
+                if (!framer.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    public void processFile(Path file, int threads) {
+        processFile(file, System.out, threads);
+    }
+
+    /**
+     * File mode: the file is memory-mapped, simulation boundaries are found by scanning the
+     * raw bytes and each simulation is parsed in place by one of {@code threads} workers.
+     * Output stays in input order.
+     */
+    public void processFile(Path file, OutputStream output, int threads) {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try (MappedSimulationReader reader = new MappedSimulationReader(file);
+             TaxResultStreamWriter writer = openWriter(output)) {
+            OrderedTaskRunner<SimulationOutput> runner = new OrderedTaskRunner<>(
+                    workers, threads * REORDER_WINDOW_PER_THREAD, results -> write(writer, results), this::printError);
+            ByteBuffer simulation;
+
+            while ((simulation = frame(reader)) != null) {
+                ByteBuffer bytes = simulation;
+                runner.submit(() -> calculate(bytes));
+            }
+            runner.finish();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private String frame(SimulationFramer framer) throws IOException {
+        long start = System.nanoTime();
+        String json = framer.next();
+        if (json != null) {
+            metrics.record(Stage.FRAMING, start);
+        }
+        metrics.addBytesIn(framer.bytes());
+        return json;
+    }
+
+    private ByteBuffer frame(MappedSimulationReader reader) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer json = reader.next();
+        if (json != null) {
+            metrics.record(Stage.FRAMING, start);
+            metrics.addBytesIn(json.remaining());
+        }
+        return json;
+    }
+
+    private SimulationOutput calculate(String json) {
+        if (columnar || resultCache != null) {
+            return calculate(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        }
+        List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(parse(json));
+        return writer -> writer.writeSimulation(taxResults);
+    }
+
+    SimulationOutput calculate(ByteBuffer json) {
+        if (resultCache != null) {
+            String serialized = resultCache.computeIfAbsent(json, bytes -> {
+                List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(parse(bytes));
+                return new SimulationResultCache.Entry(serialize(taxResults), taxResults.size());
+            }, metrics::countSimulation);
+            return writer -> writer.writeSerializedSimulation(serialized);
+        }
+        if (columnar) {
+            OperationBatch operations = new OperationBatch();
+            if (parse(json, operations)) {
+                try {
+                    TaxBatch taxes = taxCalculationService.calculateTaxes(operations);
+                    return writer -> writer.writeSimulation(taxes);
+                } catch (ArithmeticException e) {
+                    // Valores grandes demais para centavos em long: refaça pelo caminho de DTOs
+                }
+            }
+        }
+        List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(parse(json));
+        return writer -> writer.writeSimulation(taxResults);
+    }
+
+    private List<OperationDTO> parse(String json) {
+        long start = System.nanoTime();
+        try {
+            return jsonParser.parseOperations(json);
+        } catch (RuntimeException e) {
+            metrics.countParseError();
+            throw e;
+        } finally {
+            metrics.record(Stage.PARSE, start);
+        }
+    }
+
+    private List<OperationDTO> parse(ByteBuffer json) {
+        long start = System.nanoTime();
+        try {
+            return jsonParser.parseOperations(json);
+        } catch (RuntimeException e) {
+            metrics.countParseError();
+            throw e;
+        } finally {
+            metrics.record(Stage.PARSE, start);
+        }
+    }
+
+    private boolean parse(ByteBuffer json, OperationBatch operations) {
+        long start = System.nanoTime();
+        try {
+            return jsonParser.parseOperations(json, operations);
+        } catch (RuntimeException e) {
+            metrics.countParseError();
+            throw e;
+        } finally {
+            metrics.record(Stage.PARSE, start);
+        }
+    }
+
+    private String serialize(List<TaxResultDTO> taxResults) {
+        long start = System.nanoTime();
+        String serialized = jsonParser.serializeTaxResults(taxResults);
+        metrics.record(Stage.SERIALIZE, start);
+        return serialized;
+    }
 
-                // Adicione a linha ao construtor de JSON
-                jsonBuilder.append(line);
+    /**
+     * Serializes on the calling thread. The time includes pushing the buffer out when it
+     * fills up, which {@link MeteredOutputStream} also reports as {@link Stage#WRITE}.
+     */
+    void write(TaxResultStreamWriter writer, SimulationOutput taxResults) {
+        long start = System.nanoTime();
+        try {
+            taxResults.writeTo(writer);
+            if (journal != null) {
+                journal.record(taxResults);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            metrics.record(Stage.SERIALIZE, start);
+        }
+    }
+
+    void recordFailure(String message) {
+        if (journal != null) {
+            journal.recordFailure(message);
+        }
+    }
 
-                // Verifique se o JSON está completo
-                if (isJsonComplete(jsonBuilder.toString())) {
+    /**
+     * Token-stream modes fail with the parser's exception, possibly wrapped by the lazy
+     * operation iterator; anything else is a calculation or output error.
+     */
+    private void countIfParseError(Exception e) {
+        if (e instanceof JsonProcessingException || e.getCause() instanceof JsonProcessingException) {
+            metrics.countParseError();
+        }
+    }
+
+    void printError(Throwable e) {
+        System.err.println("Erro ao processar entrada: " + e.getMessage());
+        recordFailure(e.getMessage());
+    }
+
+    public void processStreaming() {
+        processStreaming(System.in, System.out);
+    }
+
+    /**
+     * Streaming mode: operations are decoded from the token stream one object at a time
+     * and each {@code {"tax":...}} element is written as soon as it is calculated, so memory
+     * stays flat no matter how large a simulation array is. Whitespace and line breaks
+     * carry no meaning here; input is consumed until end of stream.
+     * <p>
+     * A simulation that fails to calculate, an unknown operation type included, is reported
+     * and the rest of its array is skipped; the taxes already written for it stay, closed
+     * into a valid array, and the next simulation is processed as usual. Only malformed
+     * input ends the stream, since there is no boundary to resynchronize at.
+     */
+    public void processStreaming(InputStream input, OutputStream output) {
+        try (OperationStreamReader reader = jsonParser.openOperationReader(input);
+             TaxResultStreamWriter writer = openWriter(output)) {
+            try {
+                while (reader.nextSimulation()) {
+                    writer.startSimulation();
                     try {
+                        taxCalculationService.calculateTaxes(reader.operations(), writer::write);
+                    } catch (RuntimeException e) {
+                        if (e instanceof UncheckedIOException) {
+                            throw e;
+                        }
+                        // O fluxo de tokens continua válido: descarte o resto do array e siga
+                        printError(e);
+                        reader.skipSimulation();
+                    }
+                    writer.endSimulation();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Feche o array parcial para manter a saída válida; o fluxo não pode ser ressincronizado
+                writer.endSimulation();
+                countIfParseError(e);
+                printError(e);
+            } finally {
+                metrics.addBytesIn(reader.offset());
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    public void processCheckpointed(Path file, Path checkpointFile, long checkpointEvery, boolean resume) {
+        FileChannel stdout = new FileOutputStream(FileDescriptor.out).getChannel();
+        processCheckpointed(file, checkpointFile, checkpointEvery, resume, System.out, stdout);
+    }
+
+    /**
+     * Checkpointed mode for very long feeds: the file is read as a token stream like in
+     * {@link #processStreaming(InputStream, OutputStream)}, and every {@code checkpointEvery}
+     * operations the output is flushed and a {@link Checkpoint} with the ledger state, the
+     * input offset and the output length is stored atomically in {@code checkpointFile}.
+     * <p>
+     * With {@code resume}, processing restarts from the stored offset and state instead of
+     * the first operation. If {@code outputChannel} is a file holding the earlier output, it is
+     * truncated to the checkpointed length first, so results after the checkpoint are not
+     * repeated; otherwise that length is reported on stderr.
+     */
+    public void processCheckpointed(Path file, Path checkpointFile, long checkpointEvery, boolean resume,
+                                    OutputStream output, FileChannel outputChannel) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Checkpoint restored = resume ? Checkpoint.load(checkpointFile) : null;
+            long base = 0;
+            InputStream input = new BufferedInputStream(Channels.newInputStream(channel));
+            int prefix = 0;
+
+            if (restored != null) {
+                if (restored.inputOffset > channel.size()) {
+                    throw new IOException("Checkpoint offset " + restored.inputOffset + " is past the end of " + file);
+                }
+                rewindOutput(outputChannel, restored.outputOffset);
+                channel.position(restored.inputOffset);
+                base = restored.inputOffset;
+                if (restored.inSimulation) {
+                    // Retome no meio do array: pule a vírgula e reabra o array para o parser
+                    base += skipSeparator(input);
+                    input = new SequenceInputStream(new ByteArrayInputStream(new byte[]{'['}), input);
+                    prefix = 1;
+                }
+            }
+
+            CountingOutputStream counted = new CountingOutputStream(new MeteredOutputStream(output, metrics),
+                    restored != null ? restored.outputOffset : 0);
+            try (OperationStreamReader reader = jsonParser.openOperationReader(input);
+                 TaxResultStreamWriter writer = jsonParser.openTaxResultWriter(counted)) {
+                try {
+                    boolean resumeInSimulation = restored != null && restored.inSimulation;
+                    long sinceCheckpoint = 0;
 
-                        String jsonInput = jsonBuilder.toString();
-                        List<OperationDTO> operations = jsonParser.parseOperations(jsonInput);
-                        List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(operations);
-
-                        // Imprima os resultados
-                        String resultJson = jsonParser.serializeTaxResults(taxResults);
-                        // Adicionar uma nova linha para separar as saídas
-                        System.out.println();
-                        System.out.print(resultJson);
-
-                        // Limpe o construtor para a próxima entrada
-                        jsonBuilder.setLength(0);
-                    } catch (Exception e) {
-                        System.err.println("Erro ao processar entrada: " + e.getMessage());
-                        jsonBuilder.setLength(0);
+                    while (reader.nextSimulation()) {
+                        metrics.countSimulation(0);
+                        PositionLedgers positions = taxCalculationService.newPositions();
+                        boolean hasResults = false;
+                        if (resumeInSimulation) {
+                            restored.restoreInto(positions);
+                            hasResults = restored.hasResults;
+                            writer.resumeSimulation(hasResults);
+                            resumeInSimulation = false;
+                        } else {
+                            writer.startSimulation();
+                        }
+
+                        OperationDTO operation;
+                        while ((operation = reader.nextOperation()) != null) {
+                            writer.write(taxCalculationService.calculateTax(positions, operation));
+                            hasResults = true;
+                            if (++sinceCheckpoint >= checkpointEvery) {
+                                writer.flush();
+                                Checkpoint.capture(base + reader.offset() - prefix, counted.count(), true, true, positions)
+                                        .save(checkpointFile);
+                                sinceCheckpoint = 0;
+                            }
+                        }
+                        writer.endSimulation();
                     }
+
+                    writer.flush();
+                    Checkpoint.capture(base + reader.offset() - prefix, counted.count(), false, false, null)
+                            .save(checkpointFile);
+                } catch (IOException | RuntimeException e) {
+                    writer.endSimulation();
+                    countIfParseError(e);
+                    printError(e);
+                } finally {
+                    metrics.addBytesIn(reader.offset() - prefix);
                 }
             }
         } catch (IOException e) {
             System.err.println("Erro ao ler entrada: " + e.getMessage());
         }
     }
-    private boolean isJsonComplete(String json) {
-        int openBrackets = 0;
-        int openBraces = 0;
 
-        for (char c : json.toCharArray()) {
-            if (c == '[') openBrackets++;
-            if (c == ']') openBrackets--;
-            if (c == '{') openBraces++;
-            if (c == '}') openBraces--;
+    /**
+     * Consumes whitespace and at most one {@code ','} at the start of {@code input}.
+     *
+     * @return how many bytes were consumed
+     */
+    private static int skipSeparator(InputStream input) throws IOException {
+        int consumed = 0;
+        while (true) {
+            input.mark(1);
+            int b = input.read();
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                consumed++;
+            } else if (b == ',') {
+                return consumed + 1;
+            } else {
+                input.reset();
+                return consumed;
+            }
         }
+    }
+
+    private static void rewindOutput(FileChannel outputChannel, long length) throws IOException {
+        if (outputChannel != null) {
+            try {
+                if (outputChannel.size() >= length) {
+                    outputChannel.truncate(length);
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not a regular file; fall back to reporting the length
+            }
+        }
+        System.err.println("Retomando checkpoint: a saída anterior é válida até o byte " + length);
+    }
+
+    @FunctionalInterface
+    private interface StageBody {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * A simulation that could not be parsed or calculated, kept in the output queue so its
+     * error is reported in input order.
+     */
+    private static final class FailedSimulation implements SimulationOutput {
+        final RuntimeException failure;
+
+        FailedSimulation(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void writeTo(TaxResultStreamWriter writer) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Either the operations of a simulation or the reason they could not be parsed.
+     */
+    private static final class ParsedSimulation {
+        final List<OperationDTO> operations;
+        final RuntimeException failure;
+
+        ParsedSimulation(List<OperationDTO> operations, RuntimeException failure) {
+            this.operations = operations;
+            this.failure = failure;
+        }
+    }
 
-        return openBrackets == 0 && openBraces == 0 && json.contains("]");
+    /**
+     * A calculated simulation waiting to be serialized, either as DTOs or as a {@link TaxBatch}.
+     */
+    @FunctionalInterface
+    interface SimulationOutput {
+        void writeTo(TaxResultStreamWriter writer) throws IOException;
     }
-}
\ No newline at end of file
+}
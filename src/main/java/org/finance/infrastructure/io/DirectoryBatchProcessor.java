@@ -0,0 +1,204 @@
+package org.finance.infrastructure.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Batch mode: processes every file of a directory, or every file matching a glob, in one
+ * JVM. Files run concurrently on a fixed pool, each through the regular line-based
+ * {@link CommandLineProcessor#process(InputStream, OutputStream)}.
+ * <p>
+ * Each result goes to {@code outputDirectory} under the input's path relative to the
+ * directory being scanned. It is written to a temporary file, forced to disk and renamed
+ * into place, so a result file is either complete or absent. A file whose input cannot be
+ * read or whose output cannot be written is reported as failed and leaves no result;
+ * simulations that fail inside a file are reported on stderr as usual and counted.
+ * One report line per file and a total are printed on {@code report}.
+ */
+public class DirectoryBatchProcessor {
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final CommandLineProcessor processor;
+    private final int threads;
+    private final PrintStream report;
+
+    public DirectoryBatchProcessor(CommandLineProcessor processor, int threads, PrintStream report) {
+        this.processor = processor;
+        this.threads = threads;
+        this.report = report;
+    }
+
+    /**
+     * @param source a directory, whose regular non-hidden files are all processed, or a glob
+     *               such as {@code in/*.json} or {@code in/**}{@code /input.json}
+     * @return how many files failed
+     */
+    public int process(String source, Path outputDirectory) {
+        long start = System.nanoTime();
+        Path base;
+        List<Path> files;
+        try {
+            base = baseDirectory(source);
+            files = find(source, base);
+            Files.createDirectories(outputDirectory);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+            return 1;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<FileResult>> results = new ArrayList<>(files.size());
+        for (Path file : files) {
+            Path target = outputDirectory.resolve(base.relativize(file).toString());
+            results.add(workers.submit(() -> processFile(file, target)));
+        }
+
+        int failed = 0;
+        long simulations = 0;
+        try {
+            // Relate na ordem de entrada, à medida que cada arquivo termina
+            for (Future<FileResult> result : results) {
+                FileResult file = result.get();
+                report.println(file);
+                simulations += file.counts.simulations;
+                if (file.failure != null) {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        report.println("Batch: " + files.size() + " files, " + failed + " failed, " + simulations + " simulations, "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return failed;
+    }
+
+    private FileResult processFile(Path file, Path target) {
+        long start = System.nanoTime();
+        SimulationCounts counts = new SimulationCounts();
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+            try (InputStream input = Files.newInputStream(file);
+                 FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream output = Channels.newOutputStream(channel);
+                processor.process(input, output, counts);
+                if (counts.ioFailure != null) {
+                    throw counts.ioFailure;
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new FileResult(file, target, counts, null, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // a falha original é o que importa
+                }
+            }
+            return new FileResult(file, target, counts, e, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The directory itself, or for a glob the deepest directory before the first wildcard.
+     */
+    static Path baseDirectory(String source) {
+        Path path = Path.of(source);
+        if (Files.isDirectory(path)) {
+            return path;
+        }
+        int wildcard = -1;
+        for (int i = 0; i < source.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(source.charAt(i)) >= 0) {
+                wildcard = i;
+                break;
+            }
+        }
+        if (wildcard < 0) {
+            // Um único arquivo
+            return path.getParent() != null ? path.getParent() : Path.of("");
+        }
+        int separator = source.lastIndexOf('/', wildcard);
+        return Path.of(separator < 0 ? "" : source.substring(0, separator + 1));
+    }
+
+    private static List<Path> find(String source, Path base) throws IOException {
+        Path path = Path.of(source);
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> entries = Files.list(path)) {
+                return entries
+                        .filter(Files::isRegularFile)
+                        .filter(file -> !file.getFileName().toString().startsWith("."))
+                        .sorted()
+                        .toList();
+            }
+        }
+        if (Files.isRegularFile(path)) {
+            return List.of(path);
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + source);
+        Path root = base.toString().isEmpty() ? Path.of(".") : base;
+        try (Stream<Path> entries = Files.walk(root)) {
+            return entries
+                    .filter(Files::isRegularFile)
+                    .map(file -> base.toString().isEmpty() ? root.relativize(file) : file)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static final class FileResult {
+        final Path input;
+        final Path output;
+        final SimulationCounts counts;
+        final Exception failure;
+        final long nanos;
+
+        FileResult(Path input, Path output, SimulationCounts counts, Exception failure, long nanos) {
+            this.input = input;
+            this.output = output;
+            this.counts = counts;
+            this.failure = failure;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            String timing = TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+            if (failure != null) {
+                return input + ": FAILED after " + timing + " (" + failure.getMessage() + ")";
+            }
+            return input + " -> " + output + ": " + counts.simulations + " simulations, " + counts.failures
+                    + " failed, " + timing;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.finance.infrastructure.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the complete simulations appended to a file that keeps growing. Only bytes past
+ * the last read are fetched, in chunks of bounded size; boundaries are found by
+ * {@link SimulationBoundaryScanner}, and a simulation still being written stays pending
+ * until its closing bracket arrives. If the file becomes shorter than what was consumed,
+ * it was truncated, and reading starts over from its first byte. If the path now names a
+ * different file (another {@link BasicFileAttributes#fileKey() file key}), e.g. because a
+ * writer rotated it by renaming a new file into place, the old file is read to its end and
+ * the new one is then opened and read from its first byte; a simulation left incomplete at
+ * the end of the old file is dropped. Where the file system has no file keys, only
+ * truncation is detected.
+ * <p>
+ * {@link #awaitChange} sleeps on a {@link WatchService} for the file's directory, which
+ * wakes up as soon as the file is modified where the platform supports it, with a timeout
+ * as a polling fallback.
+ */
+final class FileTail implements Closeable {
+    static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    /**
+     * How many bytes before a position {@link #checksumBefore} covers.
+     */
+    static final int CHECKSUM_LENGTH = 256;
+
+    private final Path file;
+    private FileChannel channel;
+    private Object fileKey;
+    private final SimulationBoundaryScanner scanner = new SimulationBoundaryScanner();
+    private final int chunkSize;
+    private WatchService watcher;
+    private byte[] buffer;
+    private long bufferStart;
+    private int limit;
+    private int cursor;
+    private int scanned;
+
+    FileTail(Path file, long position) throws IOException {
+        this(file, position, DEFAULT_CHUNK_SIZE);
+    }
+
+    FileTail(Path file, long position, int chunkSize) throws IOException {
+        this.file = file;
+        // Chave antes de abrir: se o arquivo for trocado no meio, a próxima verificação reabre
+        this.fileKey = fileKey(file);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[chunkSize];
+        this.bufferStart = position;
+    }
+
+    /**
+     * @return the next complete simulation, or {@code null} if none has been appended yet.
+     * The buffer is reused by the next call.
+     */
+    ByteBuffer next() throws IOException {
+        while (true) {
+            int end = scanner.findEnd(ByteBuffer.wrap(buffer), scanned, limit);
+            if (end >= 0) {
+                int start = scanner.completedStart();
+                scanned = end;
+                cursor = end;
+                return ByteBuffer.wrap(buffer, start, end - start).slice();
+            }
+            scanned = limit;
+            if (!fill()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return the file offset just past the last simulation returned
+     */
+    long position() {
+        return bufferStart + cursor;
+    }
+
+    /**
+     * Blocks until the file's directory reports a change or {@code timeoutMillis} pass.
+     */
+    void awaitChange(long timeoutMillis) throws IOException, InterruptedException {
+        if (watcher == null) {
+            Path directory = file.toAbsolutePath().getParent();
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        }
+        WatchKey key = watcher.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (key != null) {
+            // Qualquer evento só significa "olhe o tamanho de novo"
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    /**
+     * @return a CRC32 of the up to {@value #CHECKSUM_LENGTH} bytes before {@code position},
+     * which tells whether the file still starts with what was processed before it
+     */
+    static long checksumBefore(FileChannel channel, long position) throws IOException {
+        long from = Math.max(0, position - CHECKSUM_LENGTH);
+        ByteBuffer bytes = ByteBuffer.allocate((int) (position - from));
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, from + bytes.position()) < 0) {
+                return -1;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.flip());
+        return crc.getValue();
+    }
+
+    long checksumBefore(long position) throws IOException {
+        return checksumBefore(channel, position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (watcher != null) {
+                watcher.close();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads appended bytes after the pending ones.
+     *
+     * @return {@code false} if nothing new has been appended
+     */
+    private boolean fill() throws IOException {
+        long size = channel.size();
+        if (size < bufferStart + cursor) {
+            System.err.println("Arquivo " + file + " encolheu; recomeçando do início");
+            restart();
+        }
+        long readEnd = bufferStart + limit;
+        if (size <= readEnd) {
+            if (!reopenIfReplaced()) {
+                return false;
+            }
+            size = channel.size();
+            readEnd = 0;
+            if (size == 0) {
+                return false;
+            }
+        }
+
+        if (cursor > 0) {
+            // Descarte o que já foi consumido e reexamine a simulação pendente desde o início
+            System.arraycopy(buffer, cursor, buffer, 0, limit - cursor);
+            bufferStart += cursor;
+            limit -= cursor;
+            cursor = 0;
+            scanned = 0;
+            scanner.reset();
+        }
+        if (limit == buffer.length) {
+            // Uma única simulação maior que o buffer
+            byte[] grown = new byte[buffer.length + chunkSize];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+
+        int length = (int) Math.min(buffer.length - limit, size - readEnd);
+        ByteBuffer target = ByteBuffer.wrap(buffer, limit, length);
+        while (target.hasRemaining()) {
+            if (channel.read(target, bufferStart + target.position()) < 0) {
+                break;
+            }
+        }
+        limit = target.position();
+        return true;
+    }
+
+    /**
+     * Called once the current file has nothing more to read, so nothing written to it before
+     * the replacement is lost.
+     *
+     * @return {@code true} if the path names another file, which is now open from its start
+     */
+    private boolean reopenIfReplaced() throws IOException {
+        Object current;
+        try {
+            current = fileKey(file);
+        } catch (NoSuchFileException e) {
+            // No meio de uma rotação; o novo arquivo ainda vai aparecer
+            return false;
+        }
+        if (current == null || current.equals(fileKey)) {
+            return false;
+        }
+        FileChannel replacement;
+        try {
+            replacement = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        channel.close();
+        channel = replacement;
+        fileKey = current;
+        System.err.println("Arquivo " + file + " foi substituído; recomeçando do início");
+        restart();
+        return true;
+    }
+
+    private void restart() {
+        bufferStart = 0;
+        limit = 0;
+        cursor = 0;
+        scanned = 0;
+        scanner.reset();
+    }
+
+    private static Object fileKey(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+}
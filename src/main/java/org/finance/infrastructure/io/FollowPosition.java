@@ -0,0 +1,88 @@
+package org.finance.infrastructure.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * How far follow mode has processed a file: the offset just past the last simulation whose
+ * output was flushed, and a checksum of the bytes before it (see
+ * {@link FileTail#checksumBefore}) to recognise a file that was replaced in the meantime.
+ * <p>
+ * File layout (big-endian): magic, version, offset, checksum, and a CRC32 of everything
+ * before it. Saved like {@link Checkpoint}: written aside, forced and renamed into place.
+ */
+final class FollowPosition {
+    private static final int MAGIC = 0x4347464f;
+    private static final byte VERSION = 1;
+
+    final long offset;
+    final long checksum;
+
+    FollowPosition(long offset, long checksum) {
+        this.offset = offset;
+        this.checksum = checksum;
+    }
+
+    void save(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(offset);
+            out.writeLong(checksum);
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the position stored in {@code file}, or {@code null} if there is none
+     * @throws IOException if the file exists but is not a valid position
+     */
+    static FollowPosition load(Path file) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (bytes.length < Integer.BYTES) {
+            throw new IOException("Follow position " + file + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            throw new IOException("Follow position " + file + " is corrupt");
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a follow position file: " + file);
+            }
+            return new FollowPosition(in.readLong(), in.readLong());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.metrics.ProcessingMetrics;
+import org.finance.application.metrics.ProcessingMetrics.Stage;
+import org.finance.infrastructure.json.TaxResultStreamWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Follow mode: processes the complete simulations appended to a file as they arrive,
+ * each through the regular {@link CommandLineProcessor} calculation. New bytes are detected
+ * through {@link FileTail#awaitChange}, so only appended data is read and parsed.
+ * <p>
+ * After each burst of input, and every {@value #SAVE_EVERY} simulations while catching up,
+ * the output is flushed and the offset after the last processed simulation is saved to the
+ * position file. A restart continues from there unless the file no longer holds the same
+ * bytes before that offset, in which case it starts over. A crash between flushing and
+ * saving repeats at most the simulations since the last save.
+ */
+public class FollowProcessor {
+    static final long POLL_MILLIS = 200;
+    static final int SAVE_EVERY = 10_000;
+
+    private final CommandLineProcessor processor;
+    private final ProcessingMetrics metrics;
+
+    public FollowProcessor(CommandLineProcessor processor) {
+        this.processor = processor;
+        this.metrics = processor.getMetrics();
+    }
+
+    /**
+     * Follows {@code file} until {@code stopped} returns {@code true}.
+     *
+     * @param positionFile where the offset after the last processed simulation is kept
+     */
+    public void follow(Path file, Path positionFile, OutputStream output, BooleanSupplier stopped) {
+        try (FileTail tail = new FileTail(file, resumePosition(file, positionFile));
+             TaxResultStreamWriter writer = processor.openWriter(output)) {
+            int unsaved = 0;
+            while (!stopped.getAsBoolean()) {
+                ByteBuffer simulation;
+                while (!stopped.getAsBoolean() && (simulation = frame(tail)) != null) {
+                    CommandLineProcessor.SimulationOutput taxResults = null;
+                    try {
+                        taxResults = processor.calculate(simulation);
+                    } catch (RuntimeException e) {
+                        processor.printError(e);
+                    }
+                    if (taxResults != null) {
+                        processor.write(writer, taxResults);
+                    }
+                    if (++unsaved >= SAVE_EVERY) {
+                        savePosition(tail, writer, positionFile);
+                        unsaved = 0;
+                    }
+                }
+                if (unsaved > 0) {
+                    savePosition(tail, writer, positionFile);
+                    unsaved = 0;
+                }
+                tail.awaitChange(POLL_MILLIS);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long resumePosition(Path file, Path positionFile) throws IOException {
+        FollowPosition saved = FollowPosition.load(positionFile);
+        if (saved == null) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (saved.offset <= channel.size() && FileTail.checksumBefore(channel, saved.offset) == saved.checksum) {
+                return saved.offset;
+            }
+        }
+        System.err.println("Arquivo " + file + " mudou desde a última posição salva; recomeçando do início");
+        return 0;
+    }
+
+    private static void savePosition(FileTail tail, TaxResultStreamWriter writer, Path positionFile) throws IOException {
+        // A saída precisa chegar antes da posição: no pior caso, repetimos resultados, nunca os perdemos
+        writer.flush();
+        long position = tail.position();
+        new FollowPosition(position, tail.checksumBefore(position)).save(positionFile);
+    }
+
+    private ByteBuffer frame(FileTail tail) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer json = tail.next();
+        if (json != null) {
+            metrics.record(Stage.FRAMING, start);
+            metrics.addBytesIn(json.remaining());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,67 @@
+package org.finance.infrastructure.io;
+
+import org.finance.infrastructure.json.JsonParser;
+import org.finance.infrastructure.json.TaxResultStreamWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Feeds a {@link ResultJournal} as simulations are printed: each simulation is serialized
+ * once more into a private buffer, so every output shape reaches the journal as the same
+ * bytes that were printed, and a failed simulation is recorded with its error message.
+ * <p>
+ * A journal that cannot be written would only drift out of step with the input, so it is
+ * dropped for the rest of the run; the output itself carries on. Not thread-safe: record
+ * from the thread that writes the output, in input order.
+ */
+final class JournalRecorder {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final JsonParser jsonParser;
+    private ResultJournal journal;
+    private ByteArrayOutputStream buffer;
+    private TaxResultStreamWriter writer;
+
+    JournalRecorder(ResultJournal journal, JsonParser jsonParser) {
+        this.journal = journal;
+        this.jsonParser = jsonParser;
+    }
+
+    void record(CommandLineProcessor.SimulationOutput taxResults) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                buffer = new ByteArrayOutputStream();
+                writer = jsonParser.openTaxResultWriter(buffer, BUFFER_SIZE, Long.MAX_VALUE);
+            }
+            buffer.reset();
+            taxResults.writeTo(writer);
+            writer.flush();
+            // Cada simulação começa com o separador de linha; o journal guarda só a linha
+            byte[] line = buffer.toByteArray();
+            int separator = System.lineSeparator().length();
+            journal.append(line, separator, line.length - separator);
+        } catch (IOException e) {
+            stop(e);
+        }
+    }
+
+    void recordFailure(String message) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendFailure(message);
+        } catch (IOException e) {
+            stop(e);
+        }
+    }
+
+    private void stop(IOException e) {
+        System.err.println("Erro ao escrever journal: " + e.getMessage());
+        journal = null;
+    }
+}
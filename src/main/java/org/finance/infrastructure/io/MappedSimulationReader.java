@@ -0,0 +1,99 @@
+package org.finance.infrastructure.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Walks a file through memory-mapped windows and hands out each simulation as a
+ * read-only slice of the mapping, so no bytes are copied or decoded on the way.
+ * A simulation that straddles a window boundary is re-mapped from its first byte;
+ * the window grows when a single simulation does not fit in it.
+ * <p>
+ * Like stdin, the input ends at the first blank line; anything after it is ignored.
+ */
+final class MappedSimulationReader implements Closeable {
+    static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final SimulationBoundaryScanner scanner = new SimulationBoundaryScanner(true);
+    private int windowSize;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private int cursor;
+
+    MappedSimulationReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedSimulationReader(Path file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @return the next simulation, or {@code null} at end of file or at the first blank
+     * line. A trailing simulation that never closes is still returned so the parser can
+     * report it.
+     */
+    ByteBuffer next() throws IOException {
+        while (true) {
+            if (window == null) {
+                if (windowStart >= size) {
+                    return null;
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(windowSize, size - windowStart));
+                cursor = 0;
+                scanner.reset();
+            }
+
+            int end = scanner.findEnd(window, cursor, window.limit());
+            if (end >= 0) {
+                int start = scanner.completedStart();
+                cursor = end;
+                return window.slice(start, end - start).asReadOnlyBuffer();
+            }
+            if (scanner.blankLineSeen()) {
+                window = null;
+                windowStart = size;
+                return null;
+            }
+
+            int pendingStart = scanner.pendingStart();
+            int limit = window.limit();
+
+            if (windowStart + limit >= size) {
+                // End of file: hand out whatever is left unterminated
+                ByteBuffer trailing = pendingStart >= 0 ? window.slice(pendingStart, limit - pendingStart).asReadOnlyBuffer() : null;
+                window = null;
+                windowStart = size;
+                if (trailing != null) {
+                    return trailing;
+                }
+                continue;
+            }
+
+            if (pendingStart == 0) {
+                // The simulation alone fills the window
+                if (windowSize == Integer.MAX_VALUE) {
+                    throw new IOException("Simulation at byte " + windowStart + " is larger than 2 GB");
+                }
+                windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+            }
+            windowStart += pendingStart >= 0 ? pendingStart : limit;
+            window = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
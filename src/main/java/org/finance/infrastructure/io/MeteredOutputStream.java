@@ -0,0 +1,44 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.metrics.ProcessingMetrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes that reach the underlying stream and times every write and flush as
+ * {@link ProcessingMetrics.Stage#WRITE}. Meant to sit below the writer's buffer, so it is
+ * called once per buffer rather than once per result.
+ */
+final class MeteredOutputStream extends FilterOutputStream {
+    private final ProcessingMetrics metrics;
+
+    MeteredOutputStream(OutputStream out, ProcessingMetrics metrics) {
+        super(out);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        long start = System.nanoTime();
+        out.write(b);
+        metrics.record(ProcessingMetrics.Stage.WRITE, start);
+        metrics.addBytesOut(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        out.write(b, off, len);
+        metrics.record(ProcessingMetrics.Stage.WRITE, start);
+        metrics.addBytesOut(len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        out.flush();
+        metrics.record(ProcessingMetrics.Stage.WRITE, start);
+    }
+}
@@ -0,0 +1,63 @@
+package org.finance.infrastructure.io;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs tasks on an executor while delivering their results in submission order.
+ * At most {@code window} tasks are in flight; once the window is full, submitting
+ * blocks on the oldest task, which bounds both memory and how far workers can run
+ * ahead of the consumer.
+ * <p>
+ * Must be driven from a single thread.
+ */
+class OrderedTaskRunner<T> {
+    private final ExecutorService executor;
+    private final int window;
+    private final Consumer<T> resultHandler;
+    private final Consumer<Throwable> errorHandler;
+    private final ArrayDeque<Future<T>> pending;
+
+    OrderedTaskRunner(ExecutorService executor, int window, Consumer<T> resultHandler, Consumer<Throwable> errorHandler) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least 1");
+        }
+        this.executor = executor;
+        this.window = window;
+        this.resultHandler = resultHandler;
+        this.errorHandler = errorHandler;
+        this.pending = new ArrayDeque<>(window);
+    }
+
+    void submit(Callable<T> task) throws InterruptedException {
+        while (pending.size() >= window) {
+            completeOldest();
+        }
+        pending.addLast(executor.submit(task));
+    }
+
+    /**
+     * Waits for every outstanding task and delivers the remaining results in order.
+     */
+    void finish() throws InterruptedException {
+        while (!pending.isEmpty()) {
+            completeOldest();
+        }
+    }
+
+    private void completeOldest() throws InterruptedException {
+        Future<T> oldest = pending.removeFirst();
+        T result;
+        try {
+            result = oldest.get();
+        } catch (ExecutionException e) {
+            errorHandler.accept(e.getCause());
+            return;
+        }
+        resultHandler.accept(result);
+    }
+}
@@ -0,0 +1,279 @@
+package org.finance.infrastructure.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only record of every simulation's output, so a single simulation can be looked
+ * up later without reprocessing its batch. Simulations get consecutive ids from 1 for the
+ * lifetime of the journal; a run that reopens it continues the numbering.
+ * <p>
+ * Two files, both written through memory-mapped windows: the data file holds the records
+ * back to back, each the output line of a simulation or, for a failed one, its error
+ * message; the index file ({@code <journal>.idx}) holds a fixed-size entry per id (data
+ * offset, length, failure flag), so {@link #read(Path, long)} finds a record with one index
+ * read and one data read. Both start with a 16-byte header (big-endian): magic, version and,
+ * in the index, the number of committed entries. An entry is committed after its record
+ * and index entry are in place; anything past the last committed entry, e.g. after a crash,
+ * is overwritten by the next run. Not thread-safe.
+ */
+public final class ResultJournal implements Closeable {
+    private static final int DATA_MAGIC = 0x43474a44;
+    private static final int INDEX_MAGIC = 0x43474a49;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final int ENTRY_SIZE = 16;
+    private static final int FAILURE = 1;
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final MappedAppender data;
+    private final MappedAppender index;
+    private final MappedByteBuffer indexHeader;
+    private final long firstId;
+    private long count;
+
+    public ResultJournal(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    ResultJournal(Path file, int windowSize) throws IOException {
+        FileChannel dataChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileChannel indexChannel;
+        try {
+            indexChannel = FileChannel.open(indexFile(file), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            dataChannel.close();
+            throw e;
+        }
+
+        try {
+            boolean created = dataChannel.size() == 0;
+            if (created != (indexChannel.size() == 0)) {
+                throw new IOException("Journal " + file + " has no matching index");
+            }
+            indexHeader = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                ByteBuffer header = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                header.putInt(0, DATA_MAGIC).put(4, VERSION);
+                indexHeader.putInt(0, INDEX_MAGIC).put(4, VERSION).putLong(COUNT_OFFSET, 0);
+            } else {
+                checkHeader(dataChannel, DATA_MAGIC, file);
+                checkHeader(indexChannel, INDEX_MAGIC, file);
+            }
+
+            count = indexHeader.getLong(COUNT_OFFSET);
+            firstId = count + 1;
+            long dataEnd = HEADER_SIZE;
+            if (count > 0) {
+                ByteBuffer last = readEntry(indexChannel, count);
+                dataEnd = last.getLong(0) + last.getInt(8);
+            }
+            data = new MappedAppender(dataChannel, dataEnd, windowSize);
+            index = new MappedAppender(indexChannel, HEADER_SIZE + count * ENTRY_SIZE, windowSize);
+        } catch (IOException | RuntimeException e) {
+            dataChannel.close();
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records the output line of the next simulation, without its line separator.
+     *
+     * @return the simulation's id
+     */
+    public long append(byte[] line, int offset, int length) throws IOException {
+        return commit(line, offset, length, 0);
+    }
+
+    /**
+     * Records that the next simulation failed, and why.
+     *
+     * @return the simulation's id
+     */
+    public long appendFailure(String message) throws IOException {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        return commit(bytes, 0, bytes.length, FAILURE);
+    }
+
+    /**
+     * @return the id of the first simulation recorded by this run; ids up to the current
+     * count were written by it
+     */
+    public long getFirstId() {
+        return firstId;
+    }
+
+    /**
+     * @return how many simulations the journal holds
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public String summary() {
+        long written = count - firstId + 1;
+        return "Journal: " + written + " simulations" + (written > 0 ? ", ids " + firstId + ".." + count : "")
+                + ", " + count + " in total";
+    }
+
+    /**
+     * Looks up one simulation without scanning: the id locates its index entry, which
+     * locates its record.
+     *
+     * @return the record, or {@code null} if the journal has no simulation with that id
+     */
+    public static Record read(Path file, long id) throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(indexFile(file), StandardOpenOption.READ);
+             FileChannel dataChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkHeader(dataChannel, DATA_MAGIC, file);
+            ByteBuffer header = checkHeader(indexChannel, INDEX_MAGIC, file);
+            if (id < 1 || id > header.getLong(COUNT_OFFSET)) {
+                return null;
+            }
+            ByteBuffer entry = readEntry(indexChannel, id);
+            ByteBuffer payload = ByteBuffer.allocate(entry.getInt(8));
+            readFully(dataChannel, payload, entry.getLong(0));
+            return new Record(id, (entry.getInt(12) & FAILURE) != 0,
+                    new String(payload.array(), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Forces both files to disk and trims them to what was committed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+            index.close();
+            indexHeader.force();
+        } finally {
+            data.channel.close();
+            index.channel.close();
+        }
+    }
+
+    private long commit(byte[] bytes, int offset, int length, int flags) throws IOException {
+        long dataOffset = data.end;
+        data.append(ByteBuffer.wrap(bytes, offset, length));
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).putLong(dataOffset).putInt(length).putInt(flags).flip();
+        index.append(entry);
+        // Só agora a entrada passa a valer
+        indexHeader.putLong(COUNT_OFFSET, ++count);
+        return count;
+    }
+
+    private static Path indexFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    private static ByteBuffer checkHeader(FileChannel channel, int magic, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() < HEADER_SIZE) {
+            throw new IOException("Not a journal: " + file);
+        }
+        readFully(channel, header, 0);
+        if (header.getInt(0) != magic || header.get(4) != VERSION) {
+            throw new IOException("Not a journal: " + file);
+        }
+        return header;
+    }
+
+    private static ByteBuffer readEntry(FileChannel indexChannel, long id) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        readFully(indexChannel, entry, HEADER_SIZE + (id - 1) * ENTRY_SIZE);
+        return entry;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Journal is truncated");
+            }
+        }
+    }
+
+    /**
+     * One simulation as recorded: its output line, or the error it failed with.
+     */
+    public static final class Record {
+        private final long id;
+        private final boolean failure;
+        private final String content;
+
+        Record(long id, boolean failure, String content) {
+            this.id = id;
+            this.failure = failure;
+            this.content = content;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public boolean isFailure() {
+            return failure;
+        }
+
+        /**
+         * @return the output line, or the error message of a failed simulation
+         */
+        public String getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Appends through a read-write mapping of the file region after {@code end}. The mapping
+     * extends the file; a record that does not fit the rest of the window gets a new window
+     * starting at the record, at least as large as the record.
+     */
+    private static final class MappedAppender {
+        final FileChannel channel;
+        final int windowSize;
+        long end;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedAppender(FileChannel channel, long end, int windowSize) {
+            this.channel = channel;
+            this.end = end;
+            this.windowSize = windowSize;
+        }
+
+        void append(ByteBuffer bytes) throws IOException {
+            int length = bytes.remaining();
+            if (window == null || end + length > windowStart + window.capacity()) {
+                if (window != null) {
+                    window.force();
+                }
+                windowStart = end;
+                window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(windowSize, length));
+            }
+            window.put((int) (end - windowStart), bytes, bytes.position(), length);
+            end += length;
+        }
+
+        void close() throws IOException {
+            if (window != null) {
+                window.force();
+                window = null;
+            }
+            // O mapeamento estendeu o arquivo além do último registro
+            channel.truncate(end);
+        }
+    }
+}
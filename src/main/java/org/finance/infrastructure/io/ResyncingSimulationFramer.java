@@ -0,0 +1,213 @@
+package org.finance.infrastructure.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Byte-level counterpart of {@link SimulationFramer} for the validating mode. Simulations
+ * are framed on line ends, like {@link SimulationFramer}, but their bytes are handed out
+ * untouched, line separators included, so an offset into a simulation maps back to an
+ * offset in the input.
+ * <p>
+ * Malformed input must not swallow the simulations after it. Brackets inside string
+ * literals are ignored, and a string never continues past its line. A line that starts
+ * with {@code '['} while a simulation is still open ends that simulation and starts the
+ * next one; the schema has no nested arrays, so such a line can only be a new simulation.
+ * An unfinished simulation at the end of input is still returned so it can be reported.
+ */
+final class ResyncingSimulationFramer {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final InputStream input;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkPosition;
+    private int chunkLimit;
+    private boolean endOfInput;
+
+    private byte[] simulation = new byte[CHUNK_SIZE];
+    private int length;
+    private int carryFrom = -1;
+    private long position;
+    private long start;
+
+    private int openBrackets;
+    private int openBraces;
+    private boolean closingBracketSeen;
+
+    ResyncingSimulationFramer(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * @return the next simulation, or {@code null} at end of input or at the first blank
+     * line. The buffer is reused by the next call.
+     */
+    ByteBuffer next() throws IOException {
+        openBrackets = 0;
+        openBraces = 0;
+        closingBracketSeen = false;
+
+        if (carryFrom >= 0) {
+            // A linha que reabriu a sincronização começa a próxima simulação
+            start += carryFrom;
+            length -= carryFrom;
+            System.arraycopy(simulation, carryFrom, simulation, 0, length);
+            carryFrom = -1;
+            count(0, length);
+            if (isComplete()) {
+                return ByteBuffer.wrap(simulation, 0, length);
+            }
+        } else {
+            length = 0;
+            start = position;
+        }
+
+        while (true) {
+            int lineStart = length;
+            if (!readLine()) {
+                return lineStart > 0 ? ByteBuffer.wrap(simulation, 0, lineStart) : null;
+            }
+
+            // Se linha vazia, pare
+            if (isBlank(lineStart, length)) {
+                endOfInput = true;
+                chunkPosition = chunkLimit;
+                return lineStart > 0 ? ByteBuffer.wrap(simulation, 0, lineStart) : null;
+            }
+
+            if (lineStart > 0 && firstNonWhitespace(lineStart, length) == '[') {
+                carryFrom = lineStart;
+                return ByteBuffer.wrap(simulation, 0, lineStart);
+            }
+
+            count(lineStart, length);
+            if (isComplete()) {
+                return ByteBuffer.wrap(simulation, 0, length);
+            }
+        }
+    }
+
+    /**
+     * @return the input offset of the first byte of the simulation returned last
+     */
+    long simulationStart() {
+        return start;
+    }
+
+    /**
+     * @return whether more input can be read without blocking
+     */
+    boolean ready() throws IOException {
+        return carryFrom >= 0 || chunkPosition < chunkLimit || (!endOfInput && input.available() > 0);
+    }
+
+    /**
+     * Appends the next line, separator included, to the simulation.
+     *
+     * @return {@code false} at end of input, when there was nothing left to append
+     */
+    private boolean readLine() throws IOException {
+        boolean appended = false;
+        while (true) {
+            if (chunkPosition == chunkLimit) {
+                if (endOfInput) {
+                    return appended;
+                }
+                int read = input.read(chunk);
+                if (read < 0) {
+                    endOfInput = true;
+                    return appended;
+                }
+                chunkPosition = 0;
+                chunkLimit = read;
+            }
+
+            int end = chunkPosition;
+            while (end < chunkLimit && chunk[end] != '\n') {
+                end++;
+            }
+            boolean lineEnds = end < chunkLimit;
+            if (lineEnds) {
+                end++;
+            }
+            append(chunkPosition, end);
+            position += end - chunkPosition;
+            chunkPosition = end;
+            appended = true;
+            if (lineEnds) {
+                return true;
+            }
+        }
+    }
+
+    private void append(int from, int to) {
+        int count = to - from;
+        if (length + count > simulation.length) {
+            byte[] grown = new byte[Math.max(simulation.length * 2, length + count)];
+            System.arraycopy(simulation, 0, grown, 0, length);
+            simulation = grown;
+        }
+        System.arraycopy(chunk, from, simulation, length, count);
+        length += count;
+    }
+
+    private void count(int from, int to) {
+        boolean inString = false;
+        boolean escaped = false;
+        for (int i = from; i < to; i++) {
+            byte b = simulation[i];
+            if (b == '\n') {
+                // Strings JSON não atravessam linhas
+                inString = false;
+                escaped = false;
+            } else if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else {
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '[' -> openBrackets++;
+                    case ']' -> {
+                        openBrackets--;
+                        closingBracketSeen = true;
+                    }
+                    case '{' -> openBraces++;
+                    case '}' -> openBraces--;
+                    default -> {
+                        // qualquer outro byte faz parte da simulação
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Extra closing brackets also end the simulation; the validator reports them.
+     */
+    private boolean isComplete() {
+        return closingBracketSeen && openBrackets <= 0 && openBraces <= 0;
+    }
+
+    private boolean isBlank(int from, int to) {
+        return firstNonWhitespace(from, to) < 0;
+    }
+
+    /**
+     * @return the first byte that is not whitespace, or {@code -1} if there is none
+     */
+    private int firstNonWhitespace(int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = simulation[i];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return b & 0xFF;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,150 @@
+package org.finance.infrastructure.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds simulation boundaries in raw UTF-8 bytes without decoding them. A simulation
+ * starts at the first non-whitespace byte and ends when the bracket/brace nesting it
+ * opened returns to zero; brackets inside string literals are ignored.
+ * <p>
+ * The scanner is incremental: state carries over between calls, so a simulation may
+ * be fed in several pieces as long as indexes refer to the same buffer.
+ * <p>
+ * Created with {@code stopAtBlankLine}, the scanner also tracks lines the way
+ * {@link SimulationFramer} reads stdin: a line holding only whitespace ends the input,
+ * even in the middle of a simulation. Lines end at {@code \n}, {@code \r} or
+ * {@code \r\n}, and string literals do not hide them.
+ */
+final class SimulationBoundaryScanner {
+    private final boolean stopAtBlankLine;
+    private boolean lineBlank = true;
+    private boolean afterCarriageReturn;
+    private boolean blankLineSeen;
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private int start = -1;
+    private int completedStart = -1;
+
+    SimulationBoundaryScanner() {
+        this(false);
+    }
+
+    SimulationBoundaryScanner(boolean stopAtBlankLine) {
+        this.stopAtBlankLine = stopAtBlankLine;
+    }
+
+    /**
+     * Scans {@code buffer} from {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @return the index just past the first simulation that completes in that range,
+     * or {@code -1} if none does or a blank line ends the input first
+     */
+    int findEnd(ByteBuffer buffer, int from, int to) {
+        if (blankLineSeen) {
+            return -1;
+        }
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+
+            if (stopAtBlankLine && endsBlankLine(b)) {
+                blankLineSeen = true;
+                return -1;
+            }
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            if (start < 0) {
+                if (isWhitespace(b)) {
+                    continue;
+                }
+                start = i;
+            }
+
+            switch (b) {
+                case '"' -> inString = true;
+                case '[', '{' -> depth++;
+                case ']', '}' -> {
+                    if (--depth <= 0) {
+                        completedStart = start;
+                        depth = 0;
+                        start = -1;
+                        return i + 1;
+                    }
+                }
+                default -> {
+                    // any other byte is part of the current simulation
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return where the simulation returned by the last successful {@link #findEnd} began
+     */
+    int completedStart() {
+        return completedStart;
+    }
+
+    /**
+     * @return where the simulation currently being scanned began, or {@code -1} if the
+     * scanner is between simulations
+     */
+    int pendingStart() {
+        return start;
+    }
+
+    /**
+     * @return whether a blank line ended the input; always {@code false} unless created
+     * with {@code stopAtBlankLine}
+     */
+    boolean blankLineSeen() {
+        return blankLineSeen;
+    }
+
+    /**
+     * Forgets the simulation being scanned, to rescan from its first byte or skip past it.
+     * Line state is kept, so a blank line is still found across the two scans.
+     */
+    void reset() {
+        depth = 0;
+        inString = false;
+        escaped = false;
+        start = -1;
+        completedStart = -1;
+    }
+
+    private boolean endsBlankLine(byte b) {
+        if (b == '\n' && afterCarriageReturn) {
+            // Segunda metade de \r\n: a linha já terminou no \r
+            afterCarriageReturn = false;
+            return false;
+        }
+        afterCarriageReturn = b == '\r';
+        if (b == '\n' || b == '\r') {
+            boolean blank = lineBlank;
+            lineBlank = true;
+            return blank;
+        }
+        // Mesma regra do SimulationFramer: qualquer caractere até o espaço é branco
+        if ((b & 0xff) > ' ') {
+            lineBlank = false;
+        }
+        return false;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -0,0 +1,16 @@
+package org.finance.infrastructure.io;
+
+import java.io.IOException;
+
+/**
+ * What one run of {@link CommandLineProcessor} went through, for callers that report per
+ * input rather than per process.
+ */
+final class SimulationCounts {
+    int simulations;
+    int failures;
+    /**
+     * Set if reading the input or writing the output failed, which ends the run early.
+     */
+    IOException ioFailure;
+}
@@ -0,0 +1,157 @@
+package org.finance.infrastructure.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Splits line-oriented input into complete simulations (one JSON array each),
+ * which may span several lines. Brackets are counted incrementally as lines
+ * arrive, so framing stays linear in the size of the input.
+ * <p>
+ * Lines are split here rather than by {@link BufferedReader#readLine()}, so the framer
+ * knows each line's terminator and can report the UTF-8 bytes it consumed.
+ */
+class SimulationFramer {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final BufferedReader reader;
+    private final StringBuilder jsonBuilder = new StringBuilder();
+    private final StringBuilder line = new StringBuilder();
+    private final char[] chars = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+    private long bytes;
+
+    SimulationFramer(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the next complete simulation, or {@code null} at end of input or at the
+     * first blank line
+     */
+    String next() throws IOException {
+        int openBrackets = 0;
+        int openBraces = 0;
+        boolean closingBracketSeen = false;
+
+        bytes = 0;
+        jsonBuilder.setLength(0);
+        while (readLine()) {
+            // Se linha vazia, pare
+            if (isBlank(line)) {
+                return null;
+            }
+
+            // Adicione a linha ao construtor de JSON
+            jsonBuilder.append(line);
+
+            // Conte apenas os caracteres da nova linha, sem reler o buffer inteiro
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '[') openBrackets++;
+                if (c == ']') {
+                    openBrackets--;
+                    closingBracketSeen = true;
+                }
+                if (c == '{') openBraces++;
+                if (c == '}') openBraces--;
+                bytes += utf8Length(c);
+            }
+
+            // Verifique se o JSON está completo
+            if (openBrackets == 0 && openBraces == 0 && closingBracketSeen) {
+                return jsonBuilder.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the UTF-8 bytes consumed by the last {@link #next()}, line terminators included,
+     * even if it returned {@code null}
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return whether another line can be read without blocking
+     */
+    boolean ready() throws IOException {
+        return position < limit || reader.ready();
+    }
+
+    /**
+     * Reads the next line into {@link #line}, without its terminator ({@code \n}, {@code \r}
+     * or {@code \r\n}, as {@link BufferedReader#readLine()} accepts).
+     *
+     * @return {@code false} at end of input
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        while (true) {
+            if (position == limit) {
+                int read = reader.read(chars, 0, chars.length);
+                position = 0;
+                limit = Math.max(read, 0);
+                if (read < 0) {
+                    return line.length() > 0;
+                }
+                continue;
+            }
+            if (skipLineFeed) {
+                // O \n de um \r\n pode chegar no próximo bloco lido
+                skipLineFeed = false;
+                if (chars[position] == '\n') {
+                    position++;
+                    bytes++;
+                    continue;
+                }
+            }
+
+            int start = position;
+            while (position < limit && chars[position] != '\n' && chars[position] != '\r') {
+                position++;
+            }
+            line.append(chars, start, position - start);
+            if (position < limit) {
+                boolean carriageReturn = chars[position] == '\r';
+                position++;
+                bytes++;
+                if (carriageReturn && position < limit) {
+                    if (chars[position] == '\n') {
+                        position++;
+                        bytes++;
+                    }
+                } else {
+                    skipLineFeed = carriageReturn;
+                }
+                return true;
+            }
+        }
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A surrogate pair encodes as four bytes; they are split evenly between its two halves.
+     */
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800) {
+            return 2;
+        }
+        return Character.isSurrogate(c) ? 2 : 3;
+    }
+}
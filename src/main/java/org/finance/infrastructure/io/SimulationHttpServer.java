@@ -0,0 +1,188 @@
+package org.finance.infrastructure.io;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.finance.application.dto.TaxResultDTO;
+import org.finance.application.services.TaxCalculationService;
+import org.finance.infrastructure.json.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Long-running HTTP mode, so a single warm JVM serves many batches. {@code POST /simulations}
+ * accepts the same input as stdin (one or more JSON arrays) and answers with one tax array
+ * per simulation, each followed by a line break.
+ * <p>
+ * Every exchange runs on its own virtual thread. Responses always carry a
+ * {@code Content-Length}, so connections are kept alive between requests. Bodies larger than
+ * {@code maxRequestBytes} are refused with 413, and requests beyond
+ * {@code maxConcurrentRequests} in flight are refused with 503 rather than queued.
+ */
+public class SimulationHttpServer {
+    public static final String PATH = "/simulations";
+    public static final int DEFAULT_MAX_REQUEST_BYTES = 1 << 20;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 1024;
+
+    private static final byte[] LINE_BREAK = {'\n'};
+
+    private final JsonParser jsonParser;
+    private final TaxCalculationService taxCalculationService;
+    private final SimulationResultCache resultCache;
+    private final int maxRequestBytes;
+    private final Semaphore permits;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SimulationHttpServer(JsonParser jsonParser, TaxCalculationService taxCalculationService, int port,
+                                int maxRequestBytes, int maxConcurrentRequests) throws IOException {
+        this(jsonParser, taxCalculationService, null, port, maxRequestBytes, maxConcurrentRequests);
+    }
+
+    /**
+     * @param resultCache if not {@code null}, consulted for every simulation of every request
+     */
+    public SimulationHttpServer(JsonParser jsonParser, TaxCalculationService taxCalculationService,
+                                SimulationResultCache resultCache, int port, int maxRequestBytes,
+                                int maxConcurrentRequests) throws IOException {
+        this.jsonParser = jsonParser;
+        this.taxCalculationService = taxCalculationService;
+        this.resultCache = resultCache;
+        this.maxRequestBytes = maxRequestBytes;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting connections and waits up to {@code delaySeconds} for exchanges in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!PATH.equals(exchange.getRequestURI().getPath())) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Too many concurrent requests");
+                return;
+            }
+            try {
+                byte[] body = readBody(exchange);
+                if (body == null) {
+                    sendError(exchange, 413, "Request body exceeds " + maxRequestBytes + " bytes");
+                    return;
+                }
+
+                byte[] response;
+                try {
+                    response = calculate(ByteBuffer.wrap(body));
+                } catch (RuntimeException e) {
+                    sendError(exchange, 400, e.getMessage());
+                    return;
+                }
+                send(exchange, 200, response);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @return the whole body, or {@code null} if it is larger than {@code maxRequestBytes}
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength) > maxRequestBytes) {
+                    return null;
+                }
+            } catch (NumberFormatException ignored) {
+                // chunked or malformed header; the limit is enforced while reading
+            }
+        }
+
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(maxRequestBytes + 1);
+            return bytes.length > maxRequestBytes ? null : bytes;
+        }
+    }
+
+    private byte[] calculate(ByteBuffer body) {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        SimulationBoundaryScanner scanner = new SimulationBoundaryScanner();
+        int cursor = 0;
+
+        while (cursor < body.limit()) {
+            int end = scanner.findEnd(body, cursor, body.limit());
+            int start;
+            if (end >= 0) {
+                start = scanner.completedStart();
+            } else if (scanner.pendingStart() >= 0) {
+                // Unterminated trailing simulation: let the parser report it
+                start = scanner.pendingStart();
+                end = body.limit();
+            } else {
+                break;
+            }
+
+            ByteBuffer simulation = body.slice(start, end - start);
+            String taxResults = resultCache != null
+                    ? resultCache.computeIfAbsent(simulation, this::calculateSimulation,
+                            taxCalculationService.getMetrics()::countSimulation)
+                    : calculateSimulation(simulation).getSerialized();
+            response.writeBytes(taxResults.getBytes(StandardCharsets.UTF_8));
+            response.writeBytes(LINE_BREAK);
+            cursor = end;
+        }
+        return response.toByteArray();
+    }
+
+    private SimulationResultCache.Entry calculateSimulation(ByteBuffer simulation) {
+        List<TaxResultDTO> taxResults = taxCalculationService.calculateTaxes(jsonParser.parseOperations(simulation));
+        return new SimulationResultCache.Entry(jsonParser.serializeTaxResults(taxResults), taxResults.size());
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        String quoted = new String(JsonStringEncoder.getInstance().quoteAsString(String.valueOf(message)));
+        send(exchange, status, ("{\"error\":\"" + quoted + "\"}\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+    }
+}
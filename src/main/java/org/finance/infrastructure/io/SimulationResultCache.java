@@ -0,0 +1,210 @@
+package org.finance.infrastructure.io;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Bounded LRU cache from a simulation's input to its serialized tax array, so repeated
+ * simulations (retries, reconciliation jobs, template portfolios) skip parsing, calculation
+ * and serialization altogether.
+ * <p>
+ * Inputs are keyed by their normalized bytes: whitespace outside string literals is
+ * ignored next to brackets, braces, colons and commas, so the same simulation formatted
+ * differently still hits; anywhere else it is kept as one space, so {@code 1 0} stays a
+ * parse error instead of hitting {@code 10}. A hit requires those
+ * bytes to be equal, not just their hash, so a simulation crafted to collide with another
+ * one cannot be served its results; the hash is seeded per process so collisions cannot be
+ * precomputed to degrade the table either. Values are the serialized JSON, kept as Latin-1
+ * strings (one byte per char). The cache holds at most {@code maxBytes} of estimated entry
+ * size, normalized input included, and evicts the least recently used entries beyond that.
+ * Safe for concurrent use; two threads missing on the same input may both compute it.
+ */
+public class SimulationResultCache {
+    /**
+     * Rough per-entry cost on top of the key and value bytes: object and array headers and
+     * the map entry.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SimulationResultCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached output for {@code json}, or computes, stores and returns it. Nothing
+     * is stored if {@code compute} throws.
+     *
+     * @param onHit receives the operation count of a cached simulation, which is not
+     *              calculated again, so it can still be counted like one that is
+     */
+    public String computeIfAbsent(ByteBuffer json, Function<ByteBuffer, Entry> compute, IntConsumer onHit) {
+        Key key = Key.of(json);
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            onHit.accept(cached.operations);
+            return cached.serialized;
+        }
+
+        misses.increment();
+        Entry value = compute.apply(json);
+        long cost = cost(key, value);
+        if (cost > maxBytes) {
+            return value.serialized;
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(key, value);
+            usedBytes += cost - (previous != null ? cost(key, previous) : 0);
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Key, Entry> entry = eldest.next();
+                usedBytes -= cost(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return value.serialized;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public String summary() {
+        return "Cache: " + getHits() + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions, "
+                + size() + " entries, " + getUsedBytes() / 1024 + " KB of " + maxBytes / 1024 + " KB";
+    }
+
+    private static long cost(Key key, Entry value) {
+        return key.bytes.length + value.serialized.length() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * A simulation's serialized tax array and how many operations it holds.
+     */
+    public static final class Entry {
+        private final String serialized;
+        private final int operations;
+
+        public Entry(String serialized, int operations) {
+            this.serialized = serialized;
+            this.operations = operations;
+        }
+
+        public String getSerialized() {
+            return serialized;
+        }
+
+        public int getOperations() {
+            return operations;
+        }
+    }
+
+    private static final class Key {
+        private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+        private static final long SEED = new SecureRandom().nextLong();
+
+        private final byte[] bytes;
+        private final int hash;
+
+        private Key(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        /**
+         * Copies the bytes between position and limit, skipping whitespace outside strings
+         * next to a structural character. Whitespace between two other tokens, as in
+         * {@code 1 0}, is kept as a single space, so it cannot share a key with {@code 10}.
+         */
+        static Key of(ByteBuffer json) {
+            byte[] bytes = new byte[json.remaining()];
+            long hash = FNV_OFFSET ^ SEED;
+            int length = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            boolean space = false;
+
+            for (int i = json.position(); i < json.limit(); i++) {
+                byte b = json.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                    space = true;
+                    continue;
+                } else {
+                    // Espaço entre dois tokens separa valores: "1 0" não é "10"
+                    if (space && length > 0 && !structural(bytes[length - 1]) && !structural(b)) {
+                        bytes[length++] = ' ';
+                        hash = (hash ^ ' ') * FNV_PRIME;
+                    }
+                    space = false;
+                    if (b == '"') {
+                        inString = true;
+                    }
+                }
+
+                bytes[length++] = b;
+                hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+            }
+            return new Key(length == bytes.length ? bytes : Arrays.copyOf(bytes, length),
+                    Long.hashCode(hash ^ (hash >>> 29)));
+        }
+
+        private static boolean structural(byte b) {
+            return b == '[' || b == ']' || b == '{' || b == '}' || b == ':' || b == ',';
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash == key.hash && Arrays.equals(bytes, key.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
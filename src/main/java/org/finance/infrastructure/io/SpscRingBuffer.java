@@ -0,0 +1,142 @@
+package org.finance.infrastructure.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer, single-consumer queue between two pipeline stages. Slots live
+ * in a power-of-two array indexed by two ever-increasing counters; each side publishes its
+ * counter with a release store and caches the other side's, so neither side takes a lock
+ * and the producer only re-reads the consumer's counter when its cached view says full.
+ * <p>
+ * A full buffer blocks the producer, which is what propagates backpressure upstream. Both
+ * sides wait by spinning briefly, then yielding, then parking for short intervals, and
+ * give up with {@link InterruptedException} when interrupted. The producer calls
+ * {@link #close()} after its last element; the consumer then drains what is left and
+ * receives {@code null}.
+ * <p>
+ * Occupancy is sampled after every {@link #put(Object)}, so the buffer can report its
+ * average and maximum depth and how often the producer found it full.
+ */
+final class SpscRingBuffer<E> {
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+    private static final long PARK_NANOS = 50_000;
+
+    private final String name;
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile boolean closed;
+
+    // Producer-side state
+    private long cachedHead;
+    private long depthTotal;
+    private long maxDepth;
+    private long fullCount;
+
+    // Consumer-side state
+    private long cachedTail;
+
+    SpscRingBuffer(String name, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.name = name;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Producer side: stores {@code element}, waiting while the buffer is full.
+     */
+    void put(E element) throws InterruptedException {
+        long t = tail.get();
+        if (t - cachedHead >= slots.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= slots.length) {
+                fullCount++;
+                for (int idle = 0; t - (cachedHead = head.get()) >= slots.length; idle++) {
+                    idle(idle);
+                }
+            }
+        }
+        slots[(int) t & mask] = element;
+        tail.setRelease(t + 1);
+
+        long depth = t + 1 - head.get();
+        depthTotal += depth;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Producer side: no more elements will be put.
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Consumer side: removes the oldest element, waiting while the buffer is empty.
+     *
+     * @return the element, or {@code null} once the buffer is closed and drained
+     */
+    @SuppressWarnings("unchecked")
+    E take() throws InterruptedException {
+        long h = head.get();
+        for (int idle = 0; h >= cachedTail; idle++) {
+            cachedTail = tail.get();
+            if (h < cachedTail) {
+                break;
+            }
+            if (closed) {
+                // close() follows the last put, so a fresh read of tail now sees everything
+                cachedTail = tail.get();
+                if (h >= cachedTail) {
+                    return null;
+                }
+                break;
+            }
+            idle(idle);
+        }
+        int index = (int) h & mask;
+        E element = (E) slots[index];
+        slots[index] = null;
+        head.setRelease(h + 1);
+        return element;
+    }
+
+    /**
+     * Consumer side: whether nothing is waiting right now.
+     */
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    /**
+     * Call after the producer is done; the statistics are producer-side state.
+     */
+    String summary() {
+        long puts = tail.get();
+        return String.format("%s depth avg %.1f max %d/%d, full %d times", name,
+                puts == 0 ? 0.0 : (double) depthTotal / puts, maxDepth, slots.length, fullCount);
+    }
+
+    private static void idle(int iteration) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (iteration < SPINS) {
+            Thread.onSpinWait();
+        } else if (iteration < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
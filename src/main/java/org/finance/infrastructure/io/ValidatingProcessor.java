@@ -0,0 +1,113 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.application.dto.TaxResultDTO;
+import org.finance.application.metrics.ProcessingMetrics;
+import org.finance.application.metrics.ProcessingMetrics.Stage;
+import org.finance.infrastructure.json.OperationValidator;
+import org.finance.infrastructure.json.ParseErrorWriter;
+import org.finance.infrastructure.json.TaxResultStreamWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validating mode: each simulation is decoded by {@link OperationValidator}, which rejects
+ * input outside the schema, unknown operation types included, without throwing. A rejected
+ * simulation produces no output line; a JSON record with its index and byte offsets goes
+ * to the error stream instead, and processing resumes at the next simulation boundary found
+ * by {@link ResyncingSimulationFramer}. Accepted simulations are calculated, written and
+ * journaled by the wrapped {@link CommandLineProcessor}; the codec only affects the output.
+ */
+public class ValidatingProcessor {
+    private final CommandLineProcessor processor;
+    private final ProcessingMetrics metrics;
+
+    public ValidatingProcessor(CommandLineProcessor processor) {
+        this.processor = processor;
+        this.metrics = processor.getMetrics();
+    }
+
+    public void process(OutputStream errors) {
+        process(System.in, System.out, errors);
+    }
+
+    public void process(Path file, OutputStream errors) {
+        InputStream input;
+        try {
+            input = Files.newInputStream(file);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+            return;
+        }
+        try (input) {
+            process(input, System.out, errors);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    public void process(InputStream input, OutputStream output, OutputStream errors) {
+        long index = 0;
+        OperationValidator validator = new OperationValidator();
+        try (TaxResultStreamWriter writer = processor.openWriter(output);
+             ParseErrorWriter errorWriter = processor.getJsonParser().openParseErrorWriter(errors)) {
+            ResyncingSimulationFramer framer = new ResyncingSimulationFramer(input);
+            ByteBuffer simulation;
+
+            while ((simulation = frame(framer)) != null) {
+                index++;
+                List<OperationDTO> operations = new ArrayList<>();
+                if (!validate(validator, simulation, operations)) {
+                    errorWriter.write(index, framer.simulationStart() + validator.getFailureOffset(),
+                            validator.getFailureOffset(), validator.getFailureReason());
+                    processor.recordFailure(validator.getFailureReason());
+                } else {
+                    try {
+                        List<TaxResultDTO> taxResults = processor.getTaxCalculationService().calculateTaxes(operations);
+                        processor.write(writer, out -> out.writeSimulation(taxResults));
+                    } catch (ArithmeticException | IllegalArgumentException e) {
+                        // Falhas de cálculo não têm posição: aponte para o início da simulação
+                        errorWriter.write(index, framer.simulationStart(), 0, e.getMessage());
+                        processor.recordFailure(e.getMessage());
+                    }
+                }
+
+                // Não segure a saída enquanto esperamos por mais entrada
+                if (!framer.ready()) {
+                    writer.flush();
+                    errorWriter.flush();
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Erro ao ler entrada: " + e.getMessage());
+        }
+    }
+
+    private ByteBuffer frame(ResyncingSimulationFramer framer) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer json = framer.next();
+        if (json != null) {
+            metrics.record(Stage.FRAMING, start);
+            metrics.addBytesIn(json.remaining());
+        }
+        return json;
+    }
+
+    private boolean validate(OperationValidator validator, ByteBuffer json, List<OperationDTO> operations) {
+        long start = System.nanoTime();
+        boolean valid = validator.validate(json, operations);
+        if (!valid) {
+            metrics.countParseError();
+        }
+        metrics.record(Stage.PARSE, start);
+        return valid;
+    }
+}
@@ -0,0 +1,88 @@
+package org.finance.infrastructure.jmx;
+
+import org.finance.application.metrics.LatencySnapshot;
+import org.finance.application.metrics.ProcessingMetrics;
+import org.finance.application.metrics.ProcessingMetrics.Stage;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes {@link ProcessingMetrics} on the platform MBean server, so JConsole, VisualVM
+ * or any JMX agent can read them while the process runs. Snapshots are taken on read;
+ * nothing is computed unless someone asks.
+ */
+public class ProcessingMetricsJmx implements ProcessingMetricsMXBean {
+    public static final String OBJECT_NAME = "org.finance:type=ProcessingMetrics";
+
+    private final ProcessingMetrics metrics;
+
+    public ProcessingMetricsJmx(ProcessingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Registers {@code metrics} under {@link #OBJECT_NAME}, replacing any earlier registration.
+     */
+    public static ObjectName register(ProcessingMetrics metrics) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(new ProcessingMetricsJmx(metrics), name);
+        return name;
+    }
+
+    @Override
+    public long getSimulations() {
+        return metrics.getSimulations();
+    }
+
+    @Override
+    public long getOperations() {
+        return metrics.getOperations();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return metrics.getBytesIn();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return metrics.getBytesOut();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return metrics.getParseErrors();
+    }
+
+    @Override
+    public LatencySnapshot getFramingLatency() {
+        return metrics.histogram(Stage.FRAMING).snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getParseLatency() {
+        return metrics.histogram(Stage.PARSE).snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getCalculateLatency() {
+        return metrics.histogram(Stage.CALCULATE).snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getSerializeLatency() {
+        return metrics.histogram(Stage.SERIALIZE).snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getWriteLatency() {
+        return metrics.histogram(Stage.WRITE).snapshot();
+    }
+}
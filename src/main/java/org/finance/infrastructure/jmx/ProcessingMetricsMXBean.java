@@ -0,0 +1,29 @@
+package org.finance.infrastructure.jmx;
+
+import org.finance.application.metrics.LatencySnapshot;
+
+/**
+ * Management view of the process metrics. Latencies are in nanoseconds and appear as
+ * composite attributes with count, mean, percentiles and maximum.
+ */
+public interface ProcessingMetricsMXBean {
+    long getSimulations();
+
+    long getOperations();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    long getParseErrors();
+
+    LatencySnapshot getFramingLatency();
+
+    LatencySnapshot getParseLatency();
+
+    LatencySnapshot getCalculateLatency();
+
+    LatencySnapshot getSerializeLatency();
+
+    LatencySnapshot getWriteLatency();
+}
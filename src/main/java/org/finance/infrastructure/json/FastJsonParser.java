@@ -0,0 +1,151 @@
+package org.finance.infrastructure.json;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.application.dto.TaxResultDTO;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec specialised for the fixed input and output schemas. Operations are decoded by
+ * {@link OperationDecoder} without reflective databinding, and tax values are encoded
+ * digit by digit instead of going through {@link BigDecimal#toPlainString()}. Output is
+ * byte-identical to {@link JsonParser}; malformed input raises
+ * {@link MalformedJsonException} with the offset of the problem.
+ * <p>
+ * The streaming reader ({@link #openOperationReader}) is still Jackson's token stream.
+ */
+public class FastJsonParser extends JsonParser {
+    /**
+     * Enough room for a sign, 19 digits, a decimal point and 18 leading fraction zeros.
+     */
+    static final int MAX_ENCODED_LENGTH = 40;
+
+    @Override
+    public List<OperationDTO> parseOperations(String json) {
+        return parseOperations(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public List<OperationDTO> parseOperations(ByteBuffer json) {
+        OperationDecoder decoder = new OperationDecoder(json.duplicate());
+        List<OperationDTO> operations = new ArrayList<>();
+
+        decoder.begin();
+        while (decoder.next()) {
+            operations.add(new OperationDTO(decoder.operation(), decoder.unitCost(), decoder.quantity(),
+                    decoder.account(), decoder.ticker()));
+        }
+        return operations;
+    }
+
+    @Override
+    public boolean parseOperations(ByteBuffer json, OperationBatch batch) {
+        OperationDecoder decoder = new OperationDecoder(json.duplicate());
+
+        decoder.begin();
+        while (decoder.next()) {
+            long unitCostCents = decoder.unitCostCents();
+            OperationType type = OperationType.fromName(decoder.operation());
+            if (unitCostCents == Long.MIN_VALUE || type == null || decoder.account() != null || decoder.ticker() != null) {
+                // Batches hold a single position; unknown types are rejected by OperationDTO.toDomain
+                return false;
+            }
+            batch.add(type, unitCostCents, decoder.quantity());
+        }
+        return true;
+    }
+
+    @Override
+    public String serializeTaxResults(List<TaxResultDTO> taxResults) {
+        StringBuilder json = new StringBuilder(2 + taxResults.size() * 16).append('[');
+        char[] digits = new char[MAX_ENCODED_LENGTH];
+
+        for (int i = 0; i < taxResults.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"tax\":");
+            BigDecimal tax = taxResults.get(i).getTax();
+            int length = encodeDecimal(tax, digits);
+            if (length >= 0) {
+                json.append(digits, 0, length);
+            } else {
+                json.append(tax == null ? "null" : tax.toPlainString());
+            }
+            json.append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public TaxResultStreamWriter openTaxResultWriter(OutputStream output, int bufferSize, long maxFlushDelayMillis) throws IOException {
+        TaxResultStreamWriter writer = super.openTaxResultWriter(output, bufferSize, maxFlushDelayMillis);
+        writer.encodeNumbersDirectly();
+        return writer;
+    }
+
+    /**
+     * Writes the plain representation of {@code value} into {@code out}.
+     *
+     * @return the number of chars written, or {@code -1} when the value is {@code null} or
+     * outside the fast path (negative scale, more than 18 decimals, or not a compact long)
+     */
+    static int encodeDecimal(BigDecimal value, char[] out) {
+        if (value == null || value.scale() < 0 || value.scale() > 18 || value.precision() > 18) {
+            return -1;
+        }
+        // Same digits with scale 0, so the unscaled value is read without a BigInteger
+        return encodeDecimal(value.scaleByPowerOfTen(value.scale()).longValueExact(), value.scale(), out);
+    }
+
+    /**
+     * Writes {@code unscaled × 10^-scale} in plain notation, exactly as
+     * {@link BigDecimal#toPlainString()} would.
+     *
+     * @return the number of chars written, or {@code -1} if the value is outside the fast path
+     */
+    static int encodeDecimal(long unscaled, int scale, char[] out) {
+        if (scale < 0 || scale > 18 || unscaled == Long.MIN_VALUE) {
+            return -1;
+        }
+
+        int length = 0;
+        if (unscaled < 0) {
+            out[length++] = '-';
+            unscaled = -unscaled;
+        }
+
+        int digitCount = 1;
+        for (long remaining = unscaled / 10; remaining > 0; remaining /= 10) {
+            digitCount++;
+        }
+        int integerDigits = digitCount - scale;
+        int total = integerDigits > 0 ? digitCount : scale + 1;
+        int end = length + total + (scale > 0 ? 1 : 0);
+
+        // Fill from the right: fraction digits, point, integer digits
+        int position = end;
+        long remaining = unscaled;
+        for (int i = 0; i < scale; i++) {
+            out[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        if (scale > 0) {
+            out[--position] = '.';
+        }
+        do {
+            out[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        return end;
+    }
+}
@@ -1,39 +1,205 @@
 package org.finance.infrastructure.json;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import org.finance.application.dto.OperationDTO;
 import org.finance.application.dto.TaxResultDTO;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.TaxRules;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Jackson-backed codec. Databinding is only set up on first use: the streaming reader and
+ * writer need nothing beyond jackson-core, so a run that never calls the DTO methods, as
+ * with {@link FastJsonParser}, does not load or introspect jackson-databind at all.
+ */
 public class JsonParser {
-    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory = new JsonFactory();
 
-    public JsonParser() {
-        this.objectMapper = new ObjectMapper();
+    /**
+     * Holds every databind reference. Initialised on first call, and kept behind static
+     * methods so that verifying {@code JsonParser} does not load any databind type either.
+     */
+    private static final class Databind {
+        static final ObjectMapper MAPPER = new ObjectMapper();
+        static final CollectionType OPERATIONS = MAPPER.getTypeFactory().constructCollectionType(List.class, OperationDTO.class);
+        // Sempre mostrar zeros decimais
+        static final ObjectWriter PLAIN_WRITER = MAPPER.writer().with(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        // Operações sem conta ou ticker saem no formato original
+        static final ObjectWriter OPERATIONS_WRITER = MAPPER.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .writer().with(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+
+        static List<OperationDTO> readOperations(String json) throws JsonProcessingException {
+            return MAPPER.readValue(json, OPERATIONS);
+        }
+
+        static List<OperationDTO> readOperations(ByteBuffer json) throws IOException {
+            return MAPPER.readValue(new ByteBufferBackedInputStream(json), OPERATIONS);
+        }
+
+        static String write(Object value) throws JsonProcessingException {
+            return PLAIN_WRITER.writeValueAsString(value);
+        }
+
+        static String writeOperations(List<OperationDTO> operations) throws JsonProcessingException {
+            return OPERATIONS_WRITER.writeValueAsString(operations);
+        }
+
+        static JsonNode readTree(String json) throws JsonProcessingException {
+            // Keep the decimals exactly as written
+            return MAPPER.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(json);
+        }
     }
 
     public List<OperationDTO> parseOperations(String json) {
         try {
             // Clean up the input - remove whitespace between the JSON elements
             json = json.replaceAll("\\s+", " ").trim();
-            return objectMapper.readValue(json, objectMapper.getTypeFactory().constructCollectionType(List.class, OperationDTO.class));
+            return Databind.readOperations(json);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error parsing operations JSON: " + e.getMessage(), e);
         }
     }
 
-    public String serializeTaxResults(List<TaxResultDTO> taxResults) {
+    /**
+     * Parses a simulation straight from UTF-8 bytes (e.g. a slice of a memory-mapped file)
+     * without decoding it into a {@link String} first. The buffer's position is not changed.
+     */
+    public List<OperationDTO> parseOperations(ByteBuffer json) {
         try {
-            // Configurar o ObjectMapper para sempre mostrar zeros decimais
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+            return Databind.readOperations(json.duplicate());
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing operations JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes a simulation straight into {@code batch}, without creating DTOs.
+     *
+     * @return {@code false} if this codec has no columnar decoding or a unit cost cannot be
+     * stored as cents; the batch is then incomplete and the caller should use
+     * {@link #parseOperations(ByteBuffer)} instead
+     */
+    public boolean parseOperations(ByteBuffer json, OperationBatch batch) {
+        return false;
+    }
 
-            return objectMapper.writeValueAsString(taxResults);
+    public String serializeTaxResults(List<TaxResultDTO> taxResults) {
+        try {
+            return Databind.write(taxResults);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error serializing tax results to JSON", e);
         }
     }
+
+    /**
+     * Inverse of {@link #parseOperations(String)}: one simulation as a single-line JSON array.
+     */
+    public String serializeOperations(List<OperationDTO> operations) {
+        try {
+            return Databind.writeOperations(operations);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing operations to JSON", e);
+        }
+    }
+
+    /**
+     * Reads scenario definitions: an array of objects with a {@code name} and any of
+     * {@code rate}, {@code exemption-threshold} and {@code loss-offset}
+     * ({@code carry-forward} or {@code none}). Missing fields take the default rules.
+     *
+     * @throws IllegalArgumentException if the document or a scenario is invalid
+     */
+    public List<TaxRules> parseTaxRules(String json) {
+        JsonNode root;
+        try {
+            root = Databind.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Error parsing scenarios JSON: " + e.getOriginalMessage(), e);
+        }
+        if (root == null || !root.isArray()) {
+            throw new IllegalArgumentException("Scenarios must be a JSON array");
+        }
+
+        List<TaxRules> scenarios = new ArrayList<>(root.size());
+        for (JsonNode scenario : root) {
+            JsonNode name = scenario.get("name");
+            if (name == null || !name.isTextual() || name.asText().isEmpty()) {
+                throw new IllegalArgumentException("Every scenario needs a name: " + scenario);
+            }
+            scenarios.add(new TaxRules(name.asText(),
+                    decimal(scenario, "rate", TaxRules.DEFAULT.getRate()),
+                    decimal(scenario, "exemption-threshold", TaxRules.DEFAULT.getExemptionThreshold()),
+                    lossOffset(scenario)));
+        }
+        return scenarios;
+    }
+
+    private static BigDecimal decimal(JsonNode scenario, String field, BigDecimal defaultValue) {
+        JsonNode value = scenario.get(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("Invalid " + field + " in scenario: " + scenario);
+        }
+        return value.decimalValue();
+    }
+
+    private static TaxRules.LossOffset lossOffset(JsonNode scenario) {
+        JsonNode value = scenario.get("loss-offset");
+        if (value == null) {
+            return TaxRules.DEFAULT.getLossOffset();
+        }
+        return switch (value.asText()) {
+            case "carry-forward" -> TaxRules.LossOffset.CARRY_FORWARD;
+            case "none" -> TaxRules.LossOffset.NONE;
+            default -> throw new IllegalArgumentException("Invalid loss-offset in scenario: " + scenario);
+        };
+    }
+
+    public OperationStreamReader openOperationReader(InputStream input) throws IOException {
+        return new OperationStreamReader(jsonFactory.createParser(input));
+    }
+
+    public TaxResultStreamWriter openTaxResultWriter(OutputStream output) throws IOException {
+        return openTaxResultWriter(output, TaxResultStreamWriter.DEFAULT_BUFFER_SIZE,
+                TaxResultStreamWriter.DEFAULT_MAX_FLUSH_DELAY_MILLIS);
+    }
+
+    /**
+     * Opens a writer whose output is buffered in {@code bufferSize} bytes and pushed to
+     * {@code output} once the buffer fills up or {@code maxFlushDelayMillis} have elapsed
+     * since the last flush. Closing the writer flushes but does not close {@code output}.
+     */
+    public TaxResultStreamWriter openTaxResultWriter(OutputStream output, int bufferSize, long maxFlushDelayMillis) throws IOException {
+        return new TaxResultStreamWriter(
+                jsonFactory.createGenerator(new BufferedOutputStream(output, bufferSize)),
+                maxFlushDelayMillis);
+    }
+
+    /**
+     * Opens a writer of error records for the validating mode. Closing the writer flushes
+     * but does not close {@code output}.
+     */
+    public ParseErrorWriter openParseErrorWriter(OutputStream output) throws IOException {
+        return new ParseErrorWriter(jsonFactory.createGenerator(new BufferedOutputStream(output)));
+    }
 }
\ No newline at end of file
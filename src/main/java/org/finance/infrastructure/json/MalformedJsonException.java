@@ -0,0 +1,23 @@
+package org.finance.infrastructure.json;
+
+import java.io.Serial;
+
+/**
+ * Raised by {@link FastJsonParser} when input does not match the operations schema.
+ * Carries the byte offset, relative to the start of the simulation, where decoding stopped.
+ */
+public class MalformedJsonException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+
+    public MalformedJsonException(String reason, long offset) {
+        super("Error parsing operations JSON: " + reason + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
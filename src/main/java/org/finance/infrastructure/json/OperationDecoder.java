@@ -0,0 +1,611 @@
+package org.finance.infrastructure.json;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hand-written decoder for exactly one simulation: a JSON array of objects with the
+ * keys {@code operation}, {@code unit-cost} and {@code quantity}, plus the optional
+ * {@code account} and {@code ticker}. Values are decoded
+ * straight from UTF-8 bytes into primitive fields; {@link BigDecimal}s and strings are
+ * only built on demand. Anything outside the schema is rejected with the byte offset
+ * where decoding stopped.
+ * <p>
+ * Usage: {@link #begin()}, then {@link #next()} until it returns {@code false}, reading
+ * the current operation's fields after each successful call. Those two raise
+ * {@link MalformedJsonException}; {@link #tryBegin()} and {@link #advance()} report the
+ * same failure through {@link #failed()}, {@link #failureReason()} and
+ * {@link #failureOffset()} instead, so rejecting input costs no exception.
+ */
+final class OperationDecoder {
+    static final String BUY = "buy";
+    static final String SELL = "sell";
+
+    private static final byte[] OPERATION_KEY = "operation".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNIT_COST_KEY = "unit-cost".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUANTITY_KEY = "quantity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ACCOUNT_KEY = "account".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TICKER_KEY = "ticker".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BUY_VALUE = BUY.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SELL_VALUE = SELL.getBytes(StandardCharsets.US_ASCII);
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L,
+            100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int limit;
+    private int pos;
+    private boolean first = true;
+    private String failureReason;
+    private int failureOffset = -1;
+    private int objectOffset;
+
+    // Current operation
+    private String operation;
+    private boolean hasUnitCost;
+    private long unitCostUnscaled;
+    private int unitCostScale;
+    private BigDecimal unitCostBig;
+    private long quantity;
+    private String account;
+    private String ticker;
+
+    // Last number read
+    private long numberUnscaled;
+    private int numberScale;
+    private BigDecimal numberBig;
+
+    OperationDecoder(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.start = buffer.position();
+        this.limit = buffer.limit();
+        this.pos = start;
+    }
+
+    void begin() {
+        if (!tryBegin()) {
+            throw failure();
+        }
+    }
+
+    /**
+     * @return {@code true} if another operation was decoded, {@code false} at the end of the array
+     */
+    boolean next() {
+        boolean decoded = advance();
+        if (failureReason != null) {
+            throw failure();
+        }
+        return decoded;
+    }
+
+    /**
+     * Same as {@link #begin()}, without throwing.
+     *
+     * @return {@code false} if the input does not start a simulation
+     */
+    boolean tryBegin() {
+        skipWhitespace();
+        return expect('[', "expected '[' to start a simulation");
+    }
+
+    /**
+     * Same as {@link #next()}, without throwing: a failure ends decoding like the end of the
+     * array does, and is told apart by {@link #failed()}.
+     */
+    boolean advance() {
+        if (failureReason != null) {
+            return false;
+        }
+        skipWhitespace();
+        if (first) {
+            first = false;
+            if (peek() == ']') {
+                pos++;
+                finish();
+                return false;
+            }
+        } else {
+            int separator = read();
+            if (separator == ']') {
+                finish();
+                return false;
+            }
+            if (separator != ',') {
+                return fail("expected ',' or ']'", pos - 1);
+            }
+            skipWhitespace();
+        }
+        return readObject();
+    }
+
+    boolean failed() {
+        return failureReason != null;
+    }
+
+    /**
+     * @return why decoding stopped, or {@code null} if it has not failed
+     */
+    String failureReason() {
+        return failureReason;
+    }
+
+    /**
+     * @return the byte offset, relative to the start of the simulation, where decoding
+     * stopped, or {@code -1} if it has not failed
+     */
+    int failureOffset() {
+        return failureOffset;
+    }
+
+    String operation() {
+        return operation;
+    }
+
+    BigDecimal unitCost() {
+        if (!hasUnitCost) {
+            return null;
+        }
+        return unitCostBig != null ? unitCostBig : BigDecimal.valueOf(unitCostUnscaled, unitCostScale);
+    }
+
+    /**
+     * @return the unit cost in cents, or {@link Long#MIN_VALUE} if it is missing, has
+     * sub-cent digits or does not fit a {@code long}
+     */
+    long unitCostCents() {
+        if (!hasUnitCost || unitCostBig != null || unitCostScale > 2) {
+            return Long.MIN_VALUE;
+        }
+        int shift = 2 - unitCostScale;
+        if (shift >= POWERS_OF_TEN.length) {
+            return unitCostUnscaled == 0 ? 0 : Long.MIN_VALUE;
+        }
+        long factor = POWERS_OF_TEN[shift];
+        long cents = unitCostUnscaled * factor;
+        return cents / factor == unitCostUnscaled ? cents : Long.MIN_VALUE;
+    }
+
+    long quantity() {
+        return quantity;
+    }
+
+    /**
+     * @return the byte offset, relative to the start of the simulation, of the current
+     * operation's opening brace
+     */
+    int objectOffset() {
+        return objectOffset;
+    }
+
+    String account() {
+        return account;
+    }
+
+    String ticker() {
+        return ticker;
+    }
+
+    private boolean readObject() {
+        objectOffset = pos - start;
+        if (!expect('{', "expected an operation object")) {
+            return false;
+        }
+        operation = null;
+        hasUnitCost = false;
+        unitCostBig = null;
+        quantity = 0;
+        account = null;
+        ticker = null;
+
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return true;
+        }
+
+        while (true) {
+            skipWhitespace();
+            int keyOffset = pos;
+            if (!expect('"', "expected a field name")) {
+                return false;
+            }
+            int keyStart = pos;
+            int keyEnd = skipString();
+            if (keyEnd < 0) {
+                return false;
+            }
+            skipWhitespace();
+            if (!expect(':', "expected ':'")) {
+                return false;
+            }
+            skipWhitespace();
+
+            String field = fieldName(keyStart, keyEnd);
+            if (field == null) {
+                return false;
+            }
+            switch (field) {
+                case "operation" -> readOperationValue();
+                case "unit-cost" -> readUnitCost();
+                case "quantity" -> readQuantity();
+                case "account" -> account = readOptionalString("\"account\"");
+                case "ticker" -> ticker = readOptionalString("\"ticker\"");
+                default -> fail("unrecognized field \"" + field + "\"", keyOffset);
+            }
+            if (failureReason != null) {
+                return false;
+            }
+
+            skipWhitespace();
+            int separator = read();
+            if (separator == '}') {
+                return true;
+            }
+            if (separator != ',') {
+                return fail("expected ',' or '}'", pos - 1);
+            }
+        }
+    }
+
+    private void readOperationValue() {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            operation = null;
+            return;
+        }
+        int valueOffset = pos;
+        if (read() != '"') {
+            fail("expected a string for \"operation\"", valueOffset);
+            return;
+        }
+        int valueStart = pos;
+        int valueEnd = skipString();
+        if (valueEnd < 0) {
+            return;
+        }
+        if (keyEquals(valueStart, valueEnd, BUY_VALUE)) {
+            operation = BUY;
+        } else if (keyEquals(valueStart, valueEnd, SELL_VALUE)) {
+            operation = SELL;
+        } else {
+            String value = decodeString(valueStart, valueEnd);
+            if (value == null) {
+                return;
+            }
+            operation = BUY.equals(value) ? BUY : SELL.equals(value) ? SELL : value;
+        }
+    }
+
+    /**
+     * @return the string, or {@code null} for a JSON null or a failure
+     */
+    private String readOptionalString(String field) {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        int valueOffset = pos;
+        if (read() != '"') {
+            fail("expected a string for " + field, valueOffset);
+            return null;
+        }
+        int valueStart = pos;
+        int valueEnd = skipString();
+        return valueEnd < 0 ? null : decodeString(valueStart, valueEnd);
+    }
+
+    private void readUnitCost() {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            hasUnitCost = false;
+            return;
+        }
+        if (!readNumber("\"unit-cost\"")) {
+            return;
+        }
+        hasUnitCost = true;
+        unitCostUnscaled = numberUnscaled;
+        unitCostScale = numberScale;
+        unitCostBig = numberBig;
+    }
+
+    private void readQuantity() {
+        if (peek() == 'n') {
+            expectLiteral("null");
+            quantity = 0;
+            return;
+        }
+        int valueOffset = pos;
+        if (!readNumber("\"quantity\"")) {
+            return;
+        }
+        try {
+            if (numberBig != null) {
+                quantity = numberBig.longValueExact();
+            } else if (numberScale <= 0 && -numberScale < POWERS_OF_TEN.length) {
+                quantity = Math.multiplyExact(numberUnscaled, POWERS_OF_TEN[-numberScale]);
+            } else if (numberScale > 0 && numberScale < POWERS_OF_TEN.length
+                    && numberUnscaled % POWERS_OF_TEN[numberScale] == 0) {
+                quantity = numberUnscaled / POWERS_OF_TEN[numberScale];
+            } else {
+                quantity = BigDecimal.valueOf(numberUnscaled, numberScale).longValueExact();
+            }
+        } catch (ArithmeticException e) {
+            fail("\"quantity\" must be an integer that fits 64 bits", valueOffset);
+        }
+    }
+
+    private boolean readNumber(String field) {
+        int numberStart = pos;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            pos++;
+        }
+
+        long unscaled = 0;
+        int scale = 0;
+        boolean overflow = false;
+
+        int integerStart = pos;
+        while (isDigit(peek())) {
+            if (pos > integerStart && buffer.get(integerStart) == '0') {
+                return fail("leading zeros are not allowed", integerStart);
+            }
+            int digit = read() - '0';
+            if (unscaled > (Long.MAX_VALUE - digit) / 10) {
+                overflow = true;
+            } else {
+                unscaled = unscaled * 10 + digit;
+            }
+        }
+        if (pos == integerStart) {
+            return fail("expected a number for " + field, numberStart);
+        }
+
+        if (peek() == '.') {
+            pos++;
+            int fractionStart = pos;
+            while (isDigit(peek())) {
+                int digit = read() - '0';
+                if (unscaled > (Long.MAX_VALUE - digit) / 10) {
+                    overflow = true;
+                } else {
+                    unscaled = unscaled * 10 + digit;
+                }
+                scale++;
+            }
+            if (pos == fractionStart) {
+                return fail("expected digits after '.'", pos);
+            }
+        }
+
+        if (peek() == 'e' || peek() == 'E') {
+            pos++;
+            boolean negativeExponent = false;
+            if (peek() == '+' || peek() == '-') {
+                negativeExponent = read() == '-';
+            }
+            int exponentStart = pos;
+            int exponent = 0;
+            while (isDigit(peek())) {
+                int digit = read() - '0';
+                if (exponent > 100_000_000) {
+                    return fail("exponent out of range", exponentStart);
+                }
+                exponent = exponent * 10 + digit;
+            }
+            if (pos == exponentStart) {
+                return fail("expected digits in exponent", pos);
+            }
+            scale += negativeExponent ? exponent : -exponent;
+        }
+
+        if (overflow) {
+            numberBig = new BigDecimal(ascii(numberStart, pos));
+        } else {
+            numberBig = null;
+            numberUnscaled = negative ? -unscaled : unscaled;
+            numberScale = scale;
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the closing quote, or {@code -1} on failure
+     */
+    private int skipString() {
+        while (true) {
+            if (pos >= limit) {
+                fail("unterminated string", pos);
+                return -1;
+            }
+            byte b = buffer.get(pos);
+            if (b == '"') {
+                return pos++;
+            }
+            if (b == '\\') {
+                pos += 2;
+            } else if ((b & 0xFF) < 0x20) {
+                fail("control character in string", pos);
+                return -1;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * @return the decoded string, or {@code null} on failure
+     */
+    private String decodeString(int from, int to) {
+        StringBuilder text = new StringBuilder(to - from);
+        int segmentStart = from;
+        int i = from;
+        while (i < to) {
+            if (buffer.get(i) != '\\') {
+                i++;
+                continue;
+            }
+            text.append(utf8(segmentStart, i));
+            byte escape = i + 1 < to ? buffer.get(i + 1) : 0;
+            switch (escape) {
+                case '"' -> text.append('"');
+                case '\\' -> text.append('\\');
+                case '/' -> text.append('/');
+                case 'b' -> text.append('\b');
+                case 'f' -> text.append('\f');
+                case 'n' -> text.append('\n');
+                case 'r' -> text.append('\r');
+                case 't' -> text.append('\t');
+                case 'u' -> {
+                    int code = i + 6 > to ? -1 : hex(i + 2, i + 6);
+                    if (code < 0) {
+                        fail(i + 6 > to ? "truncated unicode escape" : "invalid unicode escape", i);
+                        return null;
+                    }
+                    text.append((char) code);
+                    i += 4;
+                }
+                default -> {
+                    fail("invalid escape sequence", i);
+                    return null;
+                }
+            }
+            i += 2;
+            segmentStart = i;
+        }
+        return text.append(utf8(segmentStart, to)).toString();
+    }
+
+    /**
+     * Matches the raw bytes against the known fields first; only escaped names are decoded.
+     */
+    private String fieldName(int from, int to) {
+        if (keyEquals(from, to, OPERATION_KEY)) {
+            return "operation";
+        }
+        if (keyEquals(from, to, UNIT_COST_KEY)) {
+            return "unit-cost";
+        }
+        if (keyEquals(from, to, QUANTITY_KEY)) {
+            return "quantity";
+        }
+        if (keyEquals(from, to, ACCOUNT_KEY)) {
+            return "account";
+        }
+        if (keyEquals(from, to, TICKER_KEY)) {
+            return "ticker";
+        }
+        return decodeString(from, to);
+    }
+
+    private boolean keyEquals(int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean finish() {
+        skipWhitespace();
+        return pos >= limit || fail("unexpected content after the simulation", pos);
+    }
+
+    private boolean expect(char expected, String reason) {
+        return read() == expected || fail(reason, pos - 1);
+    }
+
+    private boolean expectLiteral(String literal) {
+        int literalStart = pos;
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                return fail("invalid literal", literalStart);
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private int peek() {
+        return pos < limit ? buffer.get(pos) : -1;
+    }
+
+    private int read() {
+        if (pos >= limit) {
+            pos++;
+            return -1;
+        }
+        return buffer.get(pos++);
+    }
+
+    private String ascii(int from, int to) {
+        return new String(bytes(from, to), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the value of the hex digits in {@code [from, to)}, or {@code -1} if one is not a hex digit
+     */
+    private int hex(int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    private String utf8(int from, int to) {
+        return new String(bytes(from, to), StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytes(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return bytes;
+    }
+
+    /**
+     * Records the first failure; decoding stops there.
+     *
+     * @return {@code false}, for callers that report success as a boolean
+     */
+    private boolean fail(String reason, int at) {
+        if (failureReason == null) {
+            failureReason = at >= limit ? "unexpected end of input" : reason;
+            failureOffset = Math.min(at, limit) - start;
+        }
+        return false;
+    }
+
+    private MalformedJsonException failure() {
+        return new MalformedJsonException(failureReason, failureOffset);
+    }
+
+    private static boolean isDigit(int b) {
+        return b >= '0' && b <= '9';
+    }
+}
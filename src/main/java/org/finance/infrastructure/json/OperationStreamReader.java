@@ -0,0 +1,145 @@
+package org.finance.infrastructure.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.finance.application.dto.OperationDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull-based reader over a sequence of simulations (root-level JSON arrays) that
+ * decodes one operation object at a time on top of Jackson's token stream, so
+ * memory use does not grow with the size of an array.
+ */
+public class OperationStreamReader implements Closeable {
+    private final com.fasterxml.jackson.core.JsonParser parser;
+
+    OperationStreamReader(com.fasterxml.jackson.core.JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Advances to the start of the next simulation.
+     *
+     * @return {@code false} once the input is exhausted
+     */
+    public boolean nextSimulation() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected '[' to start a simulation but found " + token);
+        }
+        return true;
+    }
+
+    /**
+     * Skips whatever is left of the current simulation, e.g. after one of its operations
+     * could not be calculated, so that {@link #nextSimulation()} moves on to the next one.
+     * Does nothing if the simulation array has already been read to its end.
+     */
+    public void skipSimulation() throws IOException {
+        while (!parser.getParsingContext().inRoot()) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Reads the next operation of the current simulation.
+     *
+     * @return the operation, or {@code null} when the simulation array has ended
+     */
+    public OperationDTO nextOperation() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an operation object but found " + token);
+        }
+
+        OperationDTO operation = new OperationDTO();
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "operation" -> operation.setOperation(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                case "unit-cost" -> operation.setUnitCost(readDecimal(value));
+                case "quantity" -> operation.setQuantity(parser.getValueAsLong());
+                case "account" -> operation.setAccount(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                case "ticker" -> operation.setTicker(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                default -> throw new JsonParseException(parser, "Unrecognized field \"" + field + "\"");
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected token " + token + " inside operation");
+        }
+        return operation;
+    }
+
+    /**
+     * Exposes the remaining operations of the current simulation as a one-shot
+     * {@link Iterable}. I/O failures surface as {@link UncheckedIOException}.
+     */
+    public Iterable<OperationDTO> operations() {
+        return () -> new Iterator<>() {
+            // Read lazily so a result is emitted before the following operation is decoded
+            private OperationDTO next;
+            private boolean fetched;
+
+            @Override
+            public boolean hasNext() {
+                if (!fetched) {
+                    try {
+                        next = nextOperation();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    fetched = true;
+                }
+                return next != null;
+            }
+
+            @Override
+            public OperationDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                fetched = false;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * @return how many input bytes have been consumed up to the end of the last token
+     * read, e.g. just past the closing brace of the last operation
+     */
+    public long offset() {
+        return parser.currentLocation().getByteOffset();
+    }
+
+    private BigDecimal readDecimal(JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            return new BigDecimal(parser.getText().trim());
+        }
+        return parser.getDecimalValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
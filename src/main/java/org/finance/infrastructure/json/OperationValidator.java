@@ -0,0 +1,89 @@
+package org.finance.infrastructure.json;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.domain.entities.OperationType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Decodes simulations like {@link FastJsonParser#parseOperations(ByteBuffer)}, but reports
+ * rejected input through {@link #getFailureReason()} and {@link #getFailureOffset()}
+ * instead of an exception, so dirty input with many bad simulations does not pay for
+ * exceptions and stack traces.
+ * <p>
+ * On top of the syntax, every operation must be a {@code buy} or {@code sell} with a
+ * non-negative {@code unit-cost} and a positive {@code quantity}. Not thread-safe: the
+ * failure describes the last call.
+ */
+public final class OperationValidator {
+    private String failureReason;
+    private int failureOffset = -1;
+
+    /**
+     * Decodes one simulation, adding its operations to {@code operations}.
+     *
+     * @return {@code false} if the simulation was rejected; {@code operations} then holds
+     * the operations decoded before the failure
+     */
+    public boolean validate(ByteBuffer json, List<OperationDTO> operations) {
+        OperationDecoder decoder = new OperationDecoder(json.duplicate());
+        failureReason = null;
+        failureOffset = -1;
+
+        if (!decoder.tryBegin()) {
+            return reject(decoder.failureReason(), decoder.failureOffset());
+        }
+        while (decoder.advance()) {
+            String reason = check(decoder);
+            if (reason != null) {
+                return reject(reason, decoder.objectOffset());
+            }
+            operations.add(new OperationDTO(decoder.operation(), decoder.unitCost(), decoder.quantity(),
+                    decoder.account(), decoder.ticker()));
+        }
+        return !decoder.failed() || reject(decoder.failureReason(), decoder.failureOffset());
+    }
+
+    /**
+     * @return why the last simulation was rejected, or {@code null} if it was accepted
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    /**
+     * @return the byte offset, relative to the start of the simulation, where the last
+     * simulation was rejected, or {@code -1} if it was accepted
+     */
+    public int getFailureOffset() {
+        return failureOffset;
+    }
+
+    private static String check(OperationDecoder decoder) {
+        if (decoder.operation() == null) {
+            return "missing \"operation\"";
+        }
+        if (OperationType.fromName(decoder.operation()) == null) {
+            return "unknown operation \"" + decoder.operation() + "\"";
+        }
+        BigDecimal unitCost = decoder.unitCost();
+        if (unitCost == null) {
+            return "missing \"unit-cost\"";
+        }
+        if (unitCost.signum() < 0) {
+            return "\"unit-cost\" must not be negative";
+        }
+        if (decoder.quantity() <= 0) {
+            return "\"quantity\" must be positive";
+        }
+        return null;
+    }
+
+    private boolean reject(String reason, int offset) {
+        failureReason = reason;
+        failureOffset = offset;
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package org.finance.infrastructure.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes one JSON object per rejected simulation, one per line:
+ * <pre>
+ * {"simulation":3,"offset":1042,"simulation-offset":17,"error":"expected ',' or '}'"}
+ * </pre>
+ * {@code simulation} counts simulations from 1, {@code offset} is the byte offset in the
+ * whole input and {@code simulation-offset} the byte offset from the simulation's first
+ * byte. Not thread-safe.
+ */
+public class ParseErrorWriter implements Closeable, Flushable {
+    private final JsonGenerator generator;
+
+    ParseErrorWriter(JsonGenerator generator) {
+        this.generator = generator;
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void write(long simulation, long offset, int simulationOffset, String error) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("simulation", simulation);
+        generator.writeNumberField("offset", offset);
+        generator.writeNumberField("simulation-offset", simulationOffset);
+        generator.writeStringField("error", error);
+        generator.writeEndObject();
+        generator.writeRaw(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,182 @@
+package org.finance.infrastructure.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.finance.application.dto.TaxResultDTO;
+import org.finance.domain.entities.TaxBatch;
+import org.finance.domain.entities.TaxRules;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes tax results through a single reusable {@link JsonGenerator} on top of a large
+ * output buffer. The bytes produced for a simulation are identical to
+ * {@link JsonParser#serializeTaxResults(List)} preceded by a line separator, matching
+ * what the line-based processor has always printed.
+ * <p>
+ * Output reaches the target when the buffer fills up, when a simulation ends more than
+ * {@code maxFlushDelay} after the previous flush, or when {@link #flush()} is called
+ * explicitly (e.g. before blocking on input). Not thread-safe.
+ */
+public class TaxResultStreamWriter implements Closeable, Flushable {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    public static final long DEFAULT_MAX_FLUSH_DELAY_MILLIS = 100;
+
+    private final JsonGenerator generator;
+    private final long maxFlushDelayNanos;
+    private long lastFlush = System.nanoTime();
+    private boolean inSimulation;
+    private boolean resumed;
+    private boolean needsSeparator;
+    private char[] digits;
+
+    TaxResultStreamWriter(JsonGenerator generator, long maxFlushDelayMillis) {
+        this.generator = generator;
+        this.maxFlushDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxFlushDelayMillis);
+        this.generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void startSimulation() throws IOException {
+        generator.writeRaw(System.lineSeparator());
+        generator.writeStartArray();
+        inSimulation = true;
+    }
+
+    /**
+     * Continues a simulation array whose opening bytes were written by an earlier run,
+     * e.g. after resuming from a checkpoint. The generator has no open array in that case,
+     * so separators and the closing bracket are written raw.
+     *
+     * @param hasResults whether the earlier run already wrote elements into the array
+     */
+    public void resumeSimulation(boolean hasResults) {
+        inSimulation = true;
+        resumed = true;
+        needsSeparator = hasResults;
+    }
+
+    public void write(TaxResultDTO taxResult) {
+        try {
+            if (resumed) {
+                if (needsSeparator) {
+                    generator.writeRaw(',');
+                }
+                needsSeparator = true;
+            }
+            generator.writeStartObject();
+            generator.writeFieldName("tax");
+            int length = digits != null ? FastJsonParser.encodeDecimal(taxResult.getTax(), digits) : -1;
+            if (length >= 0) {
+                generator.writeNumber(digits, 0, length);
+            } else {
+                generator.writeNumber(taxResult.getTax());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void endSimulation() throws IOException {
+        if (inSimulation && resumed) {
+            generator.writeRaw(']');
+            resumed = false;
+            inSimulation = false;
+        } else if (inSimulation) {
+            generator.writeEndArray();
+            inSimulation = false;
+        }
+        if (System.nanoTime() - lastFlush >= maxFlushDelayNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes a whole simulation's results in one go.
+     */
+    public void writeSimulation(List<TaxResultDTO> taxResults) throws IOException {
+        startSimulation();
+        for (TaxResultDTO taxResult : taxResults) {
+            write(taxResult);
+        }
+        endSimulation();
+    }
+
+    /**
+     * Writes a simulation that is already serialized, e.g. by
+     * {@link JsonParser#serializeTaxResults(List)}, without decoding it.
+     */
+    public void writeSerializedSimulation(String json) throws IOException {
+        generator.writeRaw(System.lineSeparator());
+        generator.writeRaw(json);
+        endSimulation();
+    }
+
+    /**
+     * Writes a whole simulation from a columnar result. Values are encoded from the
+     * {@code long} column directly; the bytes match {@link #writeSimulation(List)}.
+     */
+    public void writeSimulation(TaxBatch taxes) throws IOException {
+        char[] buffer = digits != null ? digits : new char[FastJsonParser.MAX_ENCODED_LENGTH];
+        startSimulation();
+        for (int i = 0; i < taxes.size(); i++) {
+            generator.writeStartObject();
+            generator.writeFieldName("tax");
+            generator.writeNumber(buffer, 0, FastJsonParser.encodeDecimal(taxes.unscaledTax(i), TaxBatch.SCALE, buffer));
+            generator.writeEndObject();
+        }
+        endSimulation();
+    }
+
+    /**
+     * Writes one simulation evaluated under several scenarios as a single object keyed by
+     * scenario name, each value being the array {@link #writeSimulation(TaxBatch)} would print.
+     */
+    public void writeScenarios(List<TaxRules> scenarios, TaxBatch[] taxes) throws IOException {
+        char[] buffer = digits != null ? digits : new char[FastJsonParser.MAX_ENCODED_LENGTH];
+        generator.writeRaw(System.lineSeparator());
+        generator.writeStartObject();
+        for (int s = 0; s < scenarios.size(); s++) {
+            generator.writeFieldName(scenarios.get(s).getName());
+            generator.writeStartArray();
+            for (int i = 0; i < taxes[s].size(); i++) {
+                generator.writeStartObject();
+                generator.writeFieldName("tax");
+                generator.writeNumber(buffer, 0, FastJsonParser.encodeDecimal(taxes[s].unscaledTax(i), TaxBatch.SCALE, buffer));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+        endSimulation();
+    }
+
+    /**
+     * Encodes tax values with {@link FastJsonParser#encodeDecimal(java.math.BigDecimal, char[])}
+     * instead of {@link java.math.BigDecimal#toPlainString()}.
+     */
+    void encodeNumbersDirectly() {
+        digits = new char[FastJsonParser.MAX_ENCODED_LENGTH];
+    }
+
+    public boolean isInSimulation() {
+        return inSimulation;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+        lastFlush = System.nanoTime();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,52 @@
+package org.finance.application.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldMapEveryValueIntoBucketCoveringIt() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "upper bound of " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(index - 1) < value, "previous bucket of " + value);
+            }
+        }
+    }
+
+    @Test
+    void shouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertWithinPrecision(5_000_000, histogram.valueAt(50));
+        assertWithinPrecision(9_900_000, histogram.valueAt(99));
+        assertEquals(10_000_000, histogram.valueAt(100));
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(5_000_500, snapshot.getMean());
+        assertEquals(histogram.valueAt(90), snapshot.getP90());
+    }
+
+    @Test
+    void shouldReportZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.valueAt(99));
+        assertEquals(0, histogram.snapshot().getMean());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / LatencyHistogram.SUB_BUCKETS,
+                "expected about " + expected + " but was " + actual);
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
@@ -92,4 +93,14 @@ class TaxCalculationServiceTest {
         // Then
         verify(calculateCapitalGainsTax, times(1)).calculate(anyList());
     }
+
+    @Test
+    void shouldRejectUnknownOperationTypes() {
+        // Given
+        List<OperationDTO> operationDTOs = List.of(new OperationDTO("transfer", new BigDecimal("10.0"), 100));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> taxCalculationService.calculateTaxes(operationDTOs));
+        verifyNoInteractions(calculateCapitalGainsTax);
+    }
 }
@@ -0,0 +1,79 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.OperationType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapitalGainsLedgerTest {
+
+    @Test
+    void shouldExposeRunningStateAfterEachOperation() {
+        CapitalGainsLedger ledger = new CapitalGainsLedger();
+
+        assertEquals(new BigDecimal("0.0"), ledger.apply(OperationType.BUY, new BigDecimal("10.00"), 10000).getTax());
+        assertEquals(0, ledger.getWeightedAveragePrice().compareTo(new BigDecimal("10.00")));
+        assertEquals(10000, ledger.getStockQuantity());
+
+        assertEquals(new BigDecimal("0.0"), ledger.apply(OperationType.SELL, new BigDecimal("5.00"), 5000).getTax());
+        assertEquals(0, ledger.getAccumulatedLoss().compareTo(new BigDecimal("25000.00")));
+        assertEquals(5000, ledger.getStockQuantity());
+
+        assertEquals(new BigDecimal("1000.0"), ledger.apply(OperationType.SELL, new BigDecimal("20.00"), 3000).getTax());
+        assertEquals(0, ledger.getAccumulatedLoss().compareTo(BigDecimal.ZERO));
+        assertEquals(2000, ledger.getStockQuantity());
+    }
+
+    @Test
+    void shouldResetAverageWhenPositionIsClosed() {
+        CapitalGainsLedger ledger = new CapitalGainsLedger();
+
+        ledger.apply(OperationType.BUY, new BigDecimal("10.00"), 100);
+        ledger.apply(OperationType.BUY, new BigDecimal("20.00"), 100);
+        assertEquals(new BigDecimal("15.00"), ledger.getWeightedAveragePrice());
+
+        ledger.apply(OperationType.SELL, new BigDecimal("15.00"), 200);
+        assertEquals(0, ledger.getStockQuantity());
+        assertEquals(BigDecimal.ZERO, ledger.getWeightedAveragePrice());
+    }
+
+    @Test
+    void shouldClearStateOnReset() {
+        CapitalGainsLedger ledger = new CapitalGainsLedger();
+        ledger.apply(OperationType.BUY, new BigDecimal("10.00"), 100);
+        ledger.apply(OperationType.SELL, new BigDecimal("5.00"), 50);
+
+        ledger.reset();
+
+        assertEquals(0, ledger.getStockQuantity());
+        assertEquals(0, ledger.getWeightedAveragePrice().signum());
+        assertEquals(0, ledger.getAccumulatedLoss().signum());
+    }
+
+    @Test
+    void fixedPointLedgerShouldReportSameStateAcrossFallback() {
+        CapitalGainsLedger reference = new CapitalGainsLedger();
+        FixedPointCapitalGainsLedger fixedPoint = new FixedPointCapitalGainsLedger();
+
+        applyToBoth(reference, fixedPoint, OperationType.BUY, new BigDecimal("10.00"), 10000);
+        applyToBoth(reference, fixedPoint, OperationType.SELL, new BigDecimal("2.00"), 5000);
+        assertFalse(fixedPoint.isFallenBack());
+
+        applyToBoth(reference, fixedPoint, OperationType.BUY, new BigDecimal("12.345"), 1000);
+        assertTrue(fixedPoint.isFallenBack());
+
+        applyToBoth(reference, fixedPoint, OperationType.SELL, new BigDecimal("30.00"), 6000);
+    }
+
+    private static void applyToBoth(CapitalGainsLedger reference, FixedPointCapitalGainsLedger fixedPoint,
+                                    OperationType type, BigDecimal unitCost, long quantity) {
+        assertEquals(reference.apply(type, unitCost, quantity).getTax(), fixedPoint.apply(type, unitCost, quantity).getTax());
+        assertEquals(0, reference.getWeightedAveragePrice().compareTo(fixedPoint.getWeightedAveragePrice()));
+        assertEquals(reference.getStockQuantity(), fixedPoint.getStockQuantity());
+        assertEquals(0, reference.getAccumulatedLoss().compareTo(fixedPoint.getAccumulatedLoss()));
+    }
+}
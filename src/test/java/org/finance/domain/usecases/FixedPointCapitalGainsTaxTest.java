@@ -0,0 +1,164 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxBatch;
+import org.finance.domain.entities.TaxResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedPointCapitalGainsTaxTest {
+
+    private CalculateCapitalGainsTax reference;
+    private FixedPointCapitalGainsTax fixedPoint;
+
+    @BeforeEach
+    void setUp() {
+        reference = new CalculateCapitalGainsTax();
+        fixedPoint = new FixedPointCapitalGainsTax();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 7L, 42L, 2024L, 987654321L})
+    void shouldMatchBigDecimalEngineOnRandomHistories(long seed) {
+        Random random = new Random(seed);
+
+        for (int history = 0; history < 500; history++) {
+            List<Operation> ops = randomHistory(random, 1 + random.nextInt(80));
+
+            assertSameTaxes(ops);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {3L, 99L, 31337L})
+    void shouldMatchBigDecimalEngineOnColumnarBatches(long seed) {
+        Random random = new Random(seed);
+
+        for (int history = 0; history < 500; history++) {
+            List<Operation> ops = randomHistory(random, 1 + random.nextInt(80));
+            OperationBatch batch = new OperationBatch(4);
+            for (Operation op : ops) {
+                batch.add(op.getType(), FixedPointCapitalGainsLedger.toCents(op.getUnitCost()), op.getQuantity());
+            }
+
+            List<TaxResult> expected = reference.calculate(ops);
+            TaxBatch actual = reference.calculate(batch);
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getTax(), actual.tax(i), "operation " + i + " of " + ops);
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectColumnarBatchThatOverflows() {
+        OperationBatch batch = new OperationBatch();
+        batch.add(OperationType.BUY, 9_999_999_999L, Long.MAX_VALUE / 1000);
+
+        assertThrows(ArithmeticException.class, () -> reference.calculate(batch));
+    }
+
+    @Test
+    void shouldMatchBigDecimalEngineOnChallengeCase() {
+        List<Operation> ops = List.of(
+                new Operation(OperationType.BUY, new BigDecimal("5000.0"), 10),
+                new Operation(OperationType.SELL, new BigDecimal("4000.0"), 5),
+                new Operation(OperationType.BUY, new BigDecimal("15000.0"), 5),
+                new Operation(OperationType.BUY, new BigDecimal("4000.0"), 2),
+                new Operation(OperationType.BUY, new BigDecimal("23000.0"), 2),
+                new Operation(OperationType.SELL, new BigDecimal("20000.0"), 1),
+                new Operation(OperationType.SELL, new BigDecimal("12000.0"), 10),
+                new Operation(OperationType.SELL, new BigDecimal("15000.0"), 3)
+        );
+
+        assertSameTaxes(ops);
+    }
+
+    @Test
+    void shouldFallBackWhenUnitCostHasSubCentDigits() {
+        List<Operation> ops = List.of(
+                new Operation(OperationType.BUY, new BigDecimal("10.00"), 10000),
+                new Operation(OperationType.SELL, new BigDecimal("20.005"), 3000),
+                new Operation(OperationType.BUY, new BigDecimal("10.333"), 777),
+                new Operation(OperationType.SELL, new BigDecimal("25.00"), 7777)
+        );
+
+        assertSameTaxes(ops);
+    }
+
+    @Test
+    void shouldFallBackWhenAmountsOverflow() {
+        List<Operation> ops = List.of(
+                new Operation(OperationType.BUY, new BigDecimal("10.00"), 10000),
+                new Operation(OperationType.SELL, new BigDecimal("2.00"), 5000),
+                new Operation(OperationType.BUY, new BigDecimal("99999999.99"), Long.MAX_VALUE / 1000),
+                new Operation(OperationType.SELL, new BigDecimal("123456789.12"), Long.MAX_VALUE / 2000),
+                new Operation(OperationType.SELL, new BigDecimal("50.00"), 1000)
+        );
+
+        assertSameTaxes(ops);
+    }
+
+    @Test
+    void shouldRoundTiesAwayFromZero() {
+        assertEquals(3, FixedPointCapitalGainsLedger.divideHalfUp(5, 2));
+        assertEquals(-3, FixedPointCapitalGainsLedger.divideHalfUp(-5, 2));
+        assertEquals(2, FixedPointCapitalGainsLedger.divideHalfUp(7, 4));
+        assertEquals(1, FixedPointCapitalGainsLedger.divideHalfUp(5, 4));
+        assertEquals(0, FixedPointCapitalGainsLedger.divideHalfUp(0, 3));
+    }
+
+    private void assertSameTaxes(List<Operation> ops) {
+        List<TaxResult> expected = reference.calculate(ops);
+        List<TaxResult> actual = fixedPoint.calculate(ops);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTax(), actual.get(i).getTax(), "operation " + i + " of " + ops);
+        }
+    }
+
+    private static List<Operation> randomHistory(Random random, int length) {
+        List<Operation> ops = new ArrayList<>(length);
+        long held = 0;
+        long priceCents = 100 + random.nextInt(10_000);
+
+        for (int i = 0; i < length; i++) {
+            priceCents = Math.max(1, priceCents + random.nextInt(601) - 300);
+            BigDecimal unitCost = BigDecimal.valueOf(priceCents, 2);
+            if (random.nextInt(10) == 0) {
+                // Exercise prices written with fewer decimals
+                unitCost = unitCost.stripTrailingZeros();
+            }
+
+            boolean sell = held > 0 && random.nextBoolean();
+            if (sell) {
+                long quantity = random.nextInt(4) == 0 ? held : 1 + (long) (random.nextDouble() * held);
+                if (random.nextInt(50) == 0) {
+                    // Occasionally oversell to cover negative positions
+                    quantity += 1 + random.nextInt(100);
+                }
+                ops.add(new Operation(OperationType.SELL, unitCost, quantity));
+                held -= quantity;
+            } else {
+                long quantity = 1 + random.nextInt(random.nextBoolean() ? 100 : 20_000);
+                ops.add(new Operation(OperationType.BUY, unitCost, quantity));
+                held += quantity;
+            }
+        }
+        return ops;
+    }
+}
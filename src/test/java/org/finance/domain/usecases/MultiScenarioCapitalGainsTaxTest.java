@@ -0,0 +1,86 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxBatch;
+import org.finance.domain.entities.TaxResult;
+import org.finance.domain.entities.TaxRules;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultiScenarioCapitalGainsTaxTest {
+
+    private static final List<TaxRules> SCENARIOS = List.of(
+            TaxRules.DEFAULT,
+            new TaxRules("rate-15", new BigDecimal("0.15"), new BigDecimal("20000.00"), TaxRules.LossOffset.CARRY_FORWARD),
+            new TaxRules("no-exemption", new BigDecimal("0.20"), BigDecimal.ZERO, TaxRules.LossOffset.CARRY_FORWARD),
+            new TaxRules("no-offset", new BigDecimal("0.225"), new BigDecimal("35000.005"), TaxRules.LossOffset.NONE));
+
+    private final MultiScenarioCapitalGainsTax engine = new MultiScenarioCapitalGainsTax(SCENARIOS);
+
+    @Test
+    void shouldMatchSeparateRunUnderEachScenario() {
+        Random random = new Random(21);
+        List<Operation> ops = new ArrayList<>();
+        Map<String, Long> held = new HashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            String account = random.nextInt(4) == 0 ? null : "acc-" + random.nextInt(5);
+            long position = held.getOrDefault(String.valueOf(account), 0L);
+            BigDecimal unitCost = BigDecimal.valueOf(500 + random.nextInt(3_000), 2);
+            if (position > 0 && random.nextBoolean()) {
+                long quantity = random.nextInt(5) == 0 ? position : 1 + random.nextLong(position);
+                ops.add(new Operation(OperationType.SELL, unitCost, quantity, account, account == null ? null : "T"));
+                held.put(String.valueOf(account), position - quantity);
+            } else {
+                long quantity = 1 + random.nextInt(5_000);
+                ops.add(new Operation(OperationType.BUY, unitCost, quantity, account, account == null ? null : "T"));
+                held.put(String.valueOf(account), position + quantity);
+            }
+        }
+
+        assertMatchesSeparateRuns(ops, engine.calculate(ops));
+        assertSameTaxes(new CalculateCapitalGainsTax().calculate(ops), engine.calculate(ops)[0]);
+    }
+
+    @Test
+    void shouldFallBackToExactArithmeticForSubCentPrices() {
+        List<Operation> ops = List.of(
+                new Operation(OperationType.BUY, new BigDecimal("10.005"), 10_000),
+                new Operation(OperationType.SELL, new BigDecimal("5.00"), 2_000),
+                new Operation(OperationType.SELL, new BigDecimal("20.001"), 8_000));
+
+        assertMatchesSeparateRuns(ops, engine.calculate(ops));
+    }
+
+    @Test
+    void shouldRejectDuplicateScenarioNames() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MultiScenarioCapitalGainsTax(List.of(TaxRules.DEFAULT, TaxRules.DEFAULT)));
+    }
+
+    private static void assertMatchesSeparateRuns(List<Operation> ops, TaxBatch[] taxes) {
+        assertEquals(SCENARIOS.size(), taxes.length);
+        for (int s = 0; s < SCENARIOS.size(); s++) {
+            TaxRules rules = SCENARIOS.get(s);
+            PositionLedgers ledgers = new PositionLedgers(() -> new CapitalGainsLedger(rules));
+            List<TaxResult> expected = ops.stream().map(op -> ledgers.ledgerFor(op).apply(op)).toList();
+            assertSameTaxes(expected, taxes[s]);
+        }
+    }
+
+    private static void assertSameTaxes(List<TaxResult> expected, TaxBatch actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTax(), actual.tax(i), "operation " + i);
+        }
+    }
+}
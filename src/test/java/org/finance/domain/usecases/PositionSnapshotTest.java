@@ -0,0 +1,64 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.PositionKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PositionSnapshotTest {
+
+    @Test
+    void shouldLeaveEarlierSnapshotsUnchanged() {
+        PositionSnapshot first = PositionSnapshot.EMPTY;
+        for (int i = 0; i < 2_000; i++) {
+            first = first.with(key(i), ledger(i));
+        }
+        PositionSnapshot second = first.with(key(7), ledger(70)).with(key(5_000), ledger(1));
+
+        assertEquals(2_000, first.size());
+        assertEquals(2_001, second.size());
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(i, quantity(first, key(i)));
+        }
+        assertEquals(70, quantity(second, key(7)));
+        assertEquals(8, quantity(second, key(8)));
+        assertNull(first.get(key(5_000)));
+    }
+
+    @Test
+    void shouldKeepKeysWhoseHashesCollide() {
+        // "Aa" and "BB" have the same hash code
+        PositionKey aa = new PositionKey("Aa", null);
+        PositionKey bb = new PositionKey("BB", null);
+        PositionSnapshot snapshot = PositionSnapshot.EMPTY.with(aa, ledger(1)).with(bb, ledger(2))
+                .with(new PositionKey("C#", null), ledger(3)).with(aa, ledger(4));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(4, quantity(snapshot, aa));
+        assertEquals(2, quantity(snapshot, bb));
+        assertNull(snapshot.get(new PositionKey("Ab", null)));
+    }
+
+    private static PositionKey key(int i) {
+        return new PositionKey("acc-" + i, i % 2 == 0 ? "T" : null);
+    }
+
+    private static CapitalGainsLedger ledger(long quantity) {
+        CapitalGainsLedger ledger = new CapitalGainsLedger();
+        if (quantity > 0) {
+            ledger.apply(new Operation(OperationType.BUY, new BigDecimal("10.00"), quantity));
+        }
+        return ledger;
+    }
+
+    private static long quantity(PositionSnapshot snapshot, PositionKey key) {
+        CapitalGainsLedger ledger = new CapitalGainsLedger();
+        snapshot.get(key).restoreInto(ledger);
+        return ledger.getStockQuantity();
+    }
+}
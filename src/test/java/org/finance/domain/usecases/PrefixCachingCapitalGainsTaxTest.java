@@ -0,0 +1,147 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxResult;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrefixCachingCapitalGainsTaxTest {
+
+    private final CalculateCapitalGainsTax reference = new CalculateCapitalGainsTax();
+
+    @Test
+    void shouldReuseSharedPrefixAndCalculateOnlyTheSuffix() {
+        PrefixCachingCapitalGainsTax cached = new PrefixCachingCapitalGainsTax(new CalculateCapitalGainsTax(), 1_000, 8);
+        List<Operation> history = history(new Random(3), 100, false);
+
+        List<Operation> first = new ArrayList<>(history);
+        first.add(new Operation(OperationType.SELL, new BigDecimal("30.00"), 1));
+        List<Operation> second = new ArrayList<>(history);
+        second.add(new Operation(OperationType.SELL, new BigDecimal("5.00"), 1));
+
+        assertSameTaxes(reference.calculate(first), cached.calculate(first));
+        assertEquals(0, cached.getReusedOperations());
+
+        assertSameTaxes(reference.calculate(second), cached.calculate(second));
+        assertEquals(96, cached.getReusedOperations());
+        assertEquals(101 + 5, cached.getCalculatedOperations());
+    }
+
+    @Test
+    void shouldResumeFromLastMatchingBoundaryWhenHistoriesDiverge() {
+        PrefixCachingCapitalGainsTax cached = new PrefixCachingCapitalGainsTax(new FixedPointCapitalGainsTax(), 1_000, 8);
+        Random random = new Random(11);
+        List<Operation> base = history(random, 200, true);
+        cached.calculate(base);
+
+        for (int cut : new int[]{0, 7, 8, 9, 63, 64, 150, 200}) {
+            List<Operation> variant = new ArrayList<>(base.subList(0, cut));
+            variant.addAll(history(random, 40, true));
+            assertSameTaxes(reference.calculate(variant), cached.calculate(variant));
+        }
+    }
+
+    @Test
+    void shouldStayCorrectWhenBoundariesAreEvicted() {
+        PrefixCachingCapitalGainsTax cached = new PrefixCachingCapitalGainsTax(new CalculateCapitalGainsTax(), 3, 4);
+        Random random = new Random(5);
+        List<Operation> history = history(random, 64, true);
+
+        for (int i = 0; i < 5; i++) {
+            List<Operation> variant = new ArrayList<>(history.subList(0, random.nextInt(history.size())));
+            variant.addAll(history(random, 10, true));
+            assertSameTaxes(reference.calculate(variant), cached.calculate(variant));
+        }
+        assertEquals(3, cached.size());
+    }
+
+    @Test
+    void shouldNotCacheBlockWithFailingOperation() {
+        PrefixCachingCapitalGainsTax cached = new PrefixCachingCapitalGainsTax(new CalculateCapitalGainsTax(), 100, 4);
+        List<Operation> ops = new ArrayList<>(history(new Random(1), 8, false));
+        ops.set(6, new Operation(OperationType.BUY, null, 10));
+        List<TaxResult> emitted = new ArrayList<>();
+
+        assertThrows(NullPointerException.class, () -> cached.calculate(ops, emitted::add));
+        assertEquals(6, emitted.size());
+        assertThrows(NullPointerException.class, () -> cached.calculate(ops));
+        assertEquals(1, cached.size());
+    }
+
+    @Test
+    void shouldNotFollowBoundaryWhoseBlockOnlySharesTheHash() {
+        PrefixCachingCapitalGainsTax cached = new PrefixCachingCapitalGainsTax(new CalculateCapitalGainsTax(), 100, 1);
+        // Same FNV-1a steps as the engine: type, scale, unscaled value, then quantity
+        long prime = 0x100000001b3L;
+        long state = ((0xcbf29ce484222325L ^ OperationType.BUY.ordinal()) * prime ^ 2) * prime;
+        long original = (state ^ 1000) * prime;
+        long unscaled = 1000;
+        long quantity;
+        do {
+            unscaled++;
+            quantity = original ^ ((state ^ unscaled) * prime) ^ 1000;
+        } while (quantity < 1000);
+
+        List<Operation> first = List.of(new Operation(OperationType.BUY, new BigDecimal("10.00"), 1000),
+                new Operation(OperationType.SELL, new BigDecimal("50.00"), 1000));
+        List<Operation> colliding = List.of(new Operation(OperationType.BUY, BigDecimal.valueOf(unscaled, 2), quantity),
+                new Operation(OperationType.SELL, new BigDecimal("50.00"), 1000));
+
+        assertSameTaxes(reference.calculate(first), cached.calculate(first));
+        assertSameTaxes(reference.calculate(colliding), cached.calculate(colliding));
+        assertEquals(0, cached.getReusedOperations());
+    }
+
+    @Test
+    void shouldRestorePositionsLeftUntouchedForManyBlocks() {
+        PrefixCachingCapitalGainsTax cached = new PrefixCachingCapitalGainsTax(new CalculateCapitalGainsTax(), 1_000, 4);
+        Random random = new Random(21);
+        // Opens 500 positions up front, then trades only a few of them per block
+        List<Operation> base = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            base.add(new Operation(OperationType.BUY, BigDecimal.valueOf(1_000 + i, 2), 100, "acc-" + i, "T"));
+        }
+        for (int i = 0; i < 200; i++) {
+            String account = "acc-" + random.nextInt(10);
+            base.add(new Operation(i % 2 == 0 ? OperationType.BUY : OperationType.SELL,
+                    BigDecimal.valueOf(500 + random.nextInt(3_000), 2), 1 + random.nextInt(50), account, "T"));
+        }
+        cached.calculate(base);
+
+        for (int cut : new int[]{500, 600, 700}) {
+            List<Operation> variant = new ArrayList<>(base.subList(0, cut));
+            for (int i = 0; i < 500; i += 7) {
+                variant.add(new Operation(OperationType.SELL, new BigDecimal("40.00"), 100, "acc-" + i, "T"));
+            }
+            assertSameTaxes(reference.calculate(variant), cached.calculate(variant));
+        }
+    }
+
+    private static List<Operation> history(Random random, int size, boolean keyed) {
+        List<Operation> ops = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String account = keyed && random.nextBoolean() ? "acc-" + random.nextInt(3) : null;
+            BigDecimal unitCost = BigDecimal.valueOf(500 + random.nextInt(3_000), 2);
+            // Sell small quantities so every position usually has stock left
+            OperationType type = i % 3 == 2 ? OperationType.SELL : OperationType.BUY;
+            long quantity = type == OperationType.SELL ? 1 + random.nextInt(50) : 100 + random.nextInt(5_000);
+            ops.add(new Operation(type, unitCost, quantity, account, null));
+        }
+        return ops;
+    }
+
+    private static void assertSameTaxes(List<TaxResult> expected, List<TaxResult> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTax(), actual.get(i).getTax(), "operation " + i);
+        }
+    }
+}
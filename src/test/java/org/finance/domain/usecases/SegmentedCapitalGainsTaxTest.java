@@ -0,0 +1,104 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SegmentedCapitalGainsTaxTest {
+
+    private CalculateCapitalGainsTax reference;
+    private SegmentedCapitalGainsTax segmented;
+    private SegmentedCapitalGainsTax segmentedFixed;
+
+    @BeforeEach
+    void setUp() {
+        reference = new CalculateCapitalGainsTax();
+        segmented = new SegmentedCapitalGainsTax(new CalculateCapitalGainsTax(), 4, 8);
+        segmentedFixed = new SegmentedCapitalGainsTax(new FixedPointCapitalGainsTax(), 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        segmented.close();
+        segmentedFixed.close();
+    }
+
+    @Test
+    void shouldMatchSequentialEngineAcrossManySegments() {
+        List<Operation> ops = randomHistory(new Random(20), 5_000);
+
+        List<TaxResult> expected = reference.calculate(ops);
+        assertSameTaxes(expected, segmented.calculate(ops));
+        assertSameTaxes(expected, segmentedFixed.calculate(ops));
+    }
+
+    @Test
+    void shouldCarryLossThatOutlivesSeveralChunks() {
+        List<Operation> ops = new ArrayList<>();
+        // A large loss up front, then small profitable round trips that take about 225 trips to offset it
+        ops.add(new Operation(OperationType.BUY, new BigDecimal("100.00"), 100_000));
+        ops.add(new Operation(OperationType.SELL, new BigDecimal("10.00"), 100_000));
+        for (int i = 0; i < 400; i++) {
+            ops.add(new Operation(OperationType.BUY, new BigDecimal("10.00"), 5_000));
+            ops.add(new Operation(OperationType.BUY, new BigDecimal("12.00"), 5_000));
+            ops.add(new Operation(OperationType.SELL, new BigDecimal("15.00"), 10_000));
+        }
+
+        List<TaxResult> expected = reference.calculate(ops);
+        assertEquals(0, expected.get(4).getTax().signum());
+        assertEquals(1, expected.get(ops.size() - 1).getTax().signum());
+        assertSameTaxes(expected, segmented.calculate(ops));
+        assertSameTaxes(expected, segmentedFixed.calculate(ops));
+    }
+
+    @Test
+    void shouldEmitResultsBeforeFailingOperationThenRethrow() {
+        List<Operation> ops = randomHistory(new Random(5), 200);
+        ops.set(150, new Operation(OperationType.BUY, null, 10));
+        List<TaxResult> emitted = new ArrayList<>();
+
+        assertThrows(NullPointerException.class, () -> segmented.calculate(ops, emitted::add));
+        assertEquals(150, emitted.size());
+        assertSameTaxes(reference.calculate(ops.subList(0, 150)), emitted);
+    }
+
+    /**
+     * Round trips that sometimes close the position and sometimes leave it open, with prices
+     * on both sides of the average and sales on both sides of the exemption threshold.
+     */
+    private static List<Operation> randomHistory(Random random, int size) {
+        List<Operation> ops = new ArrayList<>(size);
+        long held = 0;
+        while (ops.size() < size) {
+            BigDecimal unitCost = BigDecimal.valueOf(500 + random.nextInt(3_000), 2);
+            if (held > 0 && random.nextInt(3) > 0) {
+                long quantity = random.nextInt(4) == 0 ? held : 1 + random.nextLong(held);
+                ops.add(new Operation(OperationType.SELL, unitCost, quantity));
+                held -= quantity;
+            } else {
+                long quantity = 1 + random.nextInt(5_000);
+                ops.add(new Operation(OperationType.BUY, unitCost, quantity));
+                held += quantity;
+            }
+        }
+        return ops;
+    }
+
+    private static void assertSameTaxes(List<TaxResult> expected, List<TaxResult> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTax(), actual.get(i).getTax(), "operation " + i);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.finance.domain.usecases;
+
+import org.finance.domain.entities.Operation;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.PositionKey;
+import org.finance.domain.entities.TaxResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardedCapitalGainsTaxTest {
+
+    private CalculateCapitalGainsTax reference;
+    private ShardedCapitalGainsTax sharded;
+
+    @BeforeEach
+    void setUp() {
+        reference = new CalculateCapitalGainsTax();
+        sharded = new ShardedCapitalGainsTax(new FixedPointCapitalGainsTax(), 4, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sharded.close();
+    }
+
+    @Test
+    void shouldKeepPositionsIndependentAndOutputInInputOrder() {
+        Random random = new Random(17);
+        List<Operation> ops = new ArrayList<>();
+        Map<PositionKey, List<Integer>> indexesByKey = new HashMap<>();
+        Map<PositionKey, Long> held = new HashMap<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            String account = random.nextInt(10) == 0 ? null : "acc-" + random.nextInt(40);
+            String ticker = random.nextInt(10) == 0 ? null : "T" + random.nextInt(3);
+            PositionKey key = new PositionKey(account, ticker);
+            long position = held.getOrDefault(key, 0L);
+            BigDecimal unitCost = BigDecimal.valueOf(500 + random.nextInt(3_000), 2);
+
+            Operation op;
+            if (position > 0 && random.nextBoolean()) {
+                long quantity = 1 + random.nextLong(position);
+                op = new Operation(OperationType.SELL, unitCost, quantity, account, ticker);
+                held.put(key, position - quantity);
+            } else {
+                long quantity = 1 + random.nextInt(5_000);
+                op = new Operation(OperationType.BUY, unitCost, quantity, account, ticker);
+                held.put(key, position + quantity);
+            }
+            ops.add(op);
+            indexesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        List<TaxResult> expected = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            expected.add(null);
+        }
+        indexesByKey.values().forEach(indexes -> {
+            List<Operation> history = indexes.stream().map(ops::get).toList();
+            List<TaxResult> taxes = reference.calculate(history.stream()
+                    .map(op -> new Operation(op.getType(), op.getUnitCost(), op.getQuantity()))
+                    .toList());
+            for (int i = 0; i < indexes.size(); i++) {
+                expected.set(indexes.get(i), taxes.get(i));
+            }
+        });
+
+        assertSameTaxes(expected, reference.calculate(ops));
+        assertSameTaxes(expected, sharded.calculate(ops));
+    }
+
+    @Test
+    void shouldMatchSequentialEngineOnUnkeyedHistory() {
+        List<Operation> ops = List.of(
+                new Operation(OperationType.BUY, new BigDecimal("10.00"), 10000),
+                new Operation(OperationType.SELL, new BigDecimal("20.00"), 5000),
+                new Operation(OperationType.SELL, new BigDecimal("5.00"), 5000)
+        );
+
+        assertSameTaxes(reference.calculate(ops), sharded.calculate(ops));
+    }
+
+    @Test
+    void shouldEmitResultsBeforeFailingOperationThenRethrow() {
+        List<Operation> ops = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ops.add(new Operation(OperationType.BUY, new BigDecimal("10.00"), 10, "acc-" + i, "X"));
+        }
+        ops.set(12, new Operation(OperationType.BUY, null, 10, "acc-12", "X"));
+        List<TaxResult> emitted = new ArrayList<>();
+
+        assertThrows(NullPointerException.class, () -> sharded.calculate(ops, emitted::add));
+        assertEquals(12, emitted.size());
+    }
+
+    @Test
+    void shouldEmitResultsReadBeforeSourceFailureThenRethrow() {
+        List<Operation> ops = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ops.add(new Operation(OperationType.BUY, new BigDecimal("10.00"), 10, "acc-" + i, "X"));
+        }
+        // Like the lazy DTO iterator of --stream, which fails on the operation it cannot decode
+        Iterable<Operation> failingAfter17 = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == 17) {
+                    throw new IllegalArgumentException("Unknown operation type: transfer");
+                }
+                return next < ops.size();
+            }
+
+            @Override
+            public Operation next() {
+                return ops.get(next++);
+            }
+        };
+        List<TaxResult> emitted = new ArrayList<>();
+
+        assertThrows(IllegalArgumentException.class, () -> sharded.calculate(failingAfter17, emitted::add));
+        assertEquals(17, emitted.size());
+    }
+
+    private static void assertSameTaxes(List<TaxResult> expected, List<TaxResult> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTax(), actual.get(i).getTax(), "operation " + i);
+        }
+    }
+}
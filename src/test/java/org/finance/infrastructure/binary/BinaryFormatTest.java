@@ -0,0 +1,124 @@
+package org.finance.infrastructure.binary;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.application.dto.TaxResultDTO;
+import org.finance.domain.entities.OperationBatch;
+import org.finance.domain.entities.OperationType;
+import org.finance.domain.entities.TaxBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryFormatTest {
+
+    @Test
+    void shouldRoundTripOperations() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryOperationWriter writer = new BinaryOperationWriter(bytes)) {
+            writer.writeSimulation(List.of(
+                    new OperationDTO("buy", new BigDecimal("10.00"), 10000),
+                    new OperationDTO("SELL", new BigDecimal("20.5"), 5000)));
+            writer.writeSimulation(List.of());
+        }
+        assertEquals(4 + 4 + 2 * BinaryFormat.OPERATION_RECORD_BYTES + 4, bytes.size());
+
+        BinaryOperationReader reader = new BinaryOperationReader(new ByteArrayInputStream(bytes.toByteArray()));
+        OperationBatch operations = new OperationBatch();
+        assertTrue(reader.next(operations));
+        assertEquals(2, operations.size());
+        assertEquals(OperationType.BUY, operations.type(0));
+        assertEquals(1000, operations.unitCostCents(0));
+        assertEquals(10000, operations.quantity(0));
+        assertEquals(OperationType.SELL, operations.type(1));
+        assertEquals(2050, operations.unitCostCents(1));
+        assertTrue(reader.next(operations));
+        assertEquals(0, operations.size());
+        assertFalse(reader.next(operations));
+    }
+
+    @Test
+    void shouldRejectOperationsTheFormatCannotCarry() {
+        BinaryOperationWriter writer = new BinaryOperationWriter(new ByteArrayOutputStream());
+
+        assertThrows(IllegalArgumentException.class, () -> writer.writeSimulation(List.of(
+                new OperationDTO("buy", new BigDecimal("10.001"), 1))));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeSimulation(List.of(
+                new OperationDTO("buy", BigDecimal.TEN, 1, "acc-1", null))));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeSimulation(List.of(
+                new OperationDTO("hold", BigDecimal.TEN, 1))));
+    }
+
+    @Test
+    void shouldStayAlignedAfterUndecodableSimulation() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryFormat.OPERATIONS_MAGIC);
+        out.writeInt(1);
+        out.writeByte(7);
+        out.writeLong(1000);
+        out.writeLong(1);
+        out.writeInt(1);
+        out.writeByte(BinaryFormat.SELL);
+        out.writeLong(1000);
+        out.writeLong(1);
+        out.writeInt(3);
+
+        BinaryOperationReader reader = new BinaryOperationReader(new ByteArrayInputStream(bytes.toByteArray()));
+        OperationBatch operations = new OperationBatch();
+        assertThrows(IllegalArgumentException.class, () -> reader.next(operations));
+        assertTrue(reader.next(operations));
+        assertEquals(OperationType.SELL, operations.type(0));
+        assertThrows(EOFException.class, () -> reader.next(operations));
+    }
+
+    @Test
+    void shouldRejectStreamWithoutMagic() {
+        BinaryOperationReader reader = new BinaryOperationReader(new ByteArrayInputStream(new byte[]{'[', '{', '}', ']'}));
+
+        assertThrows(IOException.class, () -> reader.next(new OperationBatch()));
+    }
+
+    @Test
+    void shouldRoundTripResultsAndFailures() throws IOException {
+        TaxBatch batch = new TaxBatch(2);
+        batch.add(0);
+        batch.add(100_000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryTaxWriter writer = new BinaryTaxWriter(bytes)) {
+            writer.writeSimulation(batch);
+            writer.writeFailure();
+            writer.writeSimulation(List.of(new TaxResultDTO(new BigDecimal("2.50"))));
+        }
+
+        BinaryTaxReader reader = new BinaryTaxReader(new ByteArrayInputStream(bytes.toByteArray()));
+        TaxBatch taxes = new TaxBatch(4);
+        assertTrue(reader.next(taxes));
+        assertFalse(reader.failed());
+        assertArrayEquals(new long[]{0, 100_000}, unscaled(taxes));
+        assertTrue(reader.next(taxes));
+        assertTrue(reader.failed());
+        assertEquals(0, taxes.size());
+        assertTrue(reader.next(taxes));
+        assertEquals(new BigDecimal("2.5"), taxes.tax(0));
+        assertFalse(reader.next(taxes));
+    }
+
+    private static long[] unscaled(TaxBatch taxes) {
+        long[] values = new long[taxes.size()];
+        Arrays.setAll(values, taxes::unscaledTax);
+        return values;
+    }
+}
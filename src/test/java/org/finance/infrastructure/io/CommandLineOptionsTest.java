@@ -0,0 +1,66 @@
+package org.finance.infrastructure.io;
+
+import org.finance.infrastructure.io.CommandLineOptions.Mode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CommandLineOptionsTest {
+
+    @Test
+    void shouldSelectModeFromItsFlag() {
+        assertEquals(Mode.LINE, parse().getMode());
+        assertEquals(Mode.LINE, parse("--input", "in.json", "--parallel", "4", "--format", "json").getMode());
+        assertEquals(Mode.STREAM, parse("--stream", "--shards", "8").getMode());
+        assertEquals(Mode.BINARY, parse("--format", "binary").getMode());
+        assertEquals(Mode.CHECKPOINT, parse("--input", "in.json", "--checkpoint", "in.ckpt", "--resume").getMode());
+
+        CommandLineOptions follow = parse("--follow", "feed.json", "--journal", "results.journal");
+        assertEquals(Mode.FOLLOW, follow.getMode());
+        assertEquals(Path.of("feed.json.position"), follow.getFollowPositionFile());
+    }
+
+    @Test
+    void shouldRejectSecondModeFlag() {
+        assertRejected("--stream cannot be combined with --serve", "--serve", "8080", "--stream");
+        assertRejected("--pipeline cannot be combined with --format binary", "--format", "binary", "--pipeline");
+    }
+
+    @Test
+    void shouldRejectOptionTheModeWouldIgnore() {
+        assertRejected("--stream cannot be combined with --parallel", "--stream", "--parallel", "4");
+        assertRejected("--convert cannot be combined with --engine", "--convert", "operations-to-binary",
+                "--engine", "fixed");
+        assertRejected("--journal-query cannot be combined with --input", "--journal", "results.journal",
+                "--journal-query", "1", "--input", "in.json");
+    }
+
+    @Test
+    void shouldNameTheModesAnOptionBelongsTo() {
+        assertRejected("--resume requires --checkpoint", "--resume");
+        assertRejected("--output-dir requires --batch", "--output-dir", "out");
+        assertRejected("--max-concurrent requires --serve", "--max-concurrent", "10");
+        assertRejected("--checkpoint requires --input", "--checkpoint", "in.ckpt");
+        assertRejected("--journal-query requires --journal", "--journal-query", "1");
+    }
+
+    @Test
+    void shouldRejectModifiersThatBypassEachOther() {
+        assertRejected("--columnar requires --codec fast", "--columnar");
+        assertRejected("--segmented cannot be combined with --shards", "--shards", "2", "--segmented", "2");
+        assertRejected("--prefix-cache cannot be combined with --columnar", "--codec", "fast", "--columnar",
+                "--prefix-cache", "100");
+    }
+
+    private static CommandLineOptions parse(String... args) {
+        return CommandLineOptions.parse(args);
+    }
+
+    private static void assertRejected(String message, String... args) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> parse(args));
+        assertEquals(message, error.getMessage());
+    }
+}
@@ -1,16 +1,22 @@
 package org.finance.infrastructure.io;
 
+import org.finance.application.metrics.ProcessingMetrics;
 import org.finance.application.services.TaxCalculationService;
 import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.infrastructure.json.FastJsonParser;
 import org.finance.infrastructure.json.JsonParser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,4 +103,346 @@ class CommandLineProcessorTest {
 
         assertDoesNotThrow(() -> commandLineProcessor.process());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStreamSameOutputAsLineBasedProcessing() {
+        String input = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":10000},\n" +
+                "  {\"operation\":\"sell\",\"unit-cost\":20.00,\"quantity\":5000},\n" +
+                "  {\"operation\":\"sell\",\"unit-cost\":5.00,\"quantity\":5000}]\n" +
+                "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100}]\n";
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String lineBased = outContent.toString();
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        commandLineProcessor.processStreaming(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), streamed);
+
+        assertEquals(lineBased, streamed.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldSkipFailedSimulationAndKeepStreaming() {
+        String valid = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100}]\n";
+        String input = valid +
+                "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100},\n" +
+                "  {\"operation\":\"transfer\",\"unit-cost\":10.00,\"quantity\":100},\n" +
+                "  {\"operation\":\"sell\",\"unit-cost\":20.00,\"quantity\":100}]\n" +
+                "[{\"operation\":\"buy\",\"unit-cost\":\"ten\",\"quantity\":100,\"ticker\":\"]\"}]\n" +
+                valid;
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        commandLineProcessor.processStreaming(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), streamed);
+
+        String separator = System.lineSeparator();
+        assertEquals(separator + "[{\"tax\":0.0}]" + separator + "[{\"tax\":0.0}]" + separator + "[]"
+                + separator + "[{\"tax\":0.0}]", streamed.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldCloseArrayWhenStreamedInputIsTruncated() {
+        String input = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100},\n" +
+                "{\"operation\":\"sell\",\"unit-cost\":";
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        assertDoesNotThrow(() -> commandLineProcessor.processStreaming(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), streamed));
+
+        assertEquals(System.lineSeparator() + "[{\"tax\":0.0}]", streamed.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldKeepInputOrderWhenProcessingInParallel() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            if (i == 57) {
+                input.append("[{\"operation\":\"buy\",\"unit-cost\":oops,\"quantity\":1}]\n");
+            }
+            input.append("[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":").append(1000 + i).append("},")
+                    .append("{\"operation\":\"sell\",\"unit-cost\":").append(20 + i % 7).append(".00,\"quantity\":")
+                    .append(1000 + i).append("}]\n");
+        }
+        byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+
+        System.setIn(new ByteArrayInputStream(bytes));
+        commandLineProcessor.process();
+        String sequential = outContent.toString();
+
+        outContent.reset();
+        System.setIn(new ByteArrayInputStream(bytes));
+        commandLineProcessor.processParallel(4);
+
+        assertEquals(sequential, outContent.toString());
+    }
+
+    @Test
+    void shouldProcessMappedFileLikeStdin(@TempDir Path tempDir) throws Exception {
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":10.00, \"quantity\": 5000}]\n" +
+                "\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":30.00, \"quantity\": 10000}]\n";
+        Path file = tempDir.resolve("input.json");
+        Files.writeString(file, input);
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String fromStdin = outContent.toString();
+        assertEquals(2, fromStdin.lines().filter(line -> !line.isEmpty()).count());
+
+        outContent.reset();
+        commandLineProcessor.processFile(file, 2);
+
+        assertEquals(fromStdin, outContent.toString());
+    }
+
+    @Test
+    void shouldPrintSameOutputWithFastCodec(@TempDir Path tempDir) throws Exception {
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"buy\",\"unit-cost\":oops,\"quantity\":1}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":10.00, \"quantity\": 5000}]\n";
+        Path file = tempDir.resolve("input.json");
+        Files.writeString(file, input);
+        CommandLineProcessor fastProcessor = new CommandLineProcessor(new FastJsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax()));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString();
+
+        outContent.reset();
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        fastProcessor.process();
+        assertEquals(expected, outContent.toString());
+
+        outContent.reset();
+        fastProcessor.processFile(file, 2);
+        assertEquals(expected, outContent.toString());
+    }
+
+    @Test
+    void shouldPrintSameOutputInColumnarMode(@TempDir Path tempDir) throws Exception {
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":10.005, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":99999999.99, \"quantity\": 9223372036854775}]\n" +
+                "[{\"operation\":\"buy\",\"unit-cost\":oops,\"quantity\":1}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":10.00, \"quantity\": 5000}]\n";
+        Path file = tempDir.resolve("input.json");
+        Files.writeString(file, input);
+        CommandLineProcessor columnarProcessor = new CommandLineProcessor(new FastJsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax()), true);
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString();
+
+        outContent.reset();
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        columnarProcessor.process();
+        assertEquals(expected, outContent.toString());
+
+        outContent.reset();
+        columnarProcessor.processFile(file, 3);
+        assertEquals(expected, outContent.toString());
+    }
+
+    @Test
+    void shouldResumeFromCheckpointWhereverTheRunStopped(@TempDir Path tempDir) throws Exception {
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000, \"account\": \"a\"},\n" +
+                "  {\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\": 10000, \"account\": \"b\"} ,\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\": 5000, \"account\": \"a\"},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":30.00, \"quantity\": 5000, \"account\": \"a\"}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 100}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n";
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        Path file = tempDir.resolve("input.json");
+        Path checkpoint = tempDir.resolve("state.ckpt");
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        commandLineProcessor.processStreaming(new ByteArrayInputStream(bytes), expected);
+
+        for (int cut = 0; cut <= bytes.length; cut++) {
+            Files.deleteIfExists(checkpoint);
+            Files.write(file, java.util.Arrays.copyOf(bytes, cut));
+            ByteArrayOutputStream beforeCrash = new ByteArrayOutputStream();
+            commandLineProcessor.processCheckpointed(file, checkpoint, 1, false, beforeCrash, null);
+
+            Files.write(file, bytes);
+            Checkpoint saved = Checkpoint.load(checkpoint);
+            ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+            resumed.write(beforeCrash.toByteArray(), 0, saved == null ? 0 : (int) saved.outputOffset);
+            commandLineProcessor.processCheckpointed(file, checkpoint, 1, true, resumed, null);
+
+            assertEquals(expected.toString(StandardCharsets.UTF_8), resumed.toString(StandardCharsets.UTF_8), "cut at " + cut);
+        }
+    }
+
+    @Test
+    void shouldPrintSameOutputWithResultCache() {
+        String simulation = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n";
+        String input = simulation + "[{\"operation\":\"buy\",\"unit-cost\":oops,\"quantity\":1}]\n" + simulation + simulation;
+        SimulationResultCache cache = new SimulationResultCache(1 << 20);
+        CommandLineProcessor cachedProcessor = new CommandLineProcessor(new JsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax()), false, cache);
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString();
+
+        outContent.reset();
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        cachedProcessor.process();
+
+        assertEquals(expected, outContent.toString());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void shouldNotServeCachedResultToInputThatOnlyDiffersByWhitespaceInsideAToken() {
+        String valid = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10}]\n";
+        String split = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 1 0}]\n";
+        SimulationResultCache cache = new SimulationResultCache(1 << 20);
+        CommandLineProcessor cachedProcessor = new CommandLineProcessor(new JsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax()), false, cache);
+
+        System.setIn(new ByteArrayInputStream(valid.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString();
+
+        outContent.reset();
+        System.setIn(new ByteArrayInputStream((valid + split).getBytes(StandardCharsets.UTF_8)));
+        cachedProcessor.process();
+
+        // "1 0" is a parse error, not a hit on "10"
+        assertEquals(expected, outContent.toString());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void shouldCountCachedSimulationsAndTheBytesTheyTookUp() {
+        // Non-ASCII text and CRLF line ends: bytes in are neither chars nor stripped lines
+        String simulation = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100,\"ticker\":\"AÇÃO3\"},\r\n" +
+                "{\"operation\":\"sell\",\"unit-cost\":15.00,\"quantity\":50,\"ticker\":\"AÇÃO3\"}]\r\n";
+        String input = simulation + simulation + simulation;
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        CommandLineProcessor cachedProcessor = new CommandLineProcessor(new JsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax(), metrics), false,
+                new SimulationResultCache(1 << 20));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        cachedProcessor.process();
+
+        assertEquals(3, metrics.getSimulations());
+        assertEquals(6, metrics.getOperations());
+        assertEquals(input.getBytes(StandardCharsets.UTF_8).length, metrics.getBytesIn());
+    }
+
+    @Test
+    void shouldRecordMetricsForEveryStage() {
+        String simulation = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100}," +
+                "{\"operation\":\"sell\",\"unit-cost\":15.00,\"quantity\":50}]\n";
+        String input = simulation + "[{\"operation\":\"buy\",\"unit-cost\":oops,\"quantity\":1}]\n" + simulation;
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        CommandLineProcessor meteredProcessor = new CommandLineProcessor(new JsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax(), metrics));
+
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        meteredProcessor.process();
+
+        assertEquals(2, metrics.getSimulations());
+        assertEquals(4, metrics.getOperations());
+        assertEquals(1, metrics.getParseErrors());
+        assertEquals(input.length(), metrics.getBytesIn());
+        assertEquals(outContent.size(), metrics.getBytesOut());
+        assertEquals(3, metrics.histogram(ProcessingMetrics.Stage.FRAMING).getCount());
+        assertEquals(3, metrics.histogram(ProcessingMetrics.Stage.PARSE).getCount());
+        assertEquals(2, metrics.histogram(ProcessingMetrics.Stage.CALCULATE).getCount());
+        assertEquals(2, metrics.histogram(ProcessingMetrics.Stage.SERIALIZE).getCount());
+        assertTrue(metrics.histogram(ProcessingMetrics.Stage.WRITE).getCount() > 0);
+    }
+
+    @Test
+    void shouldPrintSameOutputWhenPipelined() {
+        String simulation = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n";
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(i == 57 ? "[{\"operation\":\"buy\",\"unit-cost\":oops,\"quantity\":1}]\n" : simulation);
+        }
+
+        System.setIn(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString();
+
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        CommandLineProcessor processor = new CommandLineProcessor(new JsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax(), metrics));
+        ByteArrayOutputStream pipelined = new ByteArrayOutputStream();
+        processor.processPipelined(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), pipelined, 4);
+
+        assertEquals(expected, pipelined.toString(StandardCharsets.UTF_8));
+        assertTrue(metrics.summary().contains("queues    frame->parse depth avg"));
+    }
+
+    @Test
+    void shouldPrintSameResultsThroughBinaryFormat() {
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":92233720368547758.07, \"quantity\": 10}," +
+                "{\"operation\":\"sell\", \"unit-cost\":92233720368547758.07, \"quantity\": 5}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 100}," +
+                "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\": 50}]\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString();
+
+        BinaryFormatConverter converter = new BinaryFormatConverter(new JsonParser());
+        ByteArrayOutputStream operations = new ByteArrayOutputStream();
+        converter.convert(BinaryFormatConverter.OPERATIONS_TO_BINARY,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), operations);
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        commandLineProcessor.processBinary(new ByteArrayInputStream(operations.toByteArray()), results);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        converter.convert(BinaryFormatConverter.RESULTS_TO_JSON, new ByteArrayInputStream(results.toByteArray()), json);
+
+        assertEquals(expected, json.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReportRejectedSimulationsAndResyncAtNextBoundary() {
+        String valid = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n";
+        String unknownType = "[{\"operation\":\"transfer\",\"unit-cost\":1,\"quantity\":1}]\n";
+        // The string never closes, so the brackets inside it do not end the simulation
+        String unclosed = "[{\"operation\":\"buy\",\"unit-cost\":1,\"quantity\":\"1]}]\n";
+        String input = valid + unknownType + unclosed + valid;
+        System.setIn(new ByteArrayInputStream(valid.getBytes(StandardCharsets.UTF_8)));
+        commandLineProcessor.process();
+        String expected = outContent.toString().repeat(2);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        new ValidatingProcessor(commandLineProcessor).process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                output, errors);
+
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+        int quantityOffset = unclosed.indexOf("\"1]");
+        assertEquals(List.of(
+                "{\"simulation\":2,\"offset\":" + (valid.length() + 1) + ",\"simulation-offset\":1,"
+                        + "\"error\":\"unknown operation \\\"transfer\\\"\"}",
+                "{\"simulation\":3,\"offset\":" + (valid.length() + unknownType.length() + quantityOffset)
+                        + ",\"simulation-offset\":" + quantityOffset + ",\"error\":\"expected a number for \\\"quantity\\\"\"}"),
+                errors.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+}
@@ -0,0 +1,109 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.infrastructure.json.JsonParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectoryBatchProcessorTest {
+
+    private static final String SIMULATION = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+            "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n";
+
+    @TempDir
+    Path tempDir;
+
+    private CommandLineProcessor processor;
+    private final ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() {
+        processor = new CommandLineProcessor(new JsonParser(), new TaxCalculationService(new CalculateCapitalGainsTax()));
+    }
+
+    @Test
+    void shouldWriteOneOutputPerInputFileInDirectory() throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("in"));
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(input.resolve("customer-" + i + ".json"), SIMULATION.repeat(i + 1));
+        }
+        Files.writeString(input.resolve(".hidden"), "ignored");
+        Path output = tempDir.resolve("out");
+
+        int failed = batch(3).process(input.toString(), output);
+
+        assertEquals(0, failed);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected(SIMULATION.repeat(i + 1)), Files.readString(output.resolve("customer-" + i + ".json")));
+        }
+        assertEquals(List.of("customer-0.json", "customer-1.json", "customer-2.json", "customer-3.json",
+                "customer-4.json"), names(output));
+        assertTrue(report.toString().contains("Batch: 5 files, 0 failed, 15 simulations"), report.toString());
+    }
+
+    @Test
+    void shouldMatchGlobAndKeepRelativePaths() throws Exception {
+        Path input = tempDir.resolve("in");
+        Files.createDirectories(input.resolve("a"));
+        Files.createDirectories(input.resolve("b"));
+        Files.writeString(input.resolve("a/input.json"), SIMULATION);
+        Files.writeString(input.resolve("b/input.json"), SIMULATION + SIMULATION);
+        Files.writeString(input.resolve("b/notes.txt"), "not an input");
+        Path output = tempDir.resolve("out");
+
+        int failed = batch(2).process(input + "/*/input.json", output);
+
+        assertEquals(0, failed);
+        assertEquals(expected(SIMULATION), Files.readString(output.resolve("a/input.json")));
+        assertEquals(expected(SIMULATION + SIMULATION), Files.readString(output.resolve("b/input.json")));
+        assertFalse(Files.exists(output.resolve("b/notes.txt")));
+    }
+
+    @Test
+    void shouldReportFileWhoseOutputCannotBePublished() throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("in"));
+        Files.writeString(input.resolve("ok.json"), SIMULATION);
+        Files.writeString(input.resolve("blocked.json"), SIMULATION);
+        Path output = tempDir.resolve("out");
+        // A non-empty directory where the result should go cannot be replaced
+        Files.createDirectories(output.resolve("blocked.json/child"));
+
+        int failed = batch(2).process(input.toString(), output);
+
+        assertEquals(1, failed);
+        assertEquals(expected(SIMULATION), Files.readString(output.resolve("ok.json")));
+        assertTrue(report.toString().contains("blocked.json: FAILED"), report.toString());
+        assertEquals(List.of("blocked.json", "ok.json"), names(output));
+    }
+
+    private DirectoryBatchProcessor batch(int threads) {
+        return new DirectoryBatchProcessor(processor, threads, new PrintStream(report, true, StandardCharsets.UTF_8));
+    }
+
+    private String expected(String input) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> names(Path directory) throws Exception {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+}
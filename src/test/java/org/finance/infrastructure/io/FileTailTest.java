@@ -0,0 +1,146 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.infrastructure.json.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileTailTest {
+
+    private static final String FIRST = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+            "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]";
+    private static final String SECOND = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 100}]";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldHoldBackSimulationsUntilTheyAreComplete() throws IOException {
+        Path file = tempDir.resolve("feed.json");
+        Files.writeString(file, FIRST + "\n" + SECOND.substring(0, 20));
+
+        try (FileTail tail = new FileTail(file, 0, 16)) {
+            assertEquals(FIRST, text(tail.next()));
+            assertNull(tail.next());
+            assertEquals(FIRST.length(), tail.position());
+
+            append(file, SECOND.substring(20) + "\n");
+            assertEquals(SECOND, text(tail.next()));
+            assertNull(tail.next());
+
+            // Truncated and rewritten: start over from the first byte
+            Files.writeString(file, SECOND + "\n");
+            assertEquals(SECOND, text(tail.next()));
+            assertEquals(SECOND.length(), tail.position());
+        }
+    }
+
+    @Test
+    void shouldSwitchToFileRenamedIntoPlaceAfterDrainingTheOldOne() throws IOException {
+        Path file = tempDir.resolve("feed.json");
+        Path rotated = tempDir.resolve("feed.json.new");
+        Files.writeString(file, FIRST + "\n");
+
+        try (FileTail tail = new FileTail(file, 0)) {
+            assertEquals(FIRST, text(tail.next()));
+            assertNull(tail.next());
+
+            // Written to the old file just before the rotation
+            append(file, SECOND + "\n");
+            Files.writeString(rotated, SECOND + "\n" + FIRST + "\n");
+            Files.move(rotated, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            assertEquals(SECOND, text(tail.next()));
+            assertEquals(SECOND, text(tail.next()));
+            assertEquals(FIRST, text(tail.next()));
+            assertNull(tail.next());
+
+            append(file, SECOND + "\n");
+            assertEquals(SECOND, text(tail.next()));
+            assertEquals(2L * SECOND.length() + FIRST.length() + 2, tail.position());
+        }
+    }
+
+    @Test
+    void shouldResumeFollowingWhereThePreviousRunStopped() throws Exception {
+        Path file = tempDir.resolve("feed.json");
+        Path positionFile = tempDir.resolve("feed.json.position");
+        Files.writeString(file, FIRST + "\n");
+        CommandLineProcessor processor = new CommandLineProcessor(new JsonParser(),
+                new TaxCalculationService(new CalculateCapitalGainsTax()));
+
+        String firstRun = follow(processor, file, positionFile, 1, () -> append(file, SECOND + "\n"));
+        assertEquals(List.of("[{\"tax\":0.0},{\"tax\":10000.0}]", "[{\"tax\":0.0}]"), lines(firstRun));
+
+        append(file, FIRST + "\n");
+        String secondRun = follow(processor, file, positionFile, 1, () -> { });
+        assertEquals(List.of("[{\"tax\":0.0},{\"tax\":10000.0}]"), lines(secondRun));
+
+        // A different file under the same name is processed from the start
+        Files.writeString(file, SECOND + "\n");
+        assertEquals(List.of("[{\"tax\":0.0}]"), lines(follow(processor, file, positionFile, 1, () -> { })));
+    }
+
+    /**
+     * Follows {@code file} on another thread, runs {@code append} once {@code expectedBefore}
+     * results are out, and stops when no new output has shown up for a while.
+     */
+    private static String follow(CommandLineProcessor processor, Path file, Path positionFile, int expectedBefore,
+                                 IoAction append) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AtomicBoolean stopped = new AtomicBoolean();
+        Thread follower = Thread.ofPlatform().start(() -> new FollowProcessor(processor).follow(file, positionFile,
+                output, stopped::get));
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (lines(snapshot(output)).size() < expectedBefore && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        append.run();
+        int seen;
+        do {
+            seen = snapshot(output).length();
+            Thread.sleep(4 * FollowProcessor.POLL_MILLIS);
+        } while (snapshot(output).length() != seen);
+
+        stopped.set(true);
+        follower.join();
+        return snapshot(output);
+    }
+
+    private static String snapshot(ByteArrayOutputStream output) {
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> lines(String output) {
+        return output.lines().filter(line -> !line.isEmpty()).toList();
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+
+    private static String text(ByteBuffer simulation) {
+        return StandardCharsets.UTF_8.decode(simulation).toString();
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,89 @@
+package org.finance.infrastructure.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedSimulationReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldSplitSimulationsAcrossLines() throws IOException {
+        String first = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]";
+        String second = "[{\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\": 10000}]";
+
+        List<String> simulations = readAll(first + "\n" + second + "\n", MappedSimulationReader.DEFAULT_WINDOW_SIZE);
+
+        assertEquals(List.of(first, second), simulations);
+    }
+
+    @Test
+    void shouldRemapSimulationsThatStraddleOrExceedTheWindow() throws IOException {
+        StringBuilder content = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            StringBuilder simulation = new StringBuilder("[");
+            for (int j = 0; j <= i; j++) {
+                simulation.append(j > 0 ? "," : "").append("{\"operation\":\"buy\",\"unit-cost\":1.00,\"quantity\":").append(j).append('}');
+            }
+            expected.add(simulation.append(']').toString());
+            content.append(expected.get(i)).append(i % 2 == 0 ? "\n" : "\r\n  ");
+        }
+
+        assertEquals(expected, readAll(content.toString(), 16));
+    }
+
+    @Test
+    void shouldIgnoreBracketsInsideStrings() throws IOException {
+        String simulation = "[{\"operation\":\"b]u\\\"y[\",\"unit-cost\":1,\"quantity\":1}]";
+
+        assertEquals(List.of(simulation), readAll(simulation + "\n", 8));
+    }
+
+    @Test
+    void shouldReturnUnterminatedTrailingSimulation() throws IOException {
+        String complete = "[{\"operation\":\"buy\",\"unit-cost\":1,\"quantity\":1}]";
+        String truncated = "[{\"operation\":\"sell\",";
+
+        assertEquals(List.of(complete, truncated), readAll(complete + "\n" + truncated, 32));
+    }
+
+    @Test
+    void shouldStopAtFirstBlankLineLikeStdin() throws IOException {
+        String first = "[{\"operation\":\"buy\",\"unit-cost\":1,\"quantity\":1}]";
+        String second = "[{\"operation\":\"buy\",\"unit-cost\":2,\n\"quantity\":2}]";
+        String ignored = "[{\"operation\":\"sell\",\"unit-cost\":3,\"quantity\":1}]";
+
+        for (int windowSize : new int[]{8, 64, MappedSimulationReader.DEFAULT_WINDOW_SIZE}) {
+            assertEquals(List.of(first, second), readAll(first + "\r\n" + second + "\r\n \t\r\n" + ignored, windowSize));
+            assertEquals(List.of(first), readAll(first + "\n[{\"operation\":\n\n" + ignored, windowSize));
+            assertEquals(List.of(), readAll("\n" + first, windowSize));
+        }
+    }
+
+    private List<String> readAll(String content, int windowSize) throws IOException {
+        Path file = tempDir.resolve("input.json");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        List<String> simulations = new ArrayList<>();
+        try (MappedSimulationReader reader = new MappedSimulationReader(file, windowSize)) {
+            ByteBuffer simulation;
+            while ((simulation = reader.next()) != null) {
+                simulations.add(StandardCharsets.UTF_8.decode(simulation).toString());
+            }
+        }
+        return simulations;
+    }
+}
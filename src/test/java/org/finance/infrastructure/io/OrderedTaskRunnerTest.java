@@ -0,0 +1,64 @@
+package org.finance.infrastructure.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedTaskRunnerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldDeliverResultsInSubmissionOrder() throws InterruptedException {
+        List<Integer> results = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        OrderedTaskRunner<Integer> runner = new OrderedTaskRunner<>(executor, 5, results::add, e -> errors.add(e.getMessage()));
+
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            runner.submit(() -> {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                if (value == 42) {
+                    throw new IllegalStateException("boom");
+                }
+                return value;
+            });
+        }
+        runner.finish();
+
+        assertEquals(99, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i < 42 ? i : i + 1, results.get(i));
+        }
+        assertEquals(List.of("boom"), errors);
+    }
+
+    @Test
+    void shouldNeverExceedWindow() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        OrderedTaskRunner<Integer> runner = new OrderedTaskRunner<>(executor, 3, r -> running.decrementAndGet(), e -> { });
+
+        for (int i = 0; i < 50; i++) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            runner.submit(() -> 0);
+        }
+        runner.finish();
+
+        assertTrue(maxRunning.get() <= 4);
+    }
+}
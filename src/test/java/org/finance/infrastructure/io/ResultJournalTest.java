@@ -0,0 +1,71 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.infrastructure.json.FastJsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultJournalTest {
+
+    @Test
+    void shouldContinueIdsAcrossRunsAndWindows(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("results.journal");
+        try (ResultJournal journal = new ResultJournal(file, 64)) {
+            for (int i = 1; i <= 100; i++) {
+                byte[] line = ("[{\"tax\":" + i + ".0}]").getBytes(StandardCharsets.UTF_8);
+                assertEquals(i, journal.append(line, 0, line.length));
+            }
+        }
+        try (ResultJournal journal = new ResultJournal(file, 64)) {
+            assertEquals(101, journal.getFirstId());
+            assertEquals(101, journal.appendFailure("Unknown operation type: transfer"));
+            byte[] large = ("[" + "{\"tax\":0.0},".repeat(20) + "{\"tax\":1.0}]").getBytes(StandardCharsets.UTF_8);
+            assertEquals(102, journal.append(large, 0, large.length));
+        }
+
+        assertEquals("[{\"tax\":1.0}]", ResultJournal.read(file, 1).getContent());
+        assertEquals("[{\"tax\":77.0}]", ResultJournal.read(file, 77).getContent());
+        ResultJournal.Record failed = ResultJournal.read(file, 101);
+        assertTrue(failed.isFailure());
+        assertEquals("Unknown operation type: transfer", failed.getContent());
+        assertFalse(ResultJournal.read(file, 102).isFailure());
+        assertTrue(ResultJournal.read(file, 102).getContent().endsWith("{\"tax\":1.0}]"));
+        assertNull(ResultJournal.read(file, 103));
+        assertNull(ResultJournal.read(tempDir.resolve("missing.journal"), 1));
+    }
+
+    @Test
+    void shouldJournalEverySimulationAsPrinted(@TempDir Path tempDir) throws Exception {
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "  {\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"transfer\", \"unit-cost\":10.00, \"quantity\": 100}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 100}]\n";
+        Path file = tempDir.resolve("results.journal");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ResultJournal journal = new ResultJournal(file)) {
+            CommandLineProcessor processor = new CommandLineProcessor(new FastJsonParser(),
+                    new TaxCalculationService(new CalculateCapitalGainsTax()), true, null, journal);
+            processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        }
+
+        List<String> printed = output.toString(StandardCharsets.UTF_8).lines().filter(line -> !line.isEmpty()).toList();
+        assertEquals(printed.get(0), ResultJournal.read(file, 1).getContent());
+        assertTrue(ResultJournal.read(file, 2).isFailure());
+        assertEquals(printed.get(1), ResultJournal.read(file, 3).getContent());
+        assertNull(ResultJournal.read(file, 4));
+        assertTrue(Files.size(file) < ResultJournal.DEFAULT_WINDOW_SIZE);
+    }
+}
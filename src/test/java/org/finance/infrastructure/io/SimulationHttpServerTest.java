@@ -0,0 +1,103 @@
+package org.finance.infrastructure.io;
+
+import org.finance.application.services.TaxCalculationService;
+import org.finance.domain.usecases.CalculateCapitalGainsTax;
+import org.finance.infrastructure.json.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SimulationHttpServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private SimulationHttpServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldAnswerEachSimulationWithItsTaxes() throws Exception {
+        server = start(new TaxCalculationService(new CalculateCapitalGainsTax()), 1 << 20, 4);
+        String body = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 10000},\n" +
+                "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\": 5000}]\n" +
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\": 100}]";
+
+        HttpResponse<String> first = post(body);
+        HttpResponse<String> second = post(body);
+
+        assertEquals(200, first.statusCode());
+        assertEquals("[{\"tax\":0.0},{\"tax\":10000.0}]\n[{\"tax\":0.0}]\n", first.body());
+        assertEquals(first.body(), second.body());
+    }
+
+    @Test
+    void shouldRejectMalformedOversizedAndNonPostRequests() throws Exception {
+        server = start(new TaxCalculationService(new CalculateCapitalGainsTax()), 64, 4);
+
+        assertEquals(400, post("[{\"operation\":\"buy\",\"unit-cost\":oops}]").statusCode());
+        assertEquals(413, post("[" + "{}, ".repeat(40) + "{}]").statusCode());
+
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(uri()).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+        assertEquals("POST", get.headers().firstValue("Allow").orElse(""));
+    }
+
+    @Test
+    void shouldRefuseRequestsBeyondConcurrencyLimit() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaxCalculationService blocking = mock(TaxCalculationService.class);
+        when(blocking.calculateTaxes(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return List.of();
+        });
+        server = start(blocking, 1 << 20, 1);
+
+        CompletableFuture<HttpResponse<String>> held = client.sendAsync(request("[]"), HttpResponse.BodyHandlers.ofString());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        HttpResponse<String> refused = post("[]");
+        release.countDown();
+
+        assertEquals(503, refused.statusCode());
+        assertEquals(200, held.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    private SimulationHttpServer start(TaxCalculationService service, int maxRequestBytes, int maxConcurrent) throws Exception {
+        SimulationHttpServer started = new SimulationHttpServer(new JsonParser(), service, 0, maxRequestBytes, maxConcurrent);
+        started.start();
+        return started;
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        return client.send(request(body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String body) {
+        return HttpRequest.newBuilder(uri()).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private URI uri() {
+        return URI.create("http://localhost:" + server.getPort() + SimulationHttpServer.PATH);
+    }
+}
@@ -0,0 +1,86 @@
+package org.finance.infrastructure.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimulationResultCacheTest {
+
+    private final AtomicInteger computations = new AtomicInteger();
+    private final AtomicInteger cachedOperations = new AtomicInteger();
+    private final Function<ByteBuffer, SimulationResultCache.Entry> compute =
+            json -> new SimulationResultCache.Entry("result-" + computations.incrementAndGet(), 1);
+
+    @Test
+    void shouldHitRegardlessOfWhitespaceOutsideStrings() {
+        SimulationResultCache cache = new SimulationResultCache(1 << 20);
+
+        String first = lookup(cache, "[{\"operation\":\"buy\",\"quantity\":1}]");
+        String second = lookup(cache, " [ {\"operation\": \"buy\",\n \"quantity\" : 1} ]\n");
+        String other = lookup(cache, "[{\"operation\":\"buy \",\"quantity\":1}]");
+
+        assertEquals(first, second);
+        assertEquals("result-2", other);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        // The hit hands back the operation count of the simulation it was computed for
+        assertEquals(1, cachedOperations.get());
+        // The normalized input is kept to verify hits, and counts against the cap
+        assertEquals(2L * "[{\"operation\":\"buy\",\"quantity\":1}]".length() + 1 + 2L * "result-1".length()
+                + 2L * SimulationResultCache.ENTRY_OVERHEAD_BYTES, cache.getUsedBytes());
+    }
+
+    @Test
+    void shouldKeepWhitespaceThatSeparatesTwoTokens() {
+        SimulationResultCache cache = new SimulationResultCache(1 << 20);
+
+        lookup(cache, "[{\"quantity\":10}]");
+        lookup(cache, "[{\"quantity\":1 0}]");
+        lookup(cache, "[ {\"quantity\" : 1\n\t0 } ]");
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBeyondMemoryCap() {
+        int entryCost = "[1]".length() + "result-1".length() + SimulationResultCache.ENTRY_OVERHEAD_BYTES;
+        SimulationResultCache cache = new SimulationResultCache(2L * entryCost);
+
+        lookup(cache, "[1]");
+        lookup(cache, "[2]");
+        lookup(cache, "[1]");
+        lookup(cache, "[3]");
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertEquals("result-1", lookup(cache, "[1]"));
+        assertEquals("result-4", lookup(cache, "[2]"));
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        SimulationResultCache cache = new SimulationResultCache(1 << 20);
+
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent(bytes("[x]"), json -> {
+            throw new IllegalStateException("boom");
+        }, cachedOperations::addAndGet));
+
+        assertEquals(0, cache.size());
+        assertEquals("result-1", lookup(cache, "[x]"));
+    }
+
+    private String lookup(SimulationResultCache cache, String json) {
+        return cache.computeIfAbsent(bytes(json), compute, cachedOperations::addAndGet);
+    }
+
+    private static ByteBuffer bytes(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package org.finance.infrastructure.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpscRingBufferTest {
+
+    @Test
+    void shouldDeliverEveryElementInOrderAcrossThreads() throws Exception {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>("test", 8);
+        int count = 100_000;
+        Thread producer = Thread.ofPlatform().start(() -> {
+            try {
+                for (int i = 0; i < count; i++) {
+                    buffer.put(i);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                buffer.close();
+            }
+        });
+
+        List<Integer> received = new ArrayList<>(count);
+        Integer element;
+        while ((element = buffer.take()) != null) {
+            received.add(element);
+        }
+        producer.join();
+
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, received.get(i));
+        }
+        assertTrue(buffer.summary().contains("max 8/8"), buffer.summary());
+    }
+
+    @Test
+    void shouldBlockProducerWhileFullUntilInterrupted() throws Exception {
+        SpscRingBuffer<String> buffer = new SpscRingBuffer<>("test", 2);
+        buffer.put("a");
+        buffer.put("b");
+        Throwable[] failure = new Throwable[1];
+        Thread producer = Thread.ofPlatform().start(() -> {
+            try {
+                buffer.put("c");
+            } catch (InterruptedException e) {
+                failure[0] = e;
+            }
+        });
+
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        producer.interrupt();
+        producer.join();
+
+        assertTrue(failure[0] instanceof InterruptedException);
+        assertEquals("a", buffer.take());
+        assertEquals("b", buffer.take());
+        assertTrue(buffer.summary().contains("full 1 times"), buffer.summary());
+    }
+
+    @Test
+    void shouldDrainRemainingElementsAfterClose() throws Exception {
+        SpscRingBuffer<String> buffer = new SpscRingBuffer<>("test", 3);
+        buffer.put("a");
+        buffer.close();
+
+        assertEquals("a", buffer.take());
+        assertNull(buffer.take());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpscRingBuffer<>("test", 0));
+    }
+}
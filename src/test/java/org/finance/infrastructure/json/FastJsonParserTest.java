@@ -0,0 +1,195 @@
+package org.finance.infrastructure.json;
+
+import org.finance.application.dto.OperationDTO;
+import org.finance.application.dto.TaxResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastJsonParserTest {
+
+    private JsonParser jackson;
+    private FastJsonParser fast;
+
+    @BeforeEach
+    void setUp() {
+        jackson = new JsonParser();
+        fast = new FastJsonParser();
+    }
+
+    @Test
+    void shouldParseSameOperationsAsJackson() {
+        Random random = new Random(11);
+        String[] spaces = {"", " ", "\n  ", "\t"};
+
+        for (int round = 0; round < 300; round++) {
+            StringBuilder json = new StringBuilder("[");
+            int size = random.nextInt(20);
+            for (int i = 0; i < size; i++) {
+                String space = spaces[random.nextInt(spaces.length)];
+                BigDecimal unitCost = BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000, random.nextInt(4));
+                json.append(i > 0 ? "," + space : "")
+                        .append("{\"operation\":").append(space).append(random.nextBoolean() ? "\"buy\"" : "\"sell\"")
+                        .append(",").append(space).append("\"unit-cost\":").append(unitCost.toPlainString())
+                        .append(", \"quantity\": ").append(random.nextInt(100_000)).append(space).append('}');
+            }
+            String input = json.append(']').toString();
+
+            List<OperationDTO> expected = jackson.parseOperations(input);
+            List<OperationDTO> actual = fast.parseOperations(input);
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getOperation(), actual.get(i).getOperation());
+                assertEquals(expected.get(i).getUnitCost(), actual.get(i).getUnitCost());
+                assertEquals(expected.get(i).getQuantity(), actual.get(i).getQuantity());
+            }
+        }
+    }
+
+    @Test
+    void shouldAcceptEscapesExponentsAndLargeNumbers() {
+        String input = "[{\"quantity\":1e2,\"unit-cost\":123456789012345678901.5,\"op\\u0065ration\":\"b\\u0075y\"}]";
+
+        List<OperationDTO> operations = fast.parseOperations(input);
+
+        assertEquals("buy", operations.get(0).getOperation());
+        assertEquals(new BigDecimal("123456789012345678901.5"), operations.get(0).getUnitCost());
+        assertEquals(100, operations.get(0).getQuantity());
+    }
+
+    @Test
+    void shouldReadOptionalAccountAndTickerLikeJackson() {
+        String input = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":5,\"account\":\"a-1\",\"ticker\":\"ABC\"}," +
+                "{\"account\":null,\"ticker\":\"XYZ\",\"operation\":\"sell\",\"unit-cost\":11.00,\"quantity\":5}," +
+                "{\"operation\":\"buy\",\"unit-cost\":1.00,\"quantity\":1}]";
+
+        List<OperationDTO> expected = jackson.parseOperations(input);
+        List<OperationDTO> actual = fast.parseOperations(input);
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getAccount(), actual.get(i).getAccount());
+            assertEquals(expected.get(i).getTicker(), actual.get(i).getTicker());
+        }
+        assertEquals("a-1", actual.get(0).getAccount());
+        assertEquals("XYZ", actual.get(1).getTicker());
+    }
+
+    @Test
+    void shouldSerializeSameBytesAsJackson() {
+        Random random = new Random(5);
+        List<TaxResultDTO> taxResults = new ArrayList<>();
+        taxResults.add(new TaxResultDTO(BigDecimal.ZERO));
+        taxResults.add(new TaxResultDTO(new BigDecimal("0.0")));
+        taxResults.add(new TaxResultDTO(new BigDecimal("-0.05")));
+        taxResults.add(new TaxResultDTO(new BigDecimal("1E+3")));
+        taxResults.add(new TaxResultDTO(new BigDecimal("123456789012345678901234.5")));
+        taxResults.add(new TaxResultDTO(BigDecimal.valueOf(Long.MAX_VALUE, 1)));
+        for (int i = 0; i < 1_000; i++) {
+            taxResults.add(new TaxResultDTO(BigDecimal.valueOf(random.nextLong() >> random.nextInt(63), random.nextInt(5))));
+        }
+
+        assertEquals(jackson.serializeTaxResults(taxResults), fast.serializeTaxResults(taxResults));
+        assertEquals(jackson.serializeTaxResults(List.of()), fast.serializeTaxResults(List.of()));
+    }
+
+    @Test
+    void shouldStreamSameBytesAsJacksonWriter() throws Exception {
+        List<TaxResultDTO> taxResults = List.of(
+                new TaxResultDTO(new BigDecimal("0.0")),
+                new TaxResultDTO(new BigDecimal("10000.0")),
+                new TaxResultDTO(new BigDecimal("-12.34")));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        try (TaxResultStreamWriter writer = jackson.openTaxResultWriter(expected)) {
+            writer.writeSimulation(taxResults);
+        }
+        try (TaxResultStreamWriter writer = fast.openTaxResultWriter(actual)) {
+            writer.writeSimulation(taxResults);
+        }
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100},|54",
+            "[{\"operation\":\"buy\",\"price\":10.00}]|20",
+            "[{\"operation\":\"buy\" \"unit-cost\":1}]|20",
+            "[{\"operation\":\"buy\",\"unit-cost\":010}]|32",
+            "[{\"operation\":\"buy\",\"quantity\":1.5}]|31",
+            "{\"operation\":\"buy\"}|0",
+            "[]x|2"
+    })
+    void shouldRejectMalformedInputWithOffset(String input, long offset) {
+        MalformedJsonException error = assertThrows(MalformedJsonException.class, () -> fast.parseOperations(input));
+
+        assertEquals(offset, error.getOffset(), error.getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100},|54",
+            "[{\"operation\":\"buy\",\"price\":10.00}]|20",
+            "[{\"operation\":\"buy\",\"unit-cost\":010}]|32",
+            "{\"operation\":\"buy\"}|0",
+            "[]x|2",
+            "[{\"operation\":\"buy\",\"unit-cost\":1,\"quantity\":1},{\"operation\":\"short\",\"unit-cost\":1,\"quantity\":1}]|48",
+            "[{\"operation\":\"sell\",\"quantity\":1}]|1",
+            "[{\"operation\":\"buy\",\"unit-cost\":1}]|1"
+    })
+    void shouldValidateWithoutThrowingAtSameOffsets(String input, int offset) {
+        OperationValidator validator = new OperationValidator();
+        List<OperationDTO> operations = new ArrayList<>();
+
+        assertFalse(validator.validate(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)), operations));
+        assertEquals(offset, validator.getFailureOffset(), validator.getFailureReason());
+    }
+
+    @Test
+    void shouldValidateSameOperationsAsParser() {
+        String input = "[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100,\"account\":\"a\",\"ticker\":\"T\"},"
+                + "{\"operation\":\"SELL\",\"unit-cost\":15.5,\"quantity\":50}]";
+        OperationValidator validator = new OperationValidator();
+        List<OperationDTO> operations = new ArrayList<>();
+
+        assertTrue(validator.validate(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)), operations));
+        assertNull(validator.getFailureReason());
+        List<OperationDTO> expected = fast.parseOperations(input);
+        assertEquals(expected.size(), operations.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getOperation(), operations.get(i).getOperation());
+            assertEquals(expected.get(i).getUnitCost(), operations.get(i).getUnitCost());
+            assertEquals(expected.get(i).getQuantity(), operations.get(i).getQuantity());
+            assertEquals(expected.get(i).getAccount(), operations.get(i).getAccount());
+        }
+    }
+
+    @Test
+    void shouldEncodeDecimalsLikeToPlainString() {
+        char[] out = new char[FastJsonParser.MAX_ENCODED_LENGTH];
+        for (String value : new String[]{"0", "0.0", "0.05", "-0.05", "7", "-7.1", "10000.0", "123.456789"}) {
+            BigDecimal decimal = new BigDecimal(value);
+            int length = FastJsonParser.encodeDecimal(decimal, out);
+
+            assertEquals(decimal.toPlainString(), new String(out, 0, length));
+        }
+    }
+}
@@ -7,7 +7,9 @@ import org.finance.application.dto.TaxResultDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -69,4 +71,49 @@ class JsonParserTest {
         assertTrue(json.contains("\"tax\":0"));
         assertTrue(json.contains("\"tax\":10000.0"));
     }
+
+    @Test
+    void shouldOmitMissingAccountAndTickerWhenSerializingOperations() {
+        // Given
+        List<OperationDTO> operations = Arrays.asList(
+                new OperationDTO("buy", new BigDecimal("10.00"), 100),
+                new OperationDTO("sell", new BigDecimal("20.00"), 50, "acc-1", "PETR4")
+        );
+
+        // When
+        String json = jsonParser.serializeOperations(operations);
+
+        // Then
+        assertEquals("[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100}," +
+                "{\"operation\":\"sell\",\"unit-cost\":20.00,\"quantity\":50,\"account\":\"acc-1\",\"ticker\":\"PETR4\"}]", json);
+    }
+
+    @Test
+    void shouldWriteSameBytesAsSerializerThroughReusableWriter() throws Exception {
+        List<TaxResultDTO> first = Arrays.asList(new TaxResultDTO(new BigDecimal("0.0")), new TaxResultDTO(new BigDecimal("10000.0")));
+        List<TaxResultDTO> second = List.of(new TaxResultDTO(new BigDecimal("1234.5")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (TaxResultStreamWriter writer = jsonParser.openTaxResultWriter(output)) {
+            writer.writeSimulation(first);
+            writer.writeSimulation(second);
+        }
+
+        String expected = System.lineSeparator() + jsonParser.serializeTaxResults(first)
+                + System.lineSeparator() + jsonParser.serializeTaxResults(second);
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldHoldOutputUntilBufferOrDelayForcesFlush() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (TaxResultStreamWriter writer = jsonParser.openTaxResultWriter(output, 1 << 16, 60_000)) {
+            writer.writeSimulation(List.of(new TaxResultDTO(new BigDecimal("0.0"))));
+            assertEquals(0, output.size());
+
+            writer.flush();
+            assertTrue(output.size() > 0);
+        }
+    }
 }
\ No newline at end of file